@@ -1,7 +1,9 @@
 package com.thegamersstation.marketplace.admin.post;
 
 import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.card.PostCardBackfill;
 import com.thegamersstation.marketplace.post.dto.PostDto;
+import com.thegamersstation.marketplace.post.export.PostExportService;
 import com.thegamersstation.marketplace.common.dto.PageResponseDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -10,9 +12,15 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/admin/posts")
@@ -23,6 +31,8 @@ import org.springframework.web.bind.annotation.*;
 public class PostModerationController {
     
     private final PostModerationService postModerationService;
+    private final PostCardBackfill postCardBackfill;
+    private final PostExportService postExportService;
     
     @GetMapping("/pending")
     @Operation(summary = "Get pending posts for approval")
@@ -71,4 +81,43 @@ public class PostModerationController {
         postModerationService.deletePost(id);
         return ResponseEntity.noContent().build();
     }
+    
+    @GetMapping("/export")
+    @Operation(
+        summary = "Export posts",
+        description = "Streams every post matching the filters in id order, as NDJSON (one JSON object per line) " +
+                     "or CSV with a header row, flattened with its category, city and store. To resume an " +
+                     "interrupted export, pass afterId=<last id received>. updatedSince takes an ISO date-time."
+    )
+    public ResponseEntity<StreamingResponseBody> exportPosts(
+        @RequestParam(defaultValue = "NDJSON") PostExportService.Format format,
+        @RequestParam(required = false) Post.PostStatus status,
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(required = false) Long cityId,
+        @RequestParam(required = false) Long storeId,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+        @RequestParam(required = false) Long afterId
+    ) {
+        PostExportService.Filter filter = new PostExportService.Filter(
+            status, categoryId, cityId, storeId, updatedSince, afterId
+        );
+        StreamingResponseBody body = out -> postExportService.export(filter, format, out);
+        return ResponseEntity.ok()
+            .contentType(format.mediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("posts." + format.extension())
+                .build()
+                .toString())
+            .body(body);
+    }
+    
+    @PostMapping("/cards/backfill")
+    @Operation(
+        summary = "Rebuild the post cards read model",
+        description = "Rewrites the listing card of every active post and removes stale cards, in batches."
+    )
+    public ResponseEntity<Void> backfillPostCards() {
+        postCardBackfill.run();
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -4,9 +4,12 @@ import com.thegamersstation.marketplace.post.Post;
 import com.thegamersstation.marketplace.post.PostRepository;
 import com.thegamersstation.marketplace.post.PostMapper;
 import com.thegamersstation.marketplace.post.dto.PostDto;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
 import com.thegamersstation.marketplace.common.dto.PageResponseDto;
 import com.thegamersstation.marketplace.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -18,6 +21,7 @@ public class PostModerationService {
     
     private final PostRepository postRepository;
     private final PostMapper postMapper;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional(readOnly = true)
     public PageResponseDto<PostDto> getPendingPosts(Pageable pageable) {
@@ -46,7 +50,8 @@ public class PostModerationService {
         }
         
         post.setStatus(Post.PostStatus.ACTIVE);
-        Post updatedPost = postRepository.save(post);
+        Post updatedPost = postRepository.saveAndFlush(post);
+        publish(PostChangedEvent.ChangeType.APPROVED, updatedPost);
         return postMapper.toDto(updatedPost);
     }
     
@@ -60,7 +65,8 @@ public class PostModerationService {
         }
         
         post.setStatus(Post.PostStatus.BLOCKED);
-        Post updatedPost = postRepository.save(post);
+        Post updatedPost = postRepository.saveAndFlush(post);
+        publish(PostChangedEvent.ChangeType.BLOCKED, updatedPost);
         return postMapper.toDto(updatedPost);
     }
     
@@ -69,6 +75,12 @@ public class PostModerationService {
         Post post = postRepository.findById(postId)
             .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
         
+        PostSnapshot snapshot = PostSnapshot.from(post);
         postRepository.delete(post);
+        eventPublisher.publishEvent(new PostChangedEvent(PostChangedEvent.ChangeType.DELETED, snapshot));
+    }
+    
+    private void publish(PostChangedEvent.ChangeType type, Post post) {
+        eventPublisher.publishEvent(new PostChangedEvent(type, PostSnapshot.from(post)));
     }
 }
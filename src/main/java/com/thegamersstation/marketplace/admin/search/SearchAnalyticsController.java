@@ -0,0 +1,34 @@
+package com.thegamersstation.marketplace.admin.search;
+
+import com.thegamersstation.marketplace.post.search.SearchQueryAnalytics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/search")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Admin - Search", description = "Search analytics endpoints for administrators")
+public class SearchAnalyticsController {
+    
+    private final SearchQueryAnalytics searchQueryAnalytics;
+    
+    @GetMapping("/analytics")
+    @Operation(
+        summary = "Popular and zero-result searches",
+        description = "Most frequent first-page searches on /posts/search (normalized query terms and filters) and " +
+                     "the most frequent ones that found nothing, over the last N time windows (one hour each by " +
+                     "default, current one included). Counts are estimates that may slightly exceed the true counts."
+    )
+    public ResponseEntity<SearchQueryAnalytics.Report> getSearchAnalytics(
+        @RequestParam(defaultValue = "24") int windows
+    ) {
+        return ResponseEntity.ok(searchQueryAnalytics.report(Math.max(1, windows)));
+    }
+}
@@ -15,8 +15,6 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -34,19 +32,7 @@ public class UserModerationService {
         );
 
         Page<User> usersPage = usersRepository.findAll(springPageRequest);
-        List<UserProfileDto> users = usersPage.getContent().stream()
-                .map(userMapper::toProfileDto)
-                .toList();
-
-        return new PageResponseDto<>(
-                users,
-                usersPage.getNumber(),
-                usersPage.getSize(),
-                usersPage.getTotalElements(),
-                usersPage.getTotalPages(),
-                usersPage.isFirst(),
-                usersPage.isLast()
-        );
+        return PageResponseDto.of(usersPage.map(userMapper::toProfileDto));
     }
 
     @Transactional
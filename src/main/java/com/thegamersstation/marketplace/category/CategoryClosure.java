@@ -0,0 +1,88 @@
+package com.thegamersstation.marketplace.category;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory closure of the category tree: for every category, the ids of
+ * itself and all of its descendants.
+ *
+ * <p>The tree has at most 3 levels and changes rarely, so the whole closure
+ * is recomputed from {@link CategoryRepository#findAllByOrderByParentIdAscSortOrderAsc()}
+ * on startup and after every committed tree change, then swapped in atomically.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryClosure {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile Map<Long, Set<Long>> subtrees;
+
+    /**
+     * @return the category and all of its descendants, parents before children;
+     *         just the id itself for an unknown category
+     */
+    public Set<Long> subtree(Long categoryId) {
+        Map<Long, Set<Long>> current = subtrees;
+        if (current == null) {
+            current = refresh();
+        }
+        return current.getOrDefault(categoryId, Set.of(categoryId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @TransactionalEventListener
+    public void onTreeChanged(CategoryTreeChangedEvent event) {
+        refresh();
+    }
+
+    public synchronized Map<Long, Set<Long>> refresh() {
+        List<Category> categories = categoryRepository.findAllByOrderByParentIdAscSortOrderAsc();
+
+        Map<Long, List<Long>> children = new HashMap<>();
+        for (Category category : categories) {
+            if (category.getParentId() != null) {
+                children.computeIfAbsent(category.getParentId(), key -> new ArrayList<>()).add(category.getId());
+            }
+        }
+
+        Map<Long, Set<Long>> closure = new HashMap<>();
+        for (Category category : categories) {
+            Set<Long> subtree = new LinkedHashSet<>();
+            collect(category.getId(), children, subtree);
+            closure.put(category.getId(), Collections.unmodifiableSet(subtree));
+        }
+
+        subtrees = closure;
+        log.info("Category closure rebuilt for {} categories", closure.size());
+        return closure;
+    }
+
+    private static void collect(Long categoryId, Map<Long, List<Long>> children, Set<Long> subtree) {
+        // The set guards against cycles in inconsistent data
+        if (!subtree.add(categoryId)) {
+            return;
+        }
+        for (Long childId : children.getOrDefault(categoryId, List.of())) {
+            collect(childId, children, subtree);
+        }
+    }
+}
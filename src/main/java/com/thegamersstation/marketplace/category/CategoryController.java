@@ -1,6 +1,7 @@
 package com.thegamersstation.marketplace.category;
 
 import com.thegamersstation.marketplace.category.dto.CategoryTreeDto;
+import com.thegamersstation.marketplace.common.dto.DataVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -10,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,12 +26,18 @@ public class CategoryController {
     @GetMapping("/tree")
     @Operation(
         summary = "Get category tree",
-        description = "Returns hierarchical category tree with up to 3 levels. Includes bilingual names (EN/AR)."
+        description = "Returns hierarchical category tree with up to 3 levels. Includes bilingual names (EN/AR). " +
+                     "Supports conditional requests via ETag/If-None-Match."
     )
     @ApiResponses({
-        @ApiResponse(responseCode = "200", description = "Category tree retrieved successfully")
+        @ApiResponse(responseCode = "200", description = "Category tree retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Category tree unchanged since the client's copy")
     })
-    public ResponseEntity<List<CategoryTreeDto>> getCategoryTree() {
+    public ResponseEntity<List<CategoryTreeDto>> getCategoryTree(WebRequest request) {
+        DataVersion version = categoryService.getDataVersion();
+        if (request.checkNotModified(version.eTag("categories"))) {
+            return null;
+        }
         List<CategoryTreeDto> tree = categoryService.getCategoryTree();
         return ResponseEntity.ok(tree);
     }
@@ -1,5 +1,7 @@
 package com.thegamersstation.marketplace.category;
 
+import com.thegamersstation.marketplace.sitemap.SitemapEntry;
+import com.thegamersstation.marketplace.sitemap.SitemapVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -17,4 +19,12 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     @Query("SELECT COUNT(c) FROM Category c WHERE c.parentId = :parentId")
     long countByParentId(Long parentId);
+
+    @Query("SELECT new com.thegamersstation.marketplace.sitemap.SitemapEntry(c.slug, COALESCE(c.updatedAt, c.createdAt)) " +
+           "FROM Category c WHERE c.isActive = true ORDER BY c.id")
+    List<SitemapEntry> findSitemapEntries();
+
+    @Query("SELECT new com.thegamersstation.marketplace.sitemap.SitemapVersion(COUNT(c), MAX(COALESCE(c.updatedAt, c.createdAt))) " +
+           "FROM Category c WHERE c.isActive = true")
+    SitemapVersion findSitemapVersion();
 }
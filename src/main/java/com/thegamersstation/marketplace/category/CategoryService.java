@@ -5,11 +5,15 @@ import com.thegamersstation.marketplace.category.dto.CreateCategoryDto;
 import com.thegamersstation.marketplace.category.dto.ReorderCategoriesDto;
 import com.thegamersstation.marketplace.category.dto.UpdateCategoryDto;
 import com.thegamersstation.marketplace.category.mapper.CategoryMapper;
+import com.thegamersstation.marketplace.common.dto.DataVersion;
 import com.thegamersstation.marketplace.common.exception.BusinessRuleException;
 import com.thegamersstation.marketplace.common.exception.ResourceNotFoundException;
 import com.thegamersstation.marketplace.common.util.SlugUtil;
+import com.thegamersstation.marketplace.common.version.ReferenceDataVersion;
+import com.thegamersstation.marketplace.common.version.ReferenceDataVersionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +21,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +31,9 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CategoryClosure categoryClosure;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReferenceDataVersionRepository referenceDataVersionRepository;
 
     @Transactional(readOnly = true)
     public List<CategoryTreeDto> getCategoryTree() {
@@ -68,6 +76,22 @@ public class CategoryService {
         return dto;
     }
 
+    /**
+     * Version of the category table, for HTTP validators of the tree. Every
+     * write below bumps it in its own transaction.
+     */
+    @Transactional(readOnly = true)
+    public DataVersion getDataVersion() {
+        return new DataVersion(referenceDataVersionRepository.findVersion(ReferenceDataVersion.CATEGORIES));
+    }
+
+    /**
+     * Ids of the category and all of its descendants, from the in-memory closure.
+     */
+    public Set<Long> getSubtreeIds(Long id) {
+        return categoryClosure.subtree(id);
+    }
+
     @Transactional(readOnly = true)
     public CategoryTreeDto getCategoryById(Long id) {
         Category category = categoryRepository.findById(id)
@@ -114,6 +138,8 @@ public class CategoryService {
                 .build();
 
         Category saved = categoryRepository.save(category);
+        referenceDataVersionRepository.increment(ReferenceDataVersion.CATEGORIES);
+        eventPublisher.publishEvent(new CategoryTreeChangedEvent(saved.getId()));
         log.info("Created category: {} (level {})", saved.getId(), saved.getLevel());
         
         return categoryMapper.toTreeDto(saved);
@@ -170,6 +196,8 @@ public class CategoryService {
         }
 
         Category saved = categoryRepository.save(category);
+        referenceDataVersionRepository.increment(ReferenceDataVersion.CATEGORIES);
+        eventPublisher.publishEvent(new CategoryTreeChangedEvent(id));
         log.info("Updated category: {}", saved.getId());
         
         return categoryMapper.toTreeDto(saved);
@@ -193,6 +221,8 @@ public class CategoryService {
         // }
 
         categoryRepository.delete(category);
+        referenceDataVersionRepository.increment(ReferenceDataVersion.CATEGORIES);
+        eventPublisher.publishEvent(new CategoryTreeChangedEvent(id));
         log.info("Deleted category: {}", id);
     }
 
@@ -217,6 +247,7 @@ public class CategoryService {
             category.setSortOrder(i);
             categoryRepository.save(category);
         }
+        referenceDataVersionRepository.increment(ReferenceDataVersion.CATEGORIES);
         
         log.info("Reordered {} categories under parent {}", categoryIds.size(), reorderDto.getParentId());
     }
@@ -0,0 +1,9 @@
+package com.thegamersstation.marketplace.category;
+
+/**
+ * Published when a category is created, updated (renamed or moved) or
+ * deleted, so that derived structures such as {@link CategoryClosure} are
+ * rebuilt after commit and denormalized copies of its names are refreshed.
+ */
+public record CategoryTreeChangedEvent(Long categoryId) {
+}
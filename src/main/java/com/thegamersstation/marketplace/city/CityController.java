@@ -1,6 +1,7 @@
 package com.thegamersstation.marketplace.city;
 
 import com.thegamersstation.marketplace.city.dto.CityDto;
+import com.thegamersstation.marketplace.common.dto.DataVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,6 +10,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,15 +25,23 @@ public class CityController {
     @GetMapping
     @Operation(
         summary = "Get cities",
-        description = "Returns list of cities. Can be filtered by region using regionId parameter."
+        description = "Returns list of cities. Can be filtered by region using regionId parameter. " +
+                     "Supports conditional requests via ETag/If-None-Match."
     )
     @ApiResponses({
-        @ApiResponse(responseCode = "200", description = "Cities retrieved successfully")
+        @ApiResponse(responseCode = "200", description = "Cities retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Cities unchanged since the client's copy")
     })
     public ResponseEntity<List<CityDto>> getCities(
             @Parameter(description = "Filter by region ID")
-            @RequestParam(required = false) Long regionId
+            @RequestParam(required = false) Long regionId,
+            WebRequest request
     ) {
+        DataVersion version = cityService.getDataVersion();
+        String representation = regionId != null ? "cities-region" + regionId : "cities";
+        if (request.checkNotModified(version.eTag(representation))) {
+            return null;
+        }
         List<CityDto> cities = regionId != null 
             ? cityService.getCitiesByRegion(regionId)
             : cityService.getAllCities();
@@ -0,0 +1,119 @@
+package com.thegamersstation.marketplace.city;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory neighbor lists of the cities: for every city with coordinates,
+ * all other such cities sorted by great-circle distance.
+ *
+ * <p>Cities are seeded by migrations and not edited at runtime, so the lists
+ * are computed once on startup; a radius lookup is then a binary search over
+ * one city's sorted distances.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CityNeighbors {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final CityRepository cityRepository;
+
+    private volatile Map<Long, Neighbors> neighbors;
+
+    /**
+     * @return the city and every city within {@code radiusKm} of it, nearest
+     *         first; just the id itself for an unknown city or one without coordinates
+     */
+    public Set<Long> within(Long cityId, double radiusKm) {
+        Map<Long, Neighbors> current = neighbors;
+        if (current == null) {
+            current = refresh();
+        }
+        Neighbors city = current.get(cityId);
+        if (city == null) {
+            return Set.of(cityId);
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        ids.add(cityId);
+        int count = city.countWithin(radiusKm);
+        for (int i = 0; i < count; i++) {
+            ids.add(city.ids()[i]);
+        }
+        return Collections.unmodifiableSet(ids);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    public synchronized Map<Long, Neighbors> refresh() {
+        List<City> cities = cityRepository.findAll().stream()
+            .filter(city -> city.getLatitude() != null && city.getLongitude() != null)
+            .toList();
+
+        Map<Long, Neighbors> lists = new HashMap<>();
+        for (City city : cities) {
+            List<City> others = cities.stream()
+                .filter(other -> !other.getId().equals(city.getId()))
+                .sorted(Comparator.comparingDouble(other -> distanceKm(city, other)))
+                .toList();
+            long[] ids = new long[others.size()];
+            double[] distances = new double[others.size()];
+            for (int i = 0; i < others.size(); i++) {
+                ids[i] = others.get(i).getId();
+                distances[i] = distanceKm(city, others.get(i));
+            }
+            lists.put(city.getId(), new Neighbors(ids, distances));
+        }
+
+        neighbors = lists;
+        log.info("City neighbor lists computed for {} cities", lists.size());
+        return lists;
+    }
+
+    /**
+     * Haversine distance between two city centres.
+     */
+    static double distanceKm(City from, City to) {
+        double lat1 = Math.toRadians(from.getLatitude().doubleValue());
+        double lat2 = Math.toRadians(to.getLatitude().doubleValue());
+        double dLat = lat2 - lat1;
+        double dLng = Math.toRadians(to.getLongitude().doubleValue() - from.getLongitude().doubleValue());
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+            + Math.cos(lat1) * Math.cos(lat2) * Math.pow(Math.sin(dLng / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Other cities by ascending distance, in parallel arrays.
+     */
+    public record Neighbors(long[] ids, double[] distances) {
+
+        int countWithin(double radiusKm) {
+            int index = Arrays.binarySearch(distances, radiusKm);
+            if (index < 0) {
+                return -index - 1;
+            }
+            // Include every city at exactly the radius
+            while (index < distances.length && distances[index] == radiusKm) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.thegamersstation.marketplace.city;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -1,11 +1,15 @@
 package com.thegamersstation.marketplace.city;
 
 import com.thegamersstation.marketplace.city.dto.CityDto;
+import com.thegamersstation.marketplace.common.dto.DataVersion;
+import com.thegamersstation.marketplace.common.version.ReferenceDataVersion;
+import com.thegamersstation.marketplace.common.version.ReferenceDataVersionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -14,6 +18,8 @@ public class CityService {
     
     private final CityRepository cityRepository;
     private final CityMapper cityMapper;
+    private final CityNeighbors cityNeighbors;
+    private final ReferenceDataVersionRepository referenceDataVersionRepository;
     
     /**
      * Get all cities
@@ -33,4 +39,22 @@ public class CityService {
         List<City> cities = cityRepository.findByRegionId(regionId);
         return cityMapper.toDtoList(cities);
     }
+    
+    /**
+     * Ids of the city and every city within a radius of it, from the in-memory neighbor lists
+     * @param cityId City ID
+     * @param radiusKm Distance between city centres, in km
+     * @return City IDs, nearest first
+     */
+    public Set<Long> getCityIdsWithin(Long cityId, double radiusKm) {
+        return cityNeighbors.within(cityId, radiusKm);
+    }
+    
+    /**
+     * Get the version of the city table, for HTTP validators
+     * @return Change counter of the table
+     */
+    public DataVersion getDataVersion() {
+        return new DataVersion(referenceDataVersionRepository.findVersion(ReferenceDataVersion.CITIES));
+    }
 }
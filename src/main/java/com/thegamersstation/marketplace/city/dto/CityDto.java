@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,4 +26,10 @@ public class CityDto {
     
     @Schema(description = "URL-friendly city slug", example = "riyadh")
     private String slug;
+    
+    @Schema(description = "Latitude of the city centre", example = "24.7136")
+    private BigDecimal latitude;
+    
+    @Schema(description = "Longitude of the city centre", example = "46.6753")
+    private BigDecimal longitude;
 }
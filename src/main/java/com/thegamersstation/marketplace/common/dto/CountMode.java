@@ -0,0 +1,20 @@
+package com.thegamersstation.marketplace.common.dto;
+
+/**
+ * How a paginated listing computes its total, chosen per request.
+ */
+public enum CountMode {
+    /**
+     * Run a count query with every page (default).
+     */
+    EXACT,
+    /**
+     * Reuse a recently computed total for the same filters; it may lag
+     * behind recent changes until the entry expires or is invalidated.
+     */
+    CACHED,
+    /**
+     * Skip counting; only whether a next page exists is reported.
+     */
+    SLICE
+}
@@ -0,0 +1,32 @@
+package com.thegamersstation.marketplace.common.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Cursor-paginated response wrapper")
+public class CursorPageResponseDto<T> {
+    
+    @Schema(description = "List of items in current page")
+    private List<T> content;
+    
+    private PaginationInfo pagination;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PaginationInfo {
+        @Schema(description = "Opaque cursor for the next page, null if no more")
+        private String nextCursor;
+        private Boolean hasMore;
+    }
+}
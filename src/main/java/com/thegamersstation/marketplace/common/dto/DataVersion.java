@@ -0,0 +1,15 @@
+package com.thegamersstation.marketplace.common.dto;
+
+/**
+ * Version of a reference data table (categories, cities, regions): a counter
+ * bumped by every change of the table, so it can back HTTP validators.
+ */
+public record DataVersion(long version) {
+    
+    /**
+     * Strong ETag for a representation of the table, e.g. "cities-42".
+     */
+    public String eTag(String representation) {
+        return "\"" + representation + "-" + version + "\"";
+    }
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -23,11 +24,11 @@ public class PageResponseDto<T> {
     @Schema(description = "Number of items per page", example = "20")
     private int size;
     
-    @Schema(description = "Total number of items", example = "150")
-    private long totalElements;
+    @Schema(description = "Total number of items, null when not counted", example = "150")
+    private Long totalElements;
     
-    @Schema(description = "Total number of pages", example = "8")
-    private int totalPages;
+    @Schema(description = "Total number of pages, null when not counted", example = "8")
+    private Integer totalPages;
     
     @Schema(description = "Whether this is the first page", example = "true")
     private boolean first;
@@ -35,6 +36,12 @@ public class PageResponseDto<T> {
     @Schema(description = "Whether this is the last page", example = "false")
     private boolean last;
     
+    @Schema(description = "Whether a next page exists", example = "true")
+    private boolean hasNext;
+    
+    @Schema(description = "Whether totalElements is exact rather than cached or absent", example = "true")
+    private boolean totalExact;
+    
     public static <T> PageResponseDto<T> of(Page<T> page) {
         return new PageResponseDto<>(
             page.getContent(),
@@ -43,7 +50,44 @@ public class PageResponseDto<T> {
             page.getTotalElements(),
             page.getTotalPages(),
             page.isFirst(),
-            page.isLast()
+            page.isLast(),
+            page.hasNext(),
+            true
+        );
+    }
+    
+    /**
+     * A page whose total was not counted.
+     */
+    public static <T> PageResponseDto<T> ofSlice(Slice<T> slice) {
+        return new PageResponseDto<>(
+            slice.getContent(),
+            slice.getNumber(),
+            slice.getSize(),
+            null,
+            null,
+            slice.isFirst(),
+            slice.isLast(),
+            slice.hasNext(),
+            false
+        );
+    }
+    
+    /**
+     * A page whose total was obtained separately, e.g. from a cache.
+     */
+    public static <T> PageResponseDto<T> ofSlice(Slice<T> slice, long totalElements, boolean totalExact) {
+        int totalPages = slice.getSize() == 0 ? 1 : (int) Math.ceil((double) totalElements / slice.getSize());
+        return new PageResponseDto<>(
+            slice.getContent(),
+            slice.getNumber(),
+            slice.getSize(),
+            totalElements,
+            totalPages,
+            slice.isFirst(),
+            slice.isLast(),
+            slice.hasNext(),
+            totalExact
         );
     }
 }
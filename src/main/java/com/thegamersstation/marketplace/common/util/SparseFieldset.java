@@ -0,0 +1,62 @@
+package com.thegamersstation.marketplace.common.util;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets: a {@code fields=title,price,thumbnailUrl} request
+ * parameter limits the serialized properties of DTOs annotated with
+ * {@code @JsonFilter(SparseFieldset.FILTER)}. The id is always included;
+ * unknown names are ignored. Page envelopes and nested objects are not filtered.
+ */
+public class SparseFieldset {
+    
+    public static final String FILTER = "sparseFieldset";
+    
+    /**
+     * @return the requested field names, or null when all fields are wanted
+     */
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        Arrays.stream(fields.split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .forEach(names::add);
+        return names;
+    }
+    
+    /**
+     * Filters that serialize only the given fields; all fields when null.
+     */
+    public static FilterProvider filters(Set<String> fields) {
+        return new SimpleFilterProvider().addFilter(FILTER, fields == null
+            ? SimpleBeanPropertyFilter.serializeAll()
+            : SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+    
+    /**
+     * Wraps a response body so Spring's Jackson converter applies the fieldset.
+     */
+    public static MappingJacksonValue apply(Object body, String fields) {
+        return apply(body, parse(fields));
+    }
+    
+    /**
+     * Same as {@link #apply(Object, String)} with already parsed fields.
+     */
+    public static MappingJacksonValue apply(Object body, Set<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(filters(fields));
+        return value;
+    }
+}
@@ -0,0 +1,30 @@
+package com.thegamersstation.marketplace.common.version;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Change counter of a reference data table, bumped in the transaction that
+ * changes the table (see {@link ReferenceDataVersionRepository#increment}).
+ */
+@Entity
+@Table(name = "reference_data_versions")
+@Getter
+@NoArgsConstructor
+public class ReferenceDataVersion {
+    
+    public static final String CATEGORIES = "categories";
+    public static final String CITIES = "cities";
+    public static final String REGIONS = "regions";
+    
+    @Id
+    @Column(length = 20)
+    private String name;
+    
+    @Column(nullable = false)
+    private Long version;
+}
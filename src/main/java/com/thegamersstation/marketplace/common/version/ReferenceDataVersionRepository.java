@@ -0,0 +1,23 @@
+package com.thegamersstation.marketplace.common.version;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReferenceDataVersionRepository extends JpaRepository<ReferenceDataVersion, String> {
+    
+    @Query("SELECT v.version FROM ReferenceDataVersion v WHERE v.name = :name")
+    long findVersion(@Param("name") String name);
+    
+    /**
+     * Bumps the version of a table. Call it in the transaction that changes
+     * the table, so both commit together; the row lock also orders
+     * concurrent changes.
+     */
+    @Modifying
+    @Query("UPDATE ReferenceDataVersion v SET v.version = v.version + 1 WHERE v.name = :name")
+    int increment(@Param("name") String name);
+}
@@ -0,0 +1,22 @@
+package com.thegamersstation.marketplace.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.thegamersstation.marketplace.common.util.SparseFieldset;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * DTOs that support sparse fieldsets serialize every field unless a
+     * response supplies its own {@link SparseFieldset} filter.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsetCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+            .addFilter(SparseFieldset.FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
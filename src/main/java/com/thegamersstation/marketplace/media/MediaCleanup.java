@@ -0,0 +1,60 @@
+package com.thegamersstation.marketplace.media;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Deletes removed media from storage in the background.
+ *
+ * <p>URLs are queued only after the transaction that stopped referencing them
+ * commits, so a rolled-back edit never loses its images, and the storage
+ * calls are made by a scheduled drain instead of on the request path.
+ * URLs outside our own storage are dropped (see {@link MediaService#isStoredUrl}).
+ * A deletion that fails is logged by {@link MediaService} and not retried.</p>
+ *
+ * <p>The queue is only in memory: URLs still queued when the application
+ * stops are not deleted and stay in storage unreferenced. That loses at most
+ * one drain interval of deletions, and leaves orphans rather than broken
+ * images, so it is not worth persisting.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MediaCleanup {
+
+    private final MediaService mediaService;
+
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+
+    @TransactionalEventListener
+    public void onMediaRemoved(MediaRemovedEvent event) {
+        for (String url : event.urls()) {
+            if (mediaService.isStoredUrl(url)) {
+                pending.add(url);
+            } else {
+                log.warn("Ignoring removed media outside our storage: {}", url);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${media.cleanup.drain-millis:5000}")
+    public void drain() {
+        List<String> urls = new ArrayList<>();
+        String url;
+        while ((url = pending.poll()) != null) {
+            urls.add(url);
+        }
+        if (!urls.isEmpty()) {
+            mediaService.deleteImages(urls);
+            log.info("Deleted {} removed media objects", urls.size());
+        }
+    }
+}
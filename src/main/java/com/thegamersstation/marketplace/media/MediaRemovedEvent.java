@@ -0,0 +1,11 @@
+package com.thegamersstation.marketplace.media;
+
+import java.util.List;
+
+/**
+ * Published when stored media is no longer referenced, e.g. images removed
+ * from a post. The objects are deleted from storage once the publishing
+ * transaction commits (see {@link MediaCleanup}).
+ */
+public record MediaRemovedEvent(List<String> urls) {
+}
@@ -14,6 +14,7 @@ import software.amazon.awssdk.services.s3.model.*;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
@@ -106,12 +107,16 @@ public class MediaService {
     }
 
     /**
-     * Delete image by URL
+     * Delete image by URL. URLs outside this application's storage are ignored.
      */
     public void deleteImage(String imageUrl) {
         if (imageUrl == null || imageUrl.isBlank()) {
             return;
         }
+        if (!isStoredUrl(imageUrl)) {
+            log.warn("Not deleting media outside our storage: {}", imageUrl);
+            return;
+        }
 
         if ("s3".equalsIgnoreCase(storageProvider) && s3Client != null) {
             deleteFromS3(imageUrl);
@@ -131,6 +136,30 @@ public class MediaService {
         imageUrls.forEach(this::deleteImage);
     }
 
+    /**
+     * Whether a URL points into this application's storage: under the local
+     * base URL, or under the CloudFront domain or S3 bucket URL that
+     * {@link #uploadImage} returns. URLs with ".." segments never do.
+     */
+    public boolean isStoredUrl(String imageUrl) {
+        if (imageUrl == null || imageUrl.contains("..")) {
+            return false;
+        }
+        return storedUrlPrefixes().stream().anyMatch(imageUrl::startsWith);
+    }
+
+    private List<String> storedUrlPrefixes() {
+        List<String> prefixes = new ArrayList<>(3);
+        prefixes.add(localBaseUrl + "/");
+        if (cloudFrontDomain != null && !cloudFrontDomain.isBlank()) {
+            prefixes.add("https://" + cloudFrontDomain + "/");
+        }
+        if (s3BucketName != null && !s3BucketName.isBlank()) {
+            prefixes.add(String.format("https://%s.s3.%s.amazonaws.com/", s3BucketName, s3Region));
+        }
+        return prefixes;
+    }
+
     /**
      * Extract S3 key from CloudFront or S3 URL
      * Example URLs:
@@ -304,19 +333,28 @@ public class MediaService {
     }
 
     /**
-     * Delete from local storage
+     * Delete from local storage, only below the upload directory
      */
     private void deleteFromLocal(String imageUrl) {
+        if (!imageUrl.startsWith(localBaseUrl + "/")) {
+            log.warn("Not a local storage URL: {}", imageUrl);
+            return;
+        }
         try {
             // Extract path from URL
-            String relativePath = imageUrl.replace(localBaseUrl + "/", "");
-            Path filePath = Paths.get(localUploadDir, relativePath);
+            String relativePath = imageUrl.substring((localBaseUrl + "/").length());
+            Path uploadDir = Paths.get(localUploadDir).toAbsolutePath().normalize();
+            Path filePath = uploadDir.resolve(relativePath).normalize();
+            if (!filePath.startsWith(uploadDir) || filePath.equals(uploadDir)) {
+                log.warn("Not deleting outside the upload directory: {}", imageUrl);
+                return;
+            }
 
             if (Files.exists(filePath)) {
                 Files.delete(filePath);
                 log.info("Image deleted from local storage: {}", filePath);
             }
-        } catch (IOException e) {
+        } catch (IOException | InvalidPathException e) {
             log.error("Failed to delete image from local storage: {}", imageUrl, e);
         }
     }
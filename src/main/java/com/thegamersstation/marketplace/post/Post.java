@@ -6,6 +6,7 @@ import com.thegamersstation.marketplace.store.Store;
 import com.thegamersstation.marketplace.user.repository.User;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -36,8 +37,14 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 public class Post {
+    /**
+     * Allocated in blocks of 50 from id_sequences rather than by AUTO_INCREMENT,
+     * so Hibernate can batch the inserts of a post and its images.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "posts_id")
+    @TableGenerator(name = "posts_id", table = "id_sequences", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "posts", allocationSize = 50)
     private Long id;
 
     /**
@@ -110,8 +117,13 @@ public class Post {
     @Builder.Default
     private PostStatus status = PostStatus.WAITING_APPROVAL;
 
+    /**
+     * Initialized in batches: touching the images of one post in a listing loads
+     * the images of every post in the persistence context with a single IN query.
+     */
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sortOrder ASC")
+    @BatchSize(size = 100)
     @Builder.Default
     private List<PostImage> images = new ArrayList<>();
 
@@ -126,6 +138,21 @@ public class Post {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Incremented by every update of the post, and in bulk when its store
+     * badge or category changes; identifies what a client has cached. A
+     * plain counter rather than a JPA version, so concurrent writes of the
+     * same post (approval, edit, sold) do not reject each other.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+
+    @PreUpdate
+    void incrementVersion() {
+        version++;
+    }
+
     public enum PostType {
         SELL, ASK
     }
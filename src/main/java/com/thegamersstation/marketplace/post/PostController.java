@@ -1,11 +1,30 @@
 package com.thegamersstation.marketplace.post;
 
+import com.thegamersstation.marketplace.category.CategoryService;
+import com.thegamersstation.marketplace.city.CityService;
+import com.thegamersstation.marketplace.post.bulk.PostBulkService;
+import com.thegamersstation.marketplace.post.dto.BulkCreatePostsRequest;
+import com.thegamersstation.marketplace.post.dto.BulkCreatePostsResponse;
+import com.thegamersstation.marketplace.post.dto.PostCardDto;
 import com.thegamersstation.marketplace.post.dto.PostDto;
+import com.thegamersstation.marketplace.post.dto.PostFacetsDto;
+import com.thegamersstation.marketplace.post.dto.PostSuggestionsDto;
 import com.thegamersstation.marketplace.post.dto.CreatePostRequest;
 import com.thegamersstation.marketplace.post.dto.UpdatePostRequest;
+import com.thegamersstation.marketplace.post.search.PostCursor;
+import com.thegamersstation.marketplace.post.search.PostResultCache;
+import com.thegamersstation.marketplace.post.search.PostSearchCriteria;
+import com.thegamersstation.marketplace.post.search.SearchQueryAnalytics;
+import com.thegamersstation.marketplace.common.dto.CountMode;
+import com.thegamersstation.marketplace.common.exception.BusinessRuleException;
+import com.thegamersstation.marketplace.common.dto.CursorPageResponseDto;
 import com.thegamersstation.marketplace.common.dto.PageResponseDto;
+import com.thegamersstation.marketplace.common.util.SparseFieldset;
 import com.thegamersstation.marketplace.security.SecurityUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -13,10 +32,17 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/posts")
@@ -25,6 +51,13 @@ import org.springframework.web.bind.annotation.*;
 public class PostController {
     
     private final PostService PostService;
+    private final PostBulkService postBulkService;
+    private final CategoryService categoryService;
+    private final CityService cityService;
+    private final PostResultCache postResultCache;
+    private final PostDetailCache postDetailCache;
+    private final PostJsonCache postJsonCache;
+    private final SearchQueryAnalytics searchQueryAnalytics;
     
     @PostMapping
     @PreAuthorize("isAuthenticated()")
@@ -36,6 +69,21 @@ public class PostController {
         return ResponseEntity.status(HttpStatus.CREATED).body(Post);
     }
     
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('STORE_MANAGER')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(
+        summary = "Create many posts at once",
+        description = "Creates up to 200 posts for the current store manager in one transaction. " +
+                     "Each post is validated on its own; rejected posts are reported with their errors " +
+                     "and do not prevent the others from being created."
+    )
+    public ResponseEntity<BulkCreatePostsResponse> createPosts(@Valid @RequestBody BulkCreatePostsRequest request) {
+        Long userId = SecurityUtil.getCurrentUserId();
+        BulkCreatePostsResponse response = postBulkService.createPosts(request.getPosts(), userId);
+        return ResponseEntity.status(response.getCreated() > 0 ? HttpStatus.CREATED : HttpStatus.OK).body(response);
+    }
+    
     @PutMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     @SecurityRequirement(name = "bearerAuth")
@@ -50,39 +98,150 @@ public class PostController {
     }
     
     @GetMapping("/{id}")
-    @Operation(summary = "Get Post by ID")
-    public ResponseEntity<PostDto> getPostById(@PathVariable Long id) {
-        PostDto Post = PostService.getPostById(id);
-        return ResponseEntity.ok(Post);
+    @Operation(
+        summary = "Get Post by ID",
+        description = "Supports conditional requests via ETag/If-None-Match; an unchanged post is answered " +
+                     "with 304 without loading it."
+    )
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = PostDto.class)))
+    public ResponseEntity<byte[]> getPostById(@PathVariable Long id, WebRequest request) {
+        // No Last-Modified: a one-second date cannot tell apart two changes within the same second
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            long version = postDetailCache.peekVersion(id).orElseGet(() -> PostService.getPostVersion(id));
+            if (request.checkNotModified(postDetailCache.eTag(id, version))) {
+                return null;
+            }
+        }
+        PostDetailCache.CachedPost cached = postDetailCache.get(id, () -> PostService.getPostById(id));
+        return ResponseEntity.ok()
+            .eTag(postDetailCache.eTag(id, cached.version()))
+            .varyBy(HttpHeaders.ACCEPT_LANGUAGE)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(postJsonCache.toJson(cached.post()));
+    }
+    
+    @GetMapping("/{id}/similar")
+    @Operation(
+        summary = "Similar posts",
+        description = "Active posts most similar to an active post by title and description words, ranked higher " +
+                     "in the same category and city; filled up with the newest posts of the same category. " +
+                     "Answered from memory as cards."
+    )
+    public ResponseEntity<List<PostCardDto>> getSimilarPosts(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(PostService.getSimilarPosts(id, Math.max(1, Math.min(limit, 50))));
     }
     
     @GetMapping
-    @Operation(summary = "Search posts with filters")
-    public ResponseEntity<PageResponseDto<PostDto>> searchPosts(
+    @Operation(
+        summary = "Search posts with filters",
+        description = "count selects how the total is computed: EXACT (default), CACHED (recent total for the " +
+                     "same filters, may lag briefly) or SLICE (no total, only hasNext). totalExact tells which applied. " +
+                     "includeDescendants=true also matches posts in subcategories of categoryId. " +
+                     "fields=title,price,... returns only the listed post fields (id is always included)."
+    )
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = PageResponseDto.class)))
+    public ResponseEntity<byte[]> searchPosts(
         @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "false") boolean includeDescendants,
         @RequestParam(required = false) Long cityId,
         @RequestParam(required = false) Post.PostType type,
         @RequestParam(required = false) Post.PostCondition condition,
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "20") int size,
         @RequestParam(defaultValue = "createdAt") String sortBy,
-        @RequestParam(defaultValue = "DESC") Sort.Direction direction
+        @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+        @RequestParam(defaultValue = "EXACT") CountMode count,
+        @RequestParam(required = false) String fields
+    ) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+        PostSearchCriteria criteria = new PostSearchCriteria(
+            null, categoryIds(categoryId, includeDescendants), cityIds(cityId, null), null, type, condition, null, null
+        );
+        PageResponseDto<PostDto> ads = postResultCache.get(PostResultCache.Listing.FILTER, criteria, pageable, count,
+            () -> PostService.searchPosts(criteria, pageable, count));
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(postJsonCache.toJson(ads, SparseFieldset.parse(fields)));
+    }
+    
+    @GetMapping(params = {"view=card", "!cursor"})
+    @Operation(
+        summary = "Search posts with filters (cards)",
+        description = "Same as GET /posts, used when view=card: returns compact cards (no description, owner " +
+                     "or image list) read from a denormalized listing table. " +
+                     "fields=title,price,... returns only the listed post fields (id is always included)."
+    )
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = PageResponseDto.class)))
+    public ResponseEntity<MappingJacksonValue> searchPostCards(
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "false") boolean includeDescendants,
+        @RequestParam(required = false) Long cityId,
+        @RequestParam(required = false) Post.PostType type,
+        @RequestParam(required = false) Post.PostCondition condition,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "createdAt") String sortBy,
+        @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+        @RequestParam(defaultValue = "EXACT") CountMode count,
+        @RequestParam(required = false) String fields
     ) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        PageResponseDto<PostDto> ads = PostService.searchPosts(categoryId, cityId, type, condition, pageable);
-        return ResponseEntity.ok(ads);
+        PostSearchCriteria criteria = new PostSearchCriteria(
+            null, categoryIds(categoryId, includeDescendants), cityIds(cityId, null), null, type, condition, null, null
+        );
+        PageResponseDto<PostCardDto> cards = PostService.searchPostCards(criteria, pageable, count);
+        return ResponseEntity.ok(SparseFieldset.apply(cards, fields));
+    }
+    
+    @GetMapping(params = "cursor")
+    @Operation(
+        summary = "Search posts with filters (cursor pagination)",
+        description = "Keyset-paginated variant used when a cursor parameter is present; send an empty cursor " +
+                     "for the first page, then the returned nextCursor. Supports sorting by createdAt or price."
+    )
+    public ResponseEntity<CursorPageResponseDto<PostDto>> searchPostsByCursor(
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "false") boolean includeDescendants,
+        @RequestParam(required = false) Long cityId,
+        @RequestParam(required = false) Post.PostType type,
+        @RequestParam(required = false) Post.PostCondition condition,
+        @RequestParam String cursor,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "createdAt") String sortBy,
+        @RequestParam(defaultValue = "DESC") Sort.Direction direction
+    ) {
+        PostSearchCriteria criteria = new PostSearchCriteria(
+            null, categoryIds(categoryId, includeDescendants), cityIds(cityId, null), null, type, condition, null, null
+        );
+        PostCursor.SortKey sortKey = PostCursor.SortKey.from(Sort.by(direction, sortBy));
+        return ResponseEntity.ok(PostService.searchPostsAfter(criteria, sortKey, cursor, cursorPageSize(size)));
     }
     
     @GetMapping("/search")
     @Operation(
         summary = "Advanced post search",
         description = "Search posts with full-text search, filters, price range, and sorting. " +
-                     "Supports sorting by: createdAt, price, title. Add 'Desc' suffix for descending (e.g., 'priceDesc', 'newest')."
+                     "Supports sorting by: newest, oldest, price_asc, price_desc, title and relevance " +
+                     "(relevance applies only when q is given; otherwise newest is used). " +
+                     "count selects how the total is computed: EXACT (default), CACHED or SLICE. " +
+                     "includeDescendants=true also matches posts in subcategories of categoryId. " +
+                     "radiusKm=100 also matches posts in cities within 100 km of cityId. " +
+                     "fields=title,price,... returns only the listed post fields (id is always included)."
     )
-    public ResponseEntity<PageResponseDto<PostDto>> advancedSearch(
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = PageResponseDto.class)))
+    public ResponseEntity<byte[]> advancedSearch(
         @RequestParam(required = false) String q,
         @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "false") boolean includeDescendants,
         @RequestParam(required = false) Long cityId,
+        @RequestParam(required = false) Double radiusKm,
         @RequestParam(required = false) Long regionId,
         @RequestParam(required = false) Post.PostType type,
         @RequestParam(required = false) Post.PostCondition condition,
@@ -90,16 +249,157 @@ public class PostController {
         @RequestParam(required = false) java.math.BigDecimal maxPrice,
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "20") int size,
-        @RequestParam(defaultValue = "newest") String sort
+        @RequestParam(defaultValue = "newest") String sort,
+        @RequestParam(defaultValue = "EXACT") CountMode count,
+        @RequestParam(required = false) String fields
     ) {
         // Parse sort parameter
         Sort sorting = parseSortParameter(sort);
         Pageable pageable = PageRequest.of(page, size, sorting);
         
-        PageResponseDto<PostDto> posts = PostService.advancedSearchPosts(
-            q, categoryId, cityId, regionId, type, condition, minPrice, maxPrice, pageable
+        PostSearchCriteria criteria = new PostSearchCriteria(
+            q, categoryIds(categoryId, includeDescendants), cityIds(cityId, radiusKm), regionId, type, condition, minPrice, maxPrice
         );
-        return ResponseEntity.ok(posts);
+        PageResponseDto<PostDto> posts = postResultCache.get(PostResultCache.Listing.SEARCH, criteria, pageable, count,
+            () -> PostService.advancedSearchPosts(criteria, pageable, count));
+        if (page == 0) {
+            searchQueryAnalytics.record(criteria, posts.getContent().isEmpty());
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(postJsonCache.toJson(posts, SparseFieldset.parse(fields)));
+    }
+    
+    @GetMapping(value = "/search", params = {"view=card", "!cursor"})
+    @Operation(
+        summary = "Advanced post search (cards)",
+        description = "Same as GET /posts/search, used when view=card: returns compact cards (no description, " +
+                     "owner or image list) read from a denormalized listing table. " +
+                     "fields=title,price,... returns only the listed post fields (id is always included)."
+    )
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = PageResponseDto.class)))
+    public ResponseEntity<MappingJacksonValue> advancedSearchCards(
+        @RequestParam(required = false) String q,
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "false") boolean includeDescendants,
+        @RequestParam(required = false) Long cityId,
+        @RequestParam(required = false) Double radiusKm,
+        @RequestParam(required = false) Long regionId,
+        @RequestParam(required = false) Post.PostType type,
+        @RequestParam(required = false) Post.PostCondition condition,
+        @RequestParam(required = false) java.math.BigDecimal minPrice,
+        @RequestParam(required = false) java.math.BigDecimal maxPrice,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "newest") String sort,
+        @RequestParam(defaultValue = "EXACT") CountMode count,
+        @RequestParam(required = false) String fields
+    ) {
+        Pageable pageable = PageRequest.of(page, size, parseSortParameter(sort));
+        PostSearchCriteria criteria = new PostSearchCriteria(
+            q, categoryIds(categoryId, includeDescendants), cityIds(cityId, radiusKm), regionId, type, condition, minPrice, maxPrice
+        );
+        PageResponseDto<PostCardDto> cards = PostService.searchPostCards(criteria, pageable, count);
+        if (page == 0) {
+            searchQueryAnalytics.record(criteria, cards.getContent().isEmpty());
+        }
+        return ResponseEntity.ok(SparseFieldset.apply(cards, fields));
+    }
+    
+    @GetMapping("/facets")
+    @Operation(
+        summary = "Facet counts for a post search",
+        description = "Takes the same filters as /posts/search and returns the number of matching posts per " +
+                     "category, city, region, type, condition and price range. Each facet ignores its own filter."
+    )
+    public ResponseEntity<PostFacetsDto> getFacets(
+        @RequestParam(required = false) String q,
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "false") boolean includeDescendants,
+        @RequestParam(required = false) Long cityId,
+        @RequestParam(required = false) Double radiusKm,
+        @RequestParam(required = false) Long regionId,
+        @RequestParam(required = false) Post.PostType type,
+        @RequestParam(required = false) Post.PostCondition condition,
+        @RequestParam(required = false) java.math.BigDecimal minPrice,
+        @RequestParam(required = false) java.math.BigDecimal maxPrice
+    ) {
+        PostSearchCriteria criteria = new PostSearchCriteria(
+            q, categoryIds(categoryId, includeDescendants), cityIds(cityId, radiusKm), regionId, type, condition, minPrice, maxPrice
+        );
+        return ResponseEntity.ok(PostService.getFacets(criteria));
+    }
+    
+    @GetMapping("/suggest")
+    @Operation(
+        summary = "Search box autocomplete",
+        description = "Completes the last word of q from the words of active post titles, and lists categories " +
+                     "and cities whose English or Arabic name starts with q; each list is ordered by number of posts. " +
+                     "Answered from memory, meant to be called on every keystroke."
+    )
+    public ResponseEntity<PostSuggestionsDto> suggest(
+        @RequestParam String q,
+        @RequestParam(defaultValue = "8") int limit
+    ) {
+        return ResponseEntity.ok(PostService.suggest(q, Math.max(1, Math.min(limit, 20))));
+    }
+    
+    @GetMapping(value = "/search", params = "cursor")
+    @Operation(
+        summary = "Advanced post search (cursor pagination)",
+        description = "Keyset-paginated variant used when a cursor parameter is present; send an empty cursor " +
+                     "for the first page, then the returned nextCursor. Supports sorting by: newest, oldest, " +
+                     "price_asc and price_desc. Price orders only include posts with a fixed price."
+    )
+    public ResponseEntity<CursorPageResponseDto<PostDto>> advancedSearchByCursor(
+        @RequestParam(required = false) String q,
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "false") boolean includeDescendants,
+        @RequestParam(required = false) Long cityId,
+        @RequestParam(required = false) Double radiusKm,
+        @RequestParam(required = false) Long regionId,
+        @RequestParam(required = false) Post.PostType type,
+        @RequestParam(required = false) Post.PostCondition condition,
+        @RequestParam(required = false) java.math.BigDecimal minPrice,
+        @RequestParam(required = false) java.math.BigDecimal maxPrice,
+        @RequestParam String cursor,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "newest") String sort
+    ) {
+        PostSearchCriteria criteria = new PostSearchCriteria(
+            q, categoryIds(categoryId, includeDescendants), cityIds(cityId, radiusKm), regionId, type, condition, minPrice, maxPrice
+        );
+        PostCursor.SortKey sortKey = PostCursor.SortKey.from(parseSortParameter(sort));
+        return ResponseEntity.ok(PostService.searchPostsAfter(criteria, sortKey, cursor, cursorPageSize(size)));
+    }
+    
+    /**
+     * With includeDescendants, a category matches posts in any of its subcategories too.
+     */
+    private Set<Long> categoryIds(Long categoryId, boolean includeDescendants) {
+        if (categoryId == null) {
+            return null;
+        }
+        return includeDescendants ? categoryService.getSubtreeIds(categoryId) : Set.of(categoryId);
+    }
+    
+    /**
+     * With radiusKm, a city matches posts in every city within that distance of it too.
+     */
+    private Set<Long> cityIds(Long cityId, Double radiusKm) {
+        if (radiusKm != null && (cityId == null || radiusKm < 0)) {
+            throw new BusinessRuleException("radiusKm requires a cityId and must not be negative");
+        }
+        if (cityId == null) {
+            return null;
+        }
+        return radiusKm != null ? cityService.getCityIdsWithin(cityId, radiusKm) : Set.of(cityId);
+    }
+    
+    private static int cursorPageSize(int size) {
+        // Limit max page size
+        return Math.max(1, Math.min(size, 100));
     }
     
     private Sort parseSortParameter(String sort) {
@@ -109,6 +409,7 @@ public class PostController {
             case "price_asc", "priceasc", "cheapest" -> Sort.by(Sort.Direction.ASC, "price");
             case "price_desc", "pricedesc", "expensive" -> Sort.by(Sort.Direction.DESC, "price");
             case "title" -> Sort.by(Sort.Direction.ASC, "title");
+            case "relevance" -> Sort.by(Sort.Direction.DESC, "relevance");
             default -> Sort.by(Sort.Direction.DESC, "createdAt");
         };
     }
@@ -116,17 +417,24 @@ public class PostController {
     @GetMapping("/my-ads")
     @PreAuthorize("isAuthenticated()")
     @SecurityRequirement(name = "bearerAuth")
-    @Operation(summary = "Get my posts")
-    public ResponseEntity<PageResponseDto<PostDto>> getMyPosts(
+    @Operation(
+        summary = "Get my posts",
+        description = "fields=title,price,... returns only the listed post fields (id is always included)."
+    )
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = PageResponseDto.class)))
+    public ResponseEntity<MappingJacksonValue> getMyPosts(
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "20") int size,
         @RequestParam(defaultValue = "createdAt") String sortBy,
-        @RequestParam(defaultValue = "DESC") Sort.Direction direction
+        @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+        @RequestParam(required = false) String fields
     ) {
         Long userId = SecurityUtil.getCurrentUserId();
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        PageResponseDto<PostDto> ads = PostService.getMyPosts(userId, pageable);
-        return ResponseEntity.ok(ads);
+        Set<String> fieldset = SparseFieldset.parse(fields);
+        PageResponseDto<PostDto> ads = PostService.getMyPosts(userId, pageable, fieldset);
+        return ResponseEntity.ok(SparseFieldset.apply(ads, fieldset));
     }
     
     @DeleteMapping("/{id}")
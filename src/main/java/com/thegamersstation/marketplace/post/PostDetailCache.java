@@ -0,0 +1,125 @@
+package com.thegamersstation.marketplace.post;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thegamersstation.marketplace.category.CategoryTreeChangedEvent;
+import com.thegamersstation.marketplace.common.util.LocalizationService;
+import com.thegamersstation.marketplace.post.dto.PostDto;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import com.thegamersstation.marketplace.store.StoreChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of mapped post details for GET /posts/{id}, per post and
+ * language (category and city names are localized).
+ * 
+ * <p>Concurrent misses on the same key wait for a single load. Entries carry
+ * the post's {@link Post#getVersion() version} and are evicted once a change
+ * to the post, its store badge or its category commits; the eviction waits
+ * for an in-flight load of the key, so a load that read the old row cannot
+ * survive it. Size is bounded by an estimate of each entry's weight
+ * in KB, and entries expire after a while as a safety net for changes that
+ * publish no event (e.g. a renamed owner).</p>
+ */
+@Component
+public class PostDetailCache {
+    
+    private final boolean enabled;
+    private final LocalizationService localizationService;
+    private final Cache<Key, CachedPost> posts;
+    
+    public PostDetailCache(
+        LocalizationService localizationService,
+        @Value("${post.detail-cache.enabled:true}") boolean enabled,
+        @Value("${post.detail-cache.expire-minutes:10}") long expireMinutes,
+        @Value("${post.detail-cache.max-weight-kb:32768}") long maxWeightKb
+    ) {
+        this.enabled = enabled;
+        this.localizationService = localizationService;
+        this.posts = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+            .maximumWeight(maxWeightKb)
+            .weigher((Key key, CachedPost cached) -> weightKb(cached.post()))
+            .build();
+    }
+    
+    /**
+     * Returns the cached post, loading it with {@code loader} on a miss.
+     * Exceptions of the loader (e.g. not found) propagate and are not cached.
+     */
+    public CachedPost get(Long postId, Supplier<PostDto> loader) {
+        if (!enabled) {
+            return CachedPost.of(loader.get());
+        }
+        Key key = new Key(postId, localizationService.isArabic());
+        return posts.get(key, k -> CachedPost.of(loader.get()));
+    }
+    
+    /**
+     * Version of the cached post, if present, without loading it.
+     */
+    public OptionalLong peekVersion(Long postId) {
+        CachedPost cached = enabled ? posts.getIfPresent(new Key(postId, localizationService.isArabic())) : null;
+        return cached != null ? OptionalLong.of(cached.version()) : OptionalLong.empty();
+    }
+    
+    /**
+     * Strong ETag of a post version in the current language.
+     */
+    public String eTag(Long postId, long version) {
+        return "\"post-" + postId + "-" + version + (localizationService.isArabic() ? "-ar" : "-en") + "\"";
+    }
+    
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.type() == PostChangedEvent.ChangeType.CREATED) {
+            return;
+        }
+        posts.invalidate(new Key(event.postId(), true));
+        posts.invalidate(new Key(event.postId(), false));
+    }
+    
+    @TransactionalEventListener
+    public void onStoreChanged(StoreChangedEvent event) {
+        posts.asMap().entrySet().removeIf(entry -> entry.getValue().post().getStore() != null
+            && event.storeId().equals(entry.getValue().post().getStore().getId()));
+    }
+    
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryTreeChangedEvent event) {
+        posts.asMap().entrySet().removeIf(entry -> event.categoryId().equals(entry.getValue().post().getCategoryId()));
+    }
+    
+    /**
+     * Rough retained size of a mapped post: fixed fields plus its text and images.
+     */
+    private static int weightKb(PostDto post) {
+        long chars = length(post.getTitle()) + length(post.getDescription());
+        int images = post.getImages() != null ? post.getImages().size() : 0;
+        long bytes = 1024 + chars * 2 + images * 256L;
+        return (int) Math.max(1, bytes / 1024);
+    }
+    
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+    
+    private record Key(Long postId, boolean arabic) {
+    }
+    
+    /**
+     * A mapped post and its version.
+     */
+    public record CachedPost(PostDto post, long version) {
+        
+        static CachedPost of(PostDto post) {
+            return new CachedPost(post, post.getVersion() != null ? post.getVersion() : 0L);
+        }
+    }
+}
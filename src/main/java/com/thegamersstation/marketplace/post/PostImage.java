@@ -17,7 +17,9 @@ import java.time.LocalDateTime;
 @Builder
 public class PostImage {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "post_images_id")
+    @TableGenerator(name = "post_images_id", table = "id_sequences", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "post_images", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -40,4 +42,16 @@ public class PostImage {
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    /**
+     * A new image of a post at the given position, from an uploaded URL.
+     */
+    public static PostImage of(Post post, String url, int sortOrder) {
+        return PostImage.builder()
+            .post(post)
+            .url(url)
+            .thumbnailUrl(url) // TODO: Generate thumbnails
+            .sortOrder(sortOrder)
+            .build();
+    }
 }
@@ -0,0 +1,158 @@
+package com.thegamersstation.marketplace.post;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thegamersstation.marketplace.common.dto.PageResponseDto;
+import com.thegamersstation.marketplace.common.util.LocalizationService;
+import com.thegamersstation.marketplace.common.util.SparseFieldset;
+import com.thegamersstation.marketplace.post.dto.PostDto;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serialized UTF-8 JSON of mapped posts, per post and language, so the hot
+ * read endpoints write cached bytes instead of running Jackson over the same
+ * DTO on every request.
+ * 
+ * <p>Listing pages are assembled by concatenating the cached fragments of
+ * their posts inside a freshly serialized page envelope. A fragment is only
+ * served for the {@link Post#getVersion() version} it was serialized from;
+ * a DTO of another version replaces it. Changes of a store badge or of a
+ * category bump the versions of their posts, so their fragments need no
+ * eviction. A committed change of the post itself evicts its two fragments,
+ * in case a concurrent write produced the same version number.</p>
+ */
+@Component
+public class PostJsonCache {
+    
+    private static final byte[] CONTENT_START = "{\"content\":[".getBytes(StandardCharsets.UTF_8);
+    
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final LocalizationService localizationService;
+    private final Cache<Key, Fragment> fragments;
+    
+    public PostJsonCache(
+        ObjectMapper objectMapper,
+        LocalizationService localizationService,
+        @Value("${post.json-cache.enabled:true}") boolean enabled,
+        @Value("${post.json-cache.expire-minutes:10}") long expireMinutes,
+        @Value("${post.json-cache.max-weight-kb:32768}") long maxWeightKb
+    ) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        this.localizationService = localizationService;
+        this.fragments = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+            .maximumWeight(maxWeightKb)
+            .weigher((Key key, Fragment fragment) -> Math.max(1, fragment.json().length / 1024))
+            .build();
+    }
+    
+    /**
+     * JSON of a post mapped in the current language.
+     */
+    public byte[] toJson(PostDto post) {
+        if (!enabled) {
+            return serialize(post);
+        }
+        long version = post.getVersion() != null ? post.getVersion() : 0L;
+        Key key = new Key(post.getId(), localizationService.isArabic());
+        Fragment cached = fragments.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            return cached.json();
+        }
+        byte[] json = serialize(post);
+        fragments.put(key, new Fragment(version, json));
+        return json;
+    }
+    
+    /**
+     * JSON of a page of posts limited to a sparse fieldset. Fragments hold
+     * whole posts, so a fieldset is serialized directly.
+     * 
+     * @param fields see {@link SparseFieldset#parse}; null for all fields
+     */
+    public byte[] toJson(PageResponseDto<PostDto> page, Set<String> fields) {
+        if (fields == null) {
+            return toJson(page);
+        }
+        try {
+            return objectMapper.writer(SparseFieldset.filters(fields)).writeValueAsBytes(page);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * JSON of a page of posts mapped in the current language; the same
+     * document Jackson would write for the {@link PageResponseDto}.
+     */
+    public byte[] toJson(PageResponseDto<PostDto> page) {
+        ObjectNode envelope = objectMapper.valueToTree(new PageResponseDto<>(
+            List.of(),
+            page.getPage(),
+            page.getSize(),
+            page.getTotalElements(),
+            page.getTotalPages(),
+            page.isFirst(),
+            page.isLast(),
+            page.isHasNext(),
+            page.isTotalExact()
+        ));
+        envelope.remove("content");
+        byte[] rest = serialize(envelope);
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 + 1024 * page.getContent().size());
+        out.writeBytes(CONTENT_START);
+        for (int i = 0; i < page.getContent().size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(toJson(page.getContent().get(i)));
+        }
+        out.write(']');
+        if (envelope.isEmpty()) {
+            out.write('}');
+        } else {
+            // The envelope's own fields, without its opening brace
+            out.write(',');
+            out.write(rest, 1, rest.length - 1);
+        }
+        return out.toByteArray();
+    }
+    
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        fragments.invalidateAll(List.of(new Key(event.postId(), false), new Key(event.postId(), true)));
+    }
+    
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private record Key(Long postId, boolean arabic) {
+    }
+    
+    /**
+     * Serialized post and the version it was serialized from.
+     */
+    private record Fragment(long version, byte[] json) {
+    }
+}
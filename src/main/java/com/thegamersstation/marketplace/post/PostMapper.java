@@ -1,12 +1,16 @@
 package com.thegamersstation.marketplace.post;
 
+import com.thegamersstation.marketplace.post.card.PostCard;
+import com.thegamersstation.marketplace.post.dto.PostCardDto;
 import com.thegamersstation.marketplace.post.dto.PostDto;
 import com.thegamersstation.marketplace.post.dto.PostImageDto;
 import com.thegamersstation.marketplace.common.util.LocalizationService;
+import com.thegamersstation.marketplace.common.util.SparseFieldset;
 import org.mapstruct.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Mapper(componentModel = "spring")
@@ -25,12 +29,54 @@ public abstract class PostMapper {
     @Mapping(target = "images", expression = "java(mapImages(post.getImages()))")
     public abstract PostDto toDto(Post post);
     
+    @InheritConfiguration(name = "toDto")
+    @Mapping(target = "images", ignore = true)
+    protected abstract PostDto toDtoWithoutImages(Post post);
+    
+    /**
+     * Maps a post for a sparse fieldset, leaving its lazily loaded images
+     * unloaded when they are not requested.
+     * 
+     * @param fields see {@link SparseFieldset#parse}; null for all fields
+     */
+    public PostDto toDto(Post post, Set<String> fields) {
+        return fields == null || fields.contains("images") ? toDto(post) : toDtoWithoutImages(post);
+    }
+    
     @Mapping(target = "id", source = "id")
     @Mapping(target = "url", source = "url")
     @Mapping(target = "thumbnailUrl", source = "thumbnailUrl")
     @Mapping(target = "sortOrder", source = "sortOrder")
     public abstract PostImageDto toImageDto(PostImage image);
     
+    public PostCardDto toCardDto(PostCard card) {
+        return PostCardDto.builder()
+            .id(card.getPostId())
+            .type(card.getType())
+            .title(card.getTitle())
+            .descriptionExcerpt(card.getDescriptionExcerpt())
+            .price(card.getPrice())
+            .priceMin(card.getPriceMin())
+            .priceMax(card.getPriceMax())
+            .currency(card.getCurrency())
+            .condition(card.getCondition())
+            .thumbnailUrl(card.getThumbnailUrl())
+            .categoryId(card.getCategoryId())
+            .categoryName(localizationService.get(card.getCategoryNameEn(), card.getCategoryNameAr()))
+            .cityId(card.getCityId())
+            .cityName(localizationService.get(card.getCityNameEn(), card.getCityNameAr()))
+            .store(card.getStoreId() == null ? null : PostDto.StoreInfoDto.builder()
+                .id(card.getStoreId())
+                .nameEn(card.getStoreNameEn())
+                .nameAr(card.getStoreNameAr())
+                .slug(card.getStoreSlug())
+                .logoUrl(card.getStoreLogoUrl())
+                .isVerified(card.getStoreVerified())
+                .build())
+            .createdAt(card.getCreatedAt())
+            .build();
+    }
+    
     protected String getCategoryName(Post post) {
         if (post.getCategory() == null) return null;
         return localizationService.get(
@@ -1,14 +1,27 @@
 package com.thegamersstation.marketplace.post;
 
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import com.thegamersstation.marketplace.post.export.PostExportRow;
+import com.thegamersstation.marketplace.sitemap.SitemapEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificationExecutor<Post> {
@@ -16,38 +29,220 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
     @Query("SELECT p FROM Post p WHERE p.id = :id AND p.status <> 'DELETED'")
     Optional<Post> findByIdAndNotDeleted(@Param("id") Long id);
     
+    /**
+     * Version of an ACTIVE post, the basis of its HTTP validators.
+     */
+    @Query("SELECT p.version FROM Post p WHERE p.id = :id AND p.status = 'ACTIVE'")
+    Optional<Long> findActiveVersion(@Param("id") Long id);
+    
+    /**
+     * Bumps the version of every post of a store, whose badge the posts show.
+     * updatedAt is assigned its own value, which keeps MySQL from moving it
+     * (ON UPDATE CURRENT_TIMESTAMP): the posts themselves did not change.
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.version = p.version + 1, p.updatedAt = p.updatedAt WHERE p.store.id = :storeId")
+    int incrementVersionsByStore(@Param("storeId") Long storeId);
+    
+    /**
+     * Bumps the version of every post of a category, whose names the posts
+     * show, keeping updatedAt like {@link #incrementVersionsByStore}.
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.version = p.version + 1, p.updatedAt = p.updatedAt WHERE p.category.id = :categoryId")
+    int incrementVersionsByCategory(@Param("categoryId") Long categoryId);
+    
+    /*
+     * Listing queries fetch the to-one associations used by PostMapper#toDto in the
+     * same statement; images are batch-loaded (see Post#images) so a page costs a
+     * fixed number of statements regardless of its size.
+     * 
+     * The category filter takes a list (one category or a whole subtree) plus an
+     * anyCategory flag, since a multi-valued parameter cannot be tested with IS NULL.
+     * Pass a placeholder list such as [-1] together with anyCategory = true. The
+     * city filter works the same way (one city or the cities within a radius, anyCity).
+     * 
+     * minPrice/maxPrice select posts whose price overlaps the range: the fixed
+     * price when set, otherwise the priceMin..priceMax range of e.g. ASK posts
+     * (see PostSearchCriteria#matchesPrice).
+     */
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
     @Query("SELECT p FROM Post p WHERE p.owner.id = :ownerId AND p.status <> 'DELETED'")
     Page<Post> findByOwnerIdAndNotDeleted(@Param("ownerId") Long ownerId, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
     @Query("SELECT p FROM Post p WHERE p.status = :status")
     Page<Post> findByStatus(@Param("status") Post.PostStatus status, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
     @Query("SELECT p FROM Post p WHERE p.status = 'ACTIVE' " +
-           "AND (:categoryId IS NULL OR p.category.id = :categoryId) " +
-           "AND (:cityId IS NULL OR p.city.id = :cityId) " +
+           "AND (:anyCategory = true OR p.category.id IN :categoryIds) " +
+           "AND (:anyCity = true OR p.city.id IN :cityIds) " +
            "AND (:type IS NULL OR p.type = :type) " +
            "AND (:condition IS NULL OR p.condition = :condition)")
     Page<Post> searchPosts(
-        @Param("categoryId") Long categoryId,
-        @Param("cityId") Long cityId,
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
         @Param("type") Post.PostType type,
         @Param("condition") Post.PostCondition condition,
         Pageable pageable
     );
     
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
     @Query("SELECT p FROM Post p WHERE p.status = 'ACTIVE' " +
-           "AND (:query IS NULL OR :query = '' OR LOWER(p.title) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-           "AND (:categoryId IS NULL OR p.category.id = :categoryId) " +
-           "AND (:cityId IS NULL OR p.city.id = :cityId) " +
+           "AND (:anyCategory = true OR p.category.id IN :categoryIds) " +
+           "AND (:anyCity = true OR p.city.id IN :cityIds) " +
            "AND (:regionId IS NULL OR p.city.region.id = :regionId) " +
            "AND (:type IS NULL OR p.type = :type) " +
            "AND (:condition IS NULL OR p.condition = :condition) " +
-           "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
-           "AND (:maxPrice IS NULL OR p.price <= :maxPrice)")
+           "AND (:minPrice IS NULL OR COALESCE(p.price, p.priceMax, p.priceMin) >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR COALESCE(p.price, p.priceMin, p.priceMax) <= :maxPrice)")
     Page<Post> advancedSearchPosts(
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") Post.PostType type,
+        @Param("condition") Post.PostCondition condition,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice,
+        Pageable pageable
+    );
+    
+    String FULLTEXT_SEARCH_FROM =
+        "FROM posts p JOIN cities ci ON ci.id = p.city_id " +
+        "WHERE p.status = 'ACTIVE' " +
+        "AND MATCH(p.title, p.description) AGAINST(:query IN BOOLEAN MODE) " +
+        "AND (:anyCategory = TRUE OR p.category_id IN (:categoryIds)) " +
+        "AND (:anyCity = TRUE OR p.city_id IN (:cityIds)) " +
+        "AND (:regionId IS NULL OR ci.region_id = :regionId) " +
+        "AND (:type IS NULL OR p.type = :type) " +
+        "AND (:condition IS NULL OR p.`condition` = :condition) " +
+        "AND (:minPrice IS NULL OR COALESCE(p.price, p.price_max, p.price_min) >= :minPrice) " +
+        "AND (:maxPrice IS NULL OR COALESCE(p.price, p.price_min, p.price_max) <= :maxPrice) ";
+    
+    String FULLTEXT_SEARCH_ORDER =
+        "ORDER BY " +
+        "CASE WHEN :sort = 'relevance' THEN MATCH(p.title, p.description) AGAINST(:query IN BOOLEAN MODE) END DESC, " +
+        "CASE WHEN :sort = 'price_asc' THEN p.price END ASC, " +
+        "CASE WHEN :sort = 'price_desc' THEN p.price END DESC, " +
+        "CASE WHEN :sort = 'title' THEN p.title END ASC, " +
+        "CASE WHEN :sort = 'oldest' THEN p.created_at END ASC, " +
+        "p.created_at DESC, p.id DESC";
+    
+    /**
+     * Full-text search over the ngram FULLTEXT index on (title, description).
+     * 
+     * <p>{@code query} must already be a boolean-mode expression. Only ids are
+     * selected; callers hydrate the page with {@link #findAllWithAssociationsByIdIn}.
+     * Ordering is chosen by {@code sort} (relevance, newest, oldest, price_asc,
+     * price_desc, title) because native queries cannot take a property-based Sort.</p>
+     */
+    @Query(value = "SELECT p.id " + FULLTEXT_SEARCH_FROM + FULLTEXT_SEARCH_ORDER,
+           countQuery = "SELECT COUNT(*) " + FULLTEXT_SEARCH_FROM,
+           nativeQuery = true)
+    Page<Long> fullTextSearchPostIds(
         @Param("query") String query,
-        @Param("categoryId") Long categoryId,
-        @Param("cityId") Long cityId,
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") String type,
+        @Param("condition") String condition,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice,
+        @Param("sort") String sort,
+        Pageable pageable
+    );
+    
+    /**
+     * {@link #fullTextSearchPostIds} without the count query: fetches one extra
+     * row to tell whether a next page exists.
+     */
+    @Query(value = "SELECT p.id " + FULLTEXT_SEARCH_FROM + FULLTEXT_SEARCH_ORDER, nativeQuery = true)
+    Slice<Long> fullTextSearchPostIdsSlice(
+        @Param("query") String query,
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") String type,
+        @Param("condition") String condition,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice,
+        @Param("sort") String sort,
+        Pageable pageable
+    );
+    
+    @Query(value = "SELECT COUNT(*) " + FULLTEXT_SEARCH_FROM, nativeQuery = true)
+    long countFullTextSearch(
+        @Param("query") String query,
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") String type,
+        @Param("condition") String condition,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice
+    );
+    
+    /**
+     * Fallback for facet counts while the in-memory facet index is not ready:
+     * ACTIVE posts grouped by every facet dimension in one statement, as rows of
+     * (category_id, city_id, region_id, condition, type, price_bucket, count).
+     * The price bucket is the ordinal of
+     * {@link com.thegamersstation.marketplace.post.search.PriceBucket}, or -1 without a price.
+     * {@code query} is a boolean-mode expression or null.
+     */
+    @Query(value = "SELECT p.category_id, p.city_id, ci.region_id, p.`condition`, p.type, " +
+                   "CASE WHEN p.price IS NULL THEN -1 " +
+                   "WHEN p.price < 100 THEN 0 " +
+                   "WHEN p.price < 500 THEN 1 " +
+                   "WHEN p.price < 1000 THEN 2 " +
+                   "WHEN p.price < 2500 THEN 3 " +
+                   "WHEN p.price < 5000 THEN 4 " +
+                   "ELSE 5 END AS price_bucket, " +
+                   "COUNT(*) " +
+                   "FROM posts p JOIN cities ci ON ci.id = p.city_id " +
+                   "WHERE p.status = 'ACTIVE' " +
+                   "AND (:query IS NULL OR MATCH(p.title, p.description) AGAINST(:query IN BOOLEAN MODE)) " +
+                   "AND (:minPrice IS NULL OR COALESCE(p.price, p.price_max, p.price_min) >= :minPrice) " +
+                   "AND (:maxPrice IS NULL OR COALESCE(p.price, p.price_min, p.price_max) <= :maxPrice) " +
+                   "GROUP BY p.category_id, p.city_id, ci.region_id, p.`condition`, p.type, price_bucket",
+           nativeQuery = true)
+    List<Object[]> countFacetRows(
+        @Param("query") String query,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice
+    );
+    
+    String ACTIVE_FILTERS =
+        "WHERE p.status = 'ACTIVE' " +
+        "AND (:anyCategory = true OR p.category.id IN :categoryIds) " +
+        "AND (:anyCity = true OR p.city.id IN :cityIds) " +
+        "AND (:regionId IS NULL OR p.city.region.id = :regionId) " +
+        "AND (:type IS NULL OR p.type = :type) " +
+        "AND (:condition IS NULL OR p.condition = :condition) " +
+        "AND (:minPrice IS NULL OR COALESCE(p.price, p.priceMax, p.priceMin) >= :minPrice) " +
+        "AND (:maxPrice IS NULL OR COALESCE(p.price, p.priceMin, p.priceMax) <= :maxPrice) ";
+    
+    /**
+     * Filtered listing of ACTIVE posts without a count query; see {@link #countActive}.
+     */
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
+    @Query("SELECT p FROM Post p " + ACTIVE_FILTERS)
+    Slice<Post> findActiveSlice(
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
         @Param("regionId") Long regionId,
         @Param("type") Post.PostType type,
         @Param("condition") Post.PostCondition condition,
@@ -56,9 +251,248 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
         Pageable pageable
     );
     
+    @Query("SELECT COUNT(p) FROM Post p " + ACTIVE_FILTERS)
+    long countActive(
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") Post.PostType type,
+        @Param("condition") Post.PostCondition condition,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice
+    );
+    
+    /*
+     * Keyset ("seek") pagination: each query returns the posts strictly after the
+     * cursor position in its order, without OFFSET and without a COUNT query.
+     * Callers pass PageRequest.of(0, size + 1) to learn whether more posts follow.
+     * A null cursor starts from the beginning. The createdAt orders walk
+     * idx_status_created; ties are broken by id in the same direction.
+     */
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
+    @Query("SELECT p FROM Post p " + ACTIVE_FILTERS +
+           "AND (:cursorId IS NULL OR p.createdAt < :cursorCreatedAt " +
+           "OR (p.createdAt = :cursorCreatedAt AND p.id < :cursorId)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findActiveNewestAfter(
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") Post.PostType type,
+        @Param("condition") Post.PostCondition condition,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice,
+        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
+    
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
+    @Query("SELECT p FROM Post p " + ACTIVE_FILTERS +
+           "AND (:cursorId IS NULL OR p.createdAt > :cursorCreatedAt " +
+           "OR (p.createdAt = :cursorCreatedAt AND p.id > :cursorId)) " +
+           "ORDER BY p.createdAt ASC, p.id ASC")
+    List<Post> findActiveOldestAfter(
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") Post.PostType type,
+        @Param("condition") Post.PostCondition condition,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice,
+        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
+    
+    /*
+     * Price orders only contain posts with a fixed price, which have a position in the order.
+     */
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
+    @Query("SELECT p FROM Post p " + ACTIVE_FILTERS +
+           "AND p.price IS NOT NULL " +
+           "AND (:cursorId IS NULL OR p.price > :cursorPrice " +
+           "OR (p.price = :cursorPrice AND p.id > :cursorId)) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<Post> findActiveCheapestAfter(
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") Post.PostType type,
+        @Param("condition") Post.PostCondition condition,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice,
+        @Param("cursorPrice") java.math.BigDecimal cursorPrice,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
+    
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
+    @Query("SELECT p FROM Post p " + ACTIVE_FILTERS +
+           "AND p.price IS NOT NULL " +
+           "AND (:cursorId IS NULL OR p.price < :cursorPrice " +
+           "OR (p.price = :cursorPrice AND p.id < :cursorId)) " +
+           "ORDER BY p.price DESC, p.id DESC")
+    List<Post> findActiveMostExpensiveAfter(
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") Post.PostType type,
+        @Param("condition") Post.PostCondition condition,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice,
+        @Param("cursorPrice") java.math.BigDecimal cursorPrice,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
+    
+    /**
+     * Keyset variant of {@link #fullTextSearchPostIds}: ids strictly after the
+     * cursor in the {@code sort} order (newest, oldest, price_asc, price_desc),
+     * ties broken by id. No count query is run.
+     */
+    @Query(value = "SELECT p.id " + FULLTEXT_SEARCH_FROM +
+                   "AND (:sort NOT IN ('price_asc', 'price_desc') OR p.price IS NOT NULL) " +
+                   "AND (:cursorId IS NULL " +
+                   "OR (:sort = 'newest' AND (p.created_at < :cursorCreatedAt OR (p.created_at = :cursorCreatedAt AND p.id < :cursorId))) " +
+                   "OR (:sort = 'oldest' AND (p.created_at > :cursorCreatedAt OR (p.created_at = :cursorCreatedAt AND p.id > :cursorId))) " +
+                   "OR (:sort = 'price_asc' AND (p.price > :cursorPrice OR (p.price = :cursorPrice AND p.id > :cursorId))) " +
+                   "OR (:sort = 'price_desc' AND (p.price < :cursorPrice OR (p.price = :cursorPrice AND p.id < :cursorId)))) " +
+                   "ORDER BY " +
+                   "CASE WHEN :sort = 'price_asc' THEN p.price END ASC, " +
+                   "CASE WHEN :sort = 'price_desc' THEN p.price END DESC, " +
+                   "CASE WHEN :sort = 'oldest' THEN p.created_at END ASC, " +
+                   "CASE WHEN :sort = 'newest' THEN p.created_at END DESC, " +
+                   "CASE WHEN :sort IN ('price_asc', 'oldest') THEN p.id END ASC, " +
+                   "p.id DESC",
+           nativeQuery = true)
+    List<Long> fullTextSearchPostIdsAfter(
+        @Param("query") String query,
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") String type,
+        @Param("condition") String condition,
+        @Param("minPrice") java.math.BigDecimal minPrice,
+        @Param("maxPrice") java.math.BigDecimal maxPrice,
+        @Param("sort") String sort,
+        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+        @Param("cursorPrice") java.math.BigDecimal cursorPrice,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
+    
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
+    @Query("SELECT p FROM Post p WHERE p.id IN :ids")
+    List<Post> findAllWithAssociationsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Posts with everything a post card is built from, for the card backfill.
+     */
+    @EntityGraph(attributePaths = {"store", "category", "city", "city.region", "images"})
+    @Query("SELECT p FROM Post p WHERE p.id IN :ids")
+    List<Post> findAllForCardsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT p.id FROM Post p WHERE p.status = 'ACTIVE' AND p.id > :afterId ORDER BY p.id")
+    List<Long> findActiveIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * One batch of a post export: posts after {@code afterId} in id order,
+     * flattened into rows, each filter ignored when null. Walking the primary
+     * key with a bounded page keeps every batch an index range read.
+     */
+    @Query("SELECT new com.thegamersstation.marketplace.post.export.PostExportRow(" +
+           "p.id, p.status, p.type, p.condition, p.title, p.description, " +
+           "p.price, p.priceMin, p.priceMax, p.currency, " +
+           "c.id, c.slug, c.nameEn, c.nameAr, ci.id, ci.slug, ci.nameEn, ci.nameAr, ci.region.id, " +
+           "s.id, s.slug, p.owner.id, p.createdAt, p.updatedAt) " +
+           "FROM Post p JOIN p.category c JOIN p.city ci LEFT JOIN p.store s " +
+           "WHERE p.id > :afterId " +
+           "AND (:status IS NULL OR p.status = :status) " +
+           "AND (:categoryId IS NULL OR c.id = :categoryId) " +
+           "AND (:cityId IS NULL OR ci.id = :cityId) " +
+           "AND (:storeId IS NULL OR s.id = :storeId) " +
+           "AND (:updatedSince IS NULL OR p.updatedAt >= :updatedSince) " +
+           "ORDER BY p.id")
+    List<PostExportRow> findExportRows(
+        @Param("status") Post.PostStatus status,
+        @Param("categoryId") Long categoryId,
+        @Param("cityId") Long cityId,
+        @Param("storeId") Long storeId,
+        @Param("updatedSince") LocalDateTime updatedSince,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    /**
+     * ACTIVE posts per sitemap shard, the posts with ids in
+     * [shard * shardSize + 1, (shard + 1) * shardSize], as rows of
+     * (shard, count, sum of ids, latest modification). A row changes whenever
+     * a post of the shard is added, edited or removed.
+     */
+    @Query(value = "SELECT (p.id - 1) DIV :shardSize AS shard, COUNT(*), SUM(p.id), " +
+                   "MAX(COALESCE(p.updated_at, p.created_at)) " +
+                   "FROM posts p WHERE p.status = 'ACTIVE' " +
+                   "GROUP BY shard ORDER BY shard",
+           nativeQuery = true)
+    List<Object[]> findSitemapShards(@Param("shardSize") int shardSize);
+    
+    /**
+     * Streams the ACTIVE posts of an id range in id order for a sitemap shard,
+     * one row at a time like {@link #streamActiveSnapshots()}.
+     */
+    @Query("SELECT new com.thegamersstation.marketplace.sitemap.SitemapEntry(" +
+           "CAST(p.id AS String), COALESCE(p.updatedAt, p.createdAt)) " +
+           "FROM Post p WHERE p.status = 'ACTIVE' AND p.id BETWEEN :fromId AND :toId ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<SitemapEntry> streamSitemapEntries(@Param("fromId") long fromId, @Param("toId") long toId);
+    
+    /**
+     * Those of {@code urls} that images of posts other than {@code postId}
+     * still use, as image or thumbnail.
+     */
+    @Query("SELECT i.url FROM PostImage i WHERE i.post.id <> :postId AND i.url IN :urls " +
+           "UNION SELECT i.thumbnailUrl FROM PostImage i WHERE i.post.id <> :postId AND i.thumbnailUrl IN :urls")
+    List<String> findImageUrlsUsedByOtherPosts(@Param("urls") Collection<String> urls, @Param("postId") Long postId);
+    
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids AND p.status = 'ACTIVE'")
+    List<Long> findActiveIdsIn(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT COUNT(p) FROM Post p WHERE p.owner.id = :ownerId AND p.status = 'ACTIVE'")
     long countActivePostsByOwner(@Param("ownerId") Long ownerId);
     
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
     @Query("SELECT p FROM Post p WHERE p.store.id = :storeId AND p.status = 'ACTIVE'")
     Page<Post> findByStoreIdAndActive(@Param("storeId") Long storeId, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"owner", "store", "category", "city"})
+    @Override
+    Page<Post> findAll(Pageable pageable);
+    
+    /**
+     * Streams every ACTIVE post as a {@link PostSnapshot}, in id order, for
+     * rebuilding in-memory read models. Rows are streamed from MySQL one at a
+     * time (fetch size {@code Integer.MIN_VALUE}), so memory stays flat; the
+     * caller must consume the stream inside a transaction and close it.
+     */
+    @Query("SELECT new com.thegamersstation.marketplace.post.event.PostSnapshot(" +
+           "p.id, p.status, p.type, p.condition, p.title, p.description, " +
+           "c.id, c.nameEn, c.nameAr, ci.id, ci.nameEn, ci.nameAr, ci.region.id, s.id, " +
+           "p.price, p.priceMin, p.priceMax, p.createdAt, p.updatedAt) " +
+           "FROM Post p JOIN p.category c JOIN p.city ci LEFT JOIN p.store s " +
+           "WHERE p.status = 'ACTIVE' ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<PostSnapshot> streamActiveSnapshots();
 }
@@ -1,41 +1,91 @@
 package com.thegamersstation.marketplace.post;
 
+import com.thegamersstation.marketplace.post.card.PostCard;
+import com.thegamersstation.marketplace.post.card.PostCardProjector;
+import com.thegamersstation.marketplace.post.card.PostCardRepository;
+import com.thegamersstation.marketplace.post.dto.PostCardDto;
 import com.thegamersstation.marketplace.post.dto.PostDto;
+import com.thegamersstation.marketplace.post.dto.PostFacetsDto;
+import com.thegamersstation.marketplace.post.dto.PostSuggestionsDto;
 import com.thegamersstation.marketplace.post.dto.CreatePostRequest;
 import com.thegamersstation.marketplace.post.dto.UpdatePostRequest;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import com.thegamersstation.marketplace.post.search.FacetCounts;
+import com.thegamersstation.marketplace.post.search.PostCountCache;
+import com.thegamersstation.marketplace.post.search.PostCursor;
+import com.thegamersstation.marketplace.post.search.PostSearchCriteria;
+import com.thegamersstation.marketplace.post.search.PostFilterIndex;
+import com.thegamersstation.marketplace.post.search.PostSearchIndex;
+import com.thegamersstation.marketplace.post.search.PostSimilarityIndex;
+import com.thegamersstation.marketplace.post.search.PostSuggestIndex;
+import com.thegamersstation.marketplace.post.search.PriceBucket;
 import com.thegamersstation.marketplace.category.Category;
 import com.thegamersstation.marketplace.category.CategoryRepository;
+import com.thegamersstation.marketplace.common.dto.CountMode;
+import com.thegamersstation.marketplace.common.dto.CursorPageResponseDto;
 import com.thegamersstation.marketplace.common.dto.PageResponseDto;
 import com.thegamersstation.marketplace.city.City;
 import com.thegamersstation.marketplace.city.CityRepository;
 import com.thegamersstation.marketplace.common.exception.ResourceNotFoundException;
 import com.thegamersstation.marketplace.common.util.ContentSanitizer;
+import com.thegamersstation.marketplace.common.util.LocalizationService;
+import com.thegamersstation.marketplace.media.MediaRemovedEvent;
 import com.thegamersstation.marketplace.store.Store;
 import com.thegamersstation.marketplace.store.StoreRepository;
 import com.thegamersstation.marketplace.user.repository.User;
 import com.thegamersstation.marketplace.user.repository.UsersRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PostService {
     
+    private static final Pattern BOOLEAN_MODE_OPERATORS = Pattern.compile("[+\\-<>()~*\"@]");
+    
     private final PostRepository postRepository;
+    private final PostCardRepository postCardRepository;
     private final UsersRepository usersRepository;
     private final CategoryRepository categoryRepository;
     private final CityRepository cityRepository;
     private final StoreRepository storeRepository;
     private final PostMapper postMapper;
     private final ContentSanitizer contentSanitizer;
+    private final PostSearchIndex postSearchIndex;
+    private final PostFilterIndex postFilterIndex;
+    private final PostSuggestIndex postSuggestIndex;
+    private final PostSimilarityIndex postSimilarityIndex;
+    private final PostCountCache postCountCache;
+    private final LocalizationService localizationService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public PostDto createPost(CreatePostRequest request, Long userId) {
@@ -80,16 +130,11 @@ public class PostService {
         
         // Add images
         for (int i = 0; i < request.getImageUrls().size(); i++) {
-            PostImage image = PostImage.builder()
-                .post(post)
-                .url(request.getImageUrls().get(i))
-                .thumbnailUrl(request.getImageUrls().get(i)) // TODO: Generate thumbnails
-                .sortOrder(i)
-                .build();
-            post.getImages().add(image);
+            post.getImages().add(PostImage.of(post, request.getImageUrls().get(i), i));
         }
         
         Post savedPost = postRepository.save(post);
+        publish(PostChangedEvent.ChangeType.CREATED, savedPost);
         return postMapper.toDto(savedPost);
     }
     
@@ -137,22 +182,90 @@ public class PostService {
         }
         
         if (request.getImageUrls() != null) {
-            post.getImages().clear();
-            for (int i = 0; i < request.getImageUrls().size(); i++) {
-                PostImage image = PostImage.builder()
-                    .post(post)
-                    .url(request.getImageUrls().get(i))
-                    .thumbnailUrl(request.getImageUrls().get(i))
-                    .sortOrder(i)
-                    .build();
-                post.getImages().add(image);
-            }
+            updateImages(post, request.getImageUrls());
         }
         
-        Post updatedPost = postRepository.save(post);
+        Post updatedPost = postRepository.saveAndFlush(post);
+        publish(PostChangedEvent.ChangeType.UPDATED, updatedPost);
         return postMapper.toDto(updatedPost);
     }
     
+    /**
+     * Brings the post's images in line with {@code imageUrls} by a minimal
+     * diff: images whose URL is still listed are kept, with their thumbnail and
+     * storage id, and only moved if their position changed; new URLs are
+     * inserted and unlisted images deleted. Removed objects that no other post
+     * uses are scheduled for deletion from storage after commit. Any change
+     * touches the post's updatedAt, which also moves its version.
+     * 
+     * <p>Positions are unique per post (uk_post_sort) and checked row by row,
+     * while Hibernate runs inserts before updates within a flush. So deletions
+     * and moved images are first flushed with a temporary negative position,
+     * which frees their old positions, and only then are new images inserted
+     * and moved ones set to their final position.</p>
+     */
+    private void updateImages(Post post, List<String> imageUrls) {
+        Map<String, ArrayDeque<PostImage>> existingByUrl = new HashMap<>();
+        for (PostImage image : post.getImages()) {
+            existingByUrl.computeIfAbsent(image.getUrl(), url -> new ArrayDeque<>()).add(image);
+        }
+        
+        PostImage[] kept = new PostImage[imageUrls.size()];
+        boolean moved = false;
+        boolean added = false;
+        for (int i = 0; i < imageUrls.size(); i++) {
+            ArrayDeque<PostImage> sameUrl = existingByUrl.get(imageUrls.get(i));
+            PostImage image = sameUrl != null ? sameUrl.poll() : null;
+            if (image == null) {
+                added = true;
+            } else if (image.getSortOrder() != i) {
+                image.setSortOrder(-image.getSortOrder() - 1);
+                moved = true;
+            }
+            kept[i] = image;
+        }
+        
+        List<PostImage> removed = existingByUrl.values().stream()
+            .flatMap(Collection::stream)
+            .toList();
+        if (moved || added || !removed.isEmpty()) {
+            // Image rows are separate entities; without this the post itself is not dirty
+            post.setUpdatedAt(LocalDateTime.now());
+        }
+        post.getImages().removeAll(removed);
+        if (moved || (added && !removed.isEmpty())) {
+            postRepository.flush();
+        }
+        
+        for (int i = 0; i < imageUrls.size(); i++) {
+            if (kept[i] == null) {
+                post.getImages().add(PostImage.of(post, imageUrls.get(i), i));
+            } else {
+                kept[i].setSortOrder(i);
+            }
+        }
+        post.getImages().sort(Comparator.comparing(PostImage::getSortOrder));
+        
+        if (!removed.isEmpty()) {
+            Set<String> stillUsed = new HashSet<>(imageUrls);
+            List<String> objects = removed.stream()
+                .flatMap(image -> Stream.of(image.getUrl(), image.getThumbnailUrl()))
+                .filter(url -> url != null && !stillUsed.contains(url))
+                .distinct()
+                .toList();
+            if (!objects.isEmpty()) {
+                // URLs are client input: one may be another post's image
+                Set<String> usedElsewhere = new HashSet<>(postRepository.findImageUrlsUsedByOtherPosts(objects, post.getId()));
+                objects = objects.stream()
+                    .filter(url -> !usedElsewhere.contains(url))
+                    .toList();
+            }
+            if (!objects.isEmpty()) {
+                eventPublisher.publishEvent(new MediaRemovedEvent(objects));
+            }
+        }
+    }
+    
     @Transactional(readOnly = true)
     public PostDto getPostById(Long adId) {
         Post post = postRepository.findByIdAndNotDeleted(adId)
@@ -165,46 +278,610 @@ public class PostService {
         return postMapper.toDto(post);
     }
     
+    /**
+     * Version of an ACTIVE post (see {@link Post#getVersion()}) without loading it.
+     */
     @Transactional(readOnly = true)
-    public PageResponseDto<PostDto> searchPosts(
-        Long categoryId,
-        Long cityId,
-        Post.PostType type,
-        Post.PostCondition condition,
-        Pageable pageable
-    ) {
-        Page<Post> postsPage = postRepository.searchPosts(categoryId, cityId, type, condition, pageable);
-        return PageResponseDto.of(postsPage.map(postMapper::toDto));
+    public long getPostVersion(Long postId) {
+        return postRepository.findActiveVersion(postId)
+            .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
     }
     
     @Transactional(readOnly = true)
-    public PageResponseDto<PostDto> advancedSearchPosts(
-        String query,
-        Long categoryId,
-        Long cityId,
-        Long regionId,
-        Post.PostType type,
-        Post.PostCondition condition,
-        java.math.BigDecimal minPrice,
-        java.math.BigDecimal maxPrice,
-        Pageable pageable
-    ) {
-        Page<Post> postsPage = postRepository.advancedSearchPosts(
-            query, categoryId, cityId, regionId, type, condition, minPrice, maxPrice, pageable
+    public PageResponseDto<PostDto> searchPosts(PostSearchCriteria criteria, Pageable pageable, CountMode countMode) {
+        if (postFilterIndex.isReady() && PostFilterIndex.supportsSort(pageable.getSort())) {
+            return indexedPage(postFilterIndex.search(criteria, pageable), countMode);
+        }
+        if (countMode == CountMode.EXACT) {
+            Page<Post> postsPage = postRepository.searchPosts(
+                categoryIds(criteria),
+                anyCategory(criteria),
+                cityIds(criteria),
+                anyCity(criteria),
+                criteria.type(),
+                criteria.condition(),
+                pageable
+            );
+            return PageResponseDto.of(postsPage.map(postMapper::toDto));
+        }
+        return filteredListing(criteria, pageable, countMode);
+    }
+    
+    /**
+     * Advanced search: answered from the in-memory read models once they are
+     * ready ({@link PostFilterIndex} for filter-only listings by date or price,
+     * {@link PostSearchIndex} otherwise), else from MySQL (FULLTEXT when there
+     * is a text query).
+     * 
+     * <p>The in-memory models count their matches for free, so their totals
+     * are always exact; with MySQL the count query is run, served from
+     * {@link PostCountCache} or skipped according to {@code countMode}.</p>
+     */
+    @Transactional(readOnly = true)
+    public PageResponseDto<PostDto> advancedSearchPosts(PostSearchCriteria criteria, Pageable pageable, CountMode countMode) {
+        String booleanQuery = toBooleanModeQuery(criteria.query());
+        // Relevance is meaningless without a text query
+        Pageable filterPageable = booleanQuery.isEmpty() && isRelevanceSort(pageable.getSort())
+            ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "createdAt"))
+            : pageable;
+        
+        if (booleanQuery.isEmpty() && postFilterIndex.isReady() && PostFilterIndex.supportsSort(filterPageable.getSort())) {
+            return indexedPage(postFilterIndex.search(criteria, filterPageable), countMode);
+        }
+        if (postSearchIndex.isReady()) {
+            return indexedPage(postSearchIndex.search(criteria, pageable), countMode);
+        }
+        
+        if (booleanQuery.isEmpty()) {
+            if (countMode != CountMode.EXACT) {
+                return filteredListing(criteria, filterPageable, countMode);
+            }
+            Page<Post> postsPage = postRepository.advancedSearchPosts(
+                categoryIds(criteria),
+                anyCategory(criteria),
+                cityIds(criteria),
+                anyCity(criteria),
+                criteria.regionId(),
+                criteria.type(),
+                criteria.condition(),
+                criteria.minPrice(),
+                criteria.maxPrice(),
+                filterPageable
+            );
+            return PageResponseDto.of(postsPage.map(postMapper::toDto));
+        }
+        
+        String type = criteria.type() != null ? criteria.type().name() : null;
+        String condition = criteria.condition() != null ? criteria.condition().name() : null;
+        Pageable idsPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        if (countMode == CountMode.EXACT) {
+            Page<Long> idsPage = postRepository.fullTextSearchPostIds(
+                booleanQuery,
+                categoryIds(criteria),
+                anyCategory(criteria),
+                cityIds(criteria),
+                anyCity(criteria),
+                criteria.regionId(),
+                type,
+                condition,
+                criteria.minPrice(),
+                criteria.maxPrice(),
+                fullTextSortKey(pageable.getSort()),
+                idsPageable
+            );
+            return PageResponseDto.of(hydrate(idsPage).map(postMapper::toDto));
+        }
+        
+        Slice<PostDto> slice = hydrate(postRepository.fullTextSearchPostIdsSlice(
+            booleanQuery,
+            categoryIds(criteria),
+            anyCategory(criteria),
+            cityIds(criteria),
+            anyCity(criteria),
+            criteria.regionId(),
+            type,
+            condition,
+            criteria.minPrice(),
+            criteria.maxPrice(),
+            fullTextSortKey(pageable.getSort()),
+            idsPageable
+        )).map(postMapper::toDto);
+        if (countMode == CountMode.SLICE) {
+            return PageResponseDto.ofSlice(slice);
+        }
+        PostCountCache.Count count = postCountCache.get(criteria, c -> postRepository.countFullTextSearch(
+            booleanQuery,
+            categoryIds(c),
+            anyCategory(c),
+            cityIds(c),
+            anyCity(c),
+            c.regionId(),
+            type,
+            condition,
+            c.minPrice(),
+            c.maxPrice()
+        ));
+        return PageResponseDto.ofSlice(slice, count.total(), count.exact());
+    }
+    
+    /**
+     * Listing as compact cards, read from the denormalized post_cards table
+     * instead of joining posts with its associations. The in-memory models
+     * still choose and order the ids when they are ready; otherwise filters
+     * and sorts run on post_cards alone, and text queries take their ids from
+     * the FULLTEXT index before the cards are loaded.
+     */
+    @Transactional(readOnly = true)
+    public PageResponseDto<PostCardDto> searchPostCards(PostSearchCriteria criteria, Pageable pageable, CountMode countMode) {
+        String booleanQuery = toBooleanModeQuery(criteria.query());
+        // Relevance is meaningless without a text query
+        Pageable filterPageable = booleanQuery.isEmpty() && isRelevanceSort(pageable.getSort())
+            ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "createdAt"))
+            : pageable;
+        
+        if (booleanQuery.isEmpty() && postFilterIndex.isReady() && PostFilterIndex.supportsSort(filterPageable.getSort())) {
+            return cardPage(postFilterIndex.search(criteria, filterPageable), countMode);
+        }
+        if (postSearchIndex.isReady()) {
+            return cardPage(postSearchIndex.search(criteria, pageable), countMode);
+        }
+        
+        if (booleanQuery.isEmpty()) {
+            if (countMode == CountMode.EXACT) {
+                return PageResponseDto.of(postCardRepository.findCards(
+                    categoryIds(criteria),
+                    anyCategory(criteria),
+                    cityIds(criteria),
+                    anyCity(criteria),
+                    criteria.regionId(),
+                    criteria.type(),
+                    criteria.condition(),
+                    criteria.minPrice(),
+                    criteria.maxPrice(),
+                    filterPageable
+                ).map(postMapper::toCardDto));
+            }
+            Slice<PostCardDto> slice = postCardRepository.findCardsSlice(
+                categoryIds(criteria),
+                anyCategory(criteria),
+                cityIds(criteria),
+                anyCity(criteria),
+                criteria.regionId(),
+                criteria.type(),
+                criteria.condition(),
+                criteria.minPrice(),
+                criteria.maxPrice(),
+                filterPageable
+            ).map(postMapper::toCardDto);
+            if (countMode == CountMode.SLICE) {
+                return PageResponseDto.ofSlice(slice);
+            }
+            PostCountCache.Count count = postCountCache.get(criteria, c -> postRepository.countActive(
+                categoryIds(c),
+                anyCategory(c),
+                cityIds(c),
+                anyCity(c),
+                c.regionId(),
+                c.type(),
+                c.condition(),
+                c.minPrice(),
+                c.maxPrice()
+            ));
+            return PageResponseDto.ofSlice(slice, count.total(), count.exact());
+        }
+        
+        Page<Long> idsPage = postRepository.fullTextSearchPostIds(
+            booleanQuery,
+            categoryIds(criteria),
+            anyCategory(criteria),
+            cityIds(criteria),
+            anyCity(criteria),
+            criteria.regionId(),
+            criteria.type() != null ? criteria.type().name() : null,
+            criteria.condition() != null ? criteria.condition().name() : null,
+            criteria.minPrice(),
+            criteria.maxPrice(),
+            fullTextSortKey(pageable.getSort()),
+            PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
         );
-        return PageResponseDto.of(postsPage.map(postMapper::toDto));
+        return cardPage(idsPage, countMode);
+    }
+    
+    /**
+     * Facet counts for the search filters, from {@link PostFilterIndex} once the
+     * in-memory models are ready. Until then one grouped MySQL query is used;
+     * in that case the price range facet also honours the price filter.
+     */
+    @Transactional(readOnly = true)
+    public PostFacetsDto getFacets(PostSearchCriteria criteria) {
+        FacetCounts counts;
+        if (postFilterIndex.isReady() && postSearchIndex.isReady()) {
+            int[] textMatches = criteria.hasQuery() ? postSearchIndex.matchingPostIds(criteria.query()) : null;
+            counts = postFilterIndex.facets(criteria, textMatches);
+        } else {
+            String booleanQuery = toBooleanModeQuery(criteria.query());
+            FacetCounts.Accumulator accumulator = new FacetCounts.Accumulator(criteria);
+            for (Object[] row : postRepository.countFacetRows(
+                booleanQuery.isEmpty() ? null : booleanQuery,
+                criteria.minPrice(),
+                criteria.maxPrice()
+            )) {
+                int bucket = ((Number) row[5]).intValue();
+                accumulator.add(
+                    row[0] != null ? ((Number) row[0]).longValue() : null,
+                    row[1] != null ? ((Number) row[1]).longValue() : null,
+                    row[2] != null ? ((Number) row[2]).longValue() : null,
+                    row[4] != null ? Post.PostType.valueOf(row[4].toString()) : null,
+                    row[3] != null ? Post.PostCondition.valueOf(row[3].toString()) : null,
+                    bucket >= 0 ? PriceBucket.values()[bucket] : null,
+                    ((Number) row[6]).longValue()
+                );
+            }
+            counts = accumulator.build();
+        }
+        
+        return PostFacetsDto.builder()
+            .total(counts.total())
+            .categories(idCounts(counts.categories()))
+            .cities(idCounts(counts.cities()))
+            .regions(idCounts(counts.regions()))
+            .types(valueCounts(counts.types()))
+            .conditions(valueCounts(counts.conditions()))
+            .priceRanges(Arrays.stream(PriceBucket.values())
+                .filter(bucket -> counts.priceBuckets().containsKey(bucket))
+                .map(bucket -> PostFacetsDto.PriceRangeCount.builder()
+                    .bucket(bucket.name())
+                    .min(bucket.getMin())
+                    .max(bucket.getMax())
+                    .count(counts.priceBuckets().get(bucket))
+                    .build())
+                .toList())
+            .build();
+    }
+    
+    /**
+     * Autocomplete for the search box from {@link PostSuggestIndex}; empty
+     * until the in-memory models are ready, as a prefix scan in MySQL per
+     * keystroke is what this endpoint exists to avoid.
+     */
+    public PostSuggestionsDto suggest(String query, int limit) {
+        if (!postSuggestIndex.isReady()) {
+            return PostSuggestionsDto.builder()
+                .queries(List.of())
+                .categories(List.of())
+                .cities(List.of())
+                .build();
+        }
+        PostSuggestIndex.Suggestions suggestions = postSuggestIndex.suggest(query, limit);
+        String typed = query.strip();
+        int lastWord = typed.length();
+        while (lastWord > 0 && !Character.isWhitespace(typed.charAt(lastWord - 1))) {
+            lastWord--;
+        }
+        String head = typed.substring(0, lastWord);
+        return PostSuggestionsDto.builder()
+            .queries(suggestions.terms().stream()
+                .map(term -> new PostSuggestionsDto.QuerySuggestion(head + term.text(), term.count()))
+                .toList())
+            .categories(nameSuggestions(suggestions.categories()))
+            .cities(nameSuggestions(suggestions.cities()))
+            .build();
+    }
+    
+    /**
+     * Posts similar to an ACTIVE post, best first, from {@link PostSimilarityIndex}.
+     * Until the index is ready, or when it finds fewer than {@code limit}, the
+     * rest are the newest posts of the same category.
+     */
+    @Transactional(readOnly = true)
+    public List<PostCardDto> getSimilarPosts(Long postId, int limit) {
+        PostCard card = cards(List.of(postId)).stream()
+            .findFirst()
+            .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+        
+        List<Long> ids = new ArrayList<>(postSimilarityIndex.isReady()
+            ? postSimilarityIndex.similar(postId, limit)
+            : List.of());
+        if (ids.size() < limit && card.getCategoryId() != null) {
+            Pageable newest = PageRequest.of(0, limit + 1, Sort.by(Sort.Direction.DESC, "createdAt"));
+            postCardRepository.findCardsSlice(
+                List.of(card.getCategoryId()), false, List.of(-1L), true, null, null, null, null, null, newest
+            ).forEach(other -> {
+                if (ids.size() < limit && !other.getPostId().equals(postId) && !ids.contains(other.getPostId())) {
+                    ids.add(other.getPostId());
+                }
+            });
+        }
+        return cards(ids).stream()
+            .map(postMapper::toCardDto)
+            .toList();
+    }
+    
+    private List<PostSuggestionsDto.NameSuggestion> nameSuggestions(List<PostSuggestIndex.Name> names) {
+        return names.stream()
+            .map(name -> new PostSuggestionsDto.NameSuggestion(
+                name.id(), localizationService.get(name.nameEn(), name.nameAr()), name.count()))
+            .toList();
+    }
+    
+    private static List<PostFacetsDto.IdCount> idCounts(Map<Long, Long> counts) {
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .map(entry -> new PostFacetsDto.IdCount(entry.getKey(), entry.getValue()))
+            .toList();
+    }
+    
+    private static List<PostFacetsDto.ValueCount> valueCounts(Map<? extends Enum<?>, Long> counts) {
+        return counts.entrySet().stream()
+            .filter(entry -> entry.getKey() != null)
+            .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+            .map(entry -> new PostFacetsDto.ValueCount(entry.getKey().name(), entry.getValue()))
+            .toList();
+    }
+    
+    /**
+     * Hydrates a page of ids from an in-memory model; its total is exact but
+     * still omitted in SLICE mode so responses look the same on every path.
+     */
+    private PageResponseDto<PostDto> indexedPage(Page<Long> idsPage, CountMode countMode) {
+        Page<PostDto> page = hydrate(idsPage).map(postMapper::toDto);
+        return countMode == CountMode.SLICE ? PageResponseDto.ofSlice(page) : PageResponseDto.of(page);
+    }
+    
+    private PageResponseDto<PostCardDto> cardPage(Page<Long> idsPage, CountMode countMode) {
+        Page<PostCardDto> page = new PageImpl<>(
+            cards(idsPage.getContent()), idsPage.getPageable(), idsPage.getTotalElements()
+        ).map(postMapper::toCardDto);
+        return countMode == CountMode.SLICE ? PageResponseDto.ofSlice(page) : PageResponseDto.of(page);
+    }
+    
+    /**
+     * Loads the cards of those of a list of post ids that are ACTIVE, keeping
+     * the id order.
+     * 
+     * <p>Cards are projected from the post outbox, up to a relay interval after
+     * a change commits (longer while a change of the post is being retried),
+     * while the in-memory models pick it up at commit. So the statuses are
+     * checked on posts, and the cards of ACTIVE posts that have none yet are
+     * built from the posts without being stored.</p>
+     */
+    private List<PostCard> cards(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> active = new HashSet<>(postRepository.findActiveIdsIn(ids));
+        Map<Long, PostCard> cardsById = new HashMap<>();
+        for (PostCard card : postCardRepository.findAllById(active)) {
+            cardsById.put(card.getPostId(), card);
+        }
+        if (cardsById.size() < active.size()) {
+            List<Long> missing = active.stream()
+                .filter(id -> !cardsById.containsKey(id))
+                .toList();
+            for (Post post : postRepository.findAllForCardsByIdIn(missing)) {
+                cardsById.put(post.getId(), PostCardProjector.toCard(post));
+            }
+        }
+        return ids.stream()
+            .map(cardsById::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+    
+    /**
+     * Filter-only listing without an inline count query, for the SLICE and CACHED count modes.
+     */
+    private PageResponseDto<PostDto> filteredListing(PostSearchCriteria criteria, Pageable pageable, CountMode countMode) {
+        Slice<PostDto> slice = postRepository.findActiveSlice(
+            categoryIds(criteria),
+            anyCategory(criteria),
+            cityIds(criteria),
+            anyCity(criteria),
+            criteria.regionId(),
+            criteria.type(),
+            criteria.condition(),
+            criteria.minPrice(),
+            criteria.maxPrice(),
+            pageable
+        ).map(postMapper::toDto);
+        if (countMode == CountMode.SLICE) {
+            return PageResponseDto.ofSlice(slice);
+        }
+        PostCountCache.Count count = postCountCache.get(criteria, c -> postRepository.countActive(
+            categoryIds(c),
+            anyCategory(c),
+            cityIds(c),
+            anyCity(c),
+            c.regionId(),
+            c.type(),
+            c.condition(),
+            c.minPrice(),
+            c.maxPrice()
+        ));
+        return PageResponseDto.ofSlice(slice, count.total(), count.exact());
+    }
+    
+    /**
+     * Keyset-paginated variant of {@link #advancedSearchPosts}: returns the
+     * {@code size} posts after {@code cursor} and an opaque cursor for the next
+     * page. Runs no count query and no OFFSET scan, so deep pages cost the same
+     * as the first one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<PostDto> searchPostsAfter(
+        PostSearchCriteria criteria,
+        PostCursor.SortKey sortKey,
+        String cursor,
+        int size
+    ) {
+        PostCursor after = PostCursor.decode(cursor, sortKey);
+        // One extra row tells whether another page follows
+        Pageable limit = PageRequest.of(0, size + 1);
+        
+        List<Post> posts;
+        String booleanQuery = toBooleanModeQuery(criteria.query());
+        if (booleanQuery.isEmpty() && sortKey.isPriceOrder() && postFilterIndex.isReady()) {
+            posts = hydrate(postFilterIndex.searchAfterByPrice(criteria, sortKey, after, size + 1));
+        } else if (postSearchIndex.isReady()) {
+            posts = hydrate(postSearchIndex.searchAfter(criteria, sortKey, after, size + 1));
+        } else if (!booleanQuery.isEmpty()) {
+            posts = hydrate(postRepository.fullTextSearchPostIdsAfter(
+                booleanQuery,
+                categoryIds(criteria),
+                anyCategory(criteria),
+                cityIds(criteria),
+                anyCity(criteria),
+                criteria.regionId(),
+                criteria.type() != null ? criteria.type().name() : null,
+                criteria.condition() != null ? criteria.condition().name() : null,
+                criteria.minPrice(),
+                criteria.maxPrice(),
+                sortKey.parameterValue(),
+                after != null ? after.createdAt() : null,
+                after != null ? after.price() : null,
+                after != null ? after.id() : null,
+                limit
+            ));
+        } else {
+            posts = findAfter(criteria, sortKey, after, limit);
+        }
+        
+        boolean hasMore = posts.size() > size;
+        List<Post> pagePosts = hasMore ? posts.subList(0, size) : posts;
+        String nextCursor = hasMore
+            ? PostCursor.after(sortKey, pagePosts.get(pagePosts.size() - 1)).encode()
+            : null;
+        
+        return CursorPageResponseDto.<PostDto>builder()
+            .content(pagePosts.stream().map(postMapper::toDto).toList())
+            .pagination(CursorPageResponseDto.PaginationInfo.builder()
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build())
+            .build();
+    }
+    
+    private List<Post> findAfter(PostSearchCriteria criteria, PostCursor.SortKey sortKey, PostCursor after, Pageable limit) {
+        LocalDateTime cursorCreatedAt = after != null ? after.createdAt() : null;
+        java.math.BigDecimal cursorPrice = after != null ? after.price() : null;
+        Long cursorId = after != null ? after.id() : null;
+        return switch (sortKey) {
+            case NEWEST -> postRepository.findActiveNewestAfter(
+                categoryIds(criteria), anyCategory(criteria), cityIds(criteria), anyCity(criteria),
+                criteria.regionId(), criteria.type(), criteria.condition(),
+                criteria.minPrice(), criteria.maxPrice(), cursorCreatedAt, cursorId, limit);
+            case OLDEST -> postRepository.findActiveOldestAfter(
+                categoryIds(criteria), anyCategory(criteria), cityIds(criteria), anyCity(criteria),
+                criteria.regionId(), criteria.type(), criteria.condition(),
+                criteria.minPrice(), criteria.maxPrice(), cursorCreatedAt, cursorId, limit);
+            case PRICE_ASC -> postRepository.findActiveCheapestAfter(
+                categoryIds(criteria), anyCategory(criteria), cityIds(criteria), anyCity(criteria),
+                criteria.regionId(), criteria.type(), criteria.condition(),
+                criteria.minPrice(), criteria.maxPrice(), cursorPrice, cursorId, limit);
+            case PRICE_DESC -> postRepository.findActiveMostExpensiveAfter(
+                categoryIds(criteria), anyCategory(criteria), cityIds(criteria), anyCity(criteria),
+                criteria.regionId(), criteria.type(), criteria.condition(),
+                criteria.minPrice(), criteria.maxPrice(), cursorPrice, cursorId, limit);
+        };
+    }
+    
+    /**
+     * Loads the posts of an id page with their associations, keeping the id order.
+     */
+    private Page<Post> hydrate(Page<Long> idsPage) {
+        return new PageImpl<>(hydrate(idsPage.getContent()), idsPage.getPageable(), idsPage.getTotalElements());
+    }
+    
+    private Slice<Post> hydrate(Slice<Long> idsSlice) {
+        return new SliceImpl<>(hydrate(idsSlice.getContent()), idsSlice.getPageable(), idsSlice.hasNext());
+    }
+    
+    private List<Post> hydrate(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Post> postsById = postRepository.findAllWithAssociationsByIdIn(ids).stream()
+            .collect(Collectors.toMap(Post::getId, Function.identity()));
+        return ids.stream()
+            .map(postsById::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+    
+    /**
+     * Category list for the repository's IN filter; a placeholder when any category matches.
+     */
+    private static Collection<Long> categoryIds(PostSearchCriteria criteria) {
+        return criteria.categoryIds() != null ? criteria.categoryIds() : List.of(-1L);
+    }
+    
+    private static boolean anyCategory(PostSearchCriteria criteria) {
+        return criteria.categoryIds() == null;
+    }
+    
+    private static Collection<Long> cityIds(PostSearchCriteria criteria) {
+        return criteria.cityIds() != null ? criteria.cityIds() : List.of(-1L);
+    }
+    
+    private static boolean anyCity(PostSearchCriteria criteria) {
+        return criteria.cityIds() == null;
+    }
+    
+    /**
+     * Turns free text into a MySQL boolean-mode expression requiring every term.
+     * Operator characters are stripped so user input cannot break the expression.
+     */
+    private static String toBooleanModeQuery(String query) {
+        if (query == null || query.isBlank()) {
+            return "";
+        }
+        StringBuilder booleanQuery = new StringBuilder();
+        for (String term : query.trim().split("\\s+")) {
+            String cleaned = BOOLEAN_MODE_OPERATORS.matcher(term).replaceAll("");
+            if (cleaned.isEmpty()) {
+                continue;
+            }
+            if (!booleanQuery.isEmpty()) {
+                booleanQuery.append(' ');
+            }
+            booleanQuery.append('+').append(cleaned);
+        }
+        return booleanQuery.toString();
+    }
+    
+    private static boolean isRelevanceSort(Sort sort) {
+        return sort.getOrderFor("relevance") != null;
+    }
+    
+    private static String fullTextSortKey(Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(null);
+        if (order == null) {
+            return "newest";
+        }
+        return switch (order.getProperty()) {
+            case "relevance" -> "relevance";
+            case "price" -> order.isAscending() ? "price_asc" : "price_desc";
+            case "title" -> "title";
+            case "createdAt" -> order.isAscending() ? "oldest" : "newest";
+            default -> "newest";
+        };
     }
     
     @Transactional(readOnly = true)
-    public PageResponseDto<PostDto> getMyPosts(Long userId, Pageable pageable) {
+    public PageResponseDto<PostDto> getMyPosts(Long userId, Pageable pageable, Set<String> fields) {
         Page<Post> postsPage = postRepository.findByOwnerIdAndNotDeleted(userId, pageable);
-        return PageResponseDto.of(postsPage.map(postMapper::toDto));
+        return PageResponseDto.of(postsPage.map(post -> postMapper.toDto(post, fields)));
     }
     
     @Transactional(readOnly = true)
-    public PageResponseDto<PostDto> getPostsByStore(Long storeId, Pageable pageable) {
+    public PageResponseDto<PostDto> getPostsByStore(Long storeId, Pageable pageable, Set<String> fields) {
         Page<Post> postsPage = postRepository.findByStoreIdAndActive(storeId, pageable);
-        return PageResponseDto.of(postsPage.map(postMapper::toDto));
+        return PageResponseDto.of(postsPage.map(post -> postMapper.toDto(post, fields)));
+    }
+    
+    @Transactional(readOnly = true)
+    public PageResponseDto<PostCardDto> getStorePostCards(Long storeId, Pageable pageable) {
+        return PageResponseDto.of(postCardRepository.findByStoreId(storeId, pageable).map(postMapper::toCardDto));
     }
     
     @Transactional
@@ -218,7 +895,8 @@ public class PostService {
         
         post.setStatus(Post.PostStatus.DELETED);
         post.setDeletedAt(LocalDateTime.now());
-        postRepository.save(post);
+        postRepository.saveAndFlush(post);
+        publish(PostChangedEvent.ChangeType.DELETED, post);
     }
     
     @Transactional
@@ -235,7 +913,16 @@ public class PostService {
         }
         
         post.setStatus(Post.PostStatus.SOLD);
-        postRepository.save(post);
+        postRepository.saveAndFlush(post);
+        publish(PostChangedEvent.ChangeType.SOLD, post);
+    }
+    
+    /**
+     * Snapshots the flushed post so listeners see the committed state,
+     * including the audited updatedAt.
+     */
+    private void publish(PostChangedEvent.ChangeType type, Post post) {
+        eventPublisher.publishEvent(new PostChangedEvent(type, PostSnapshot.from(post)));
     }
 }
 
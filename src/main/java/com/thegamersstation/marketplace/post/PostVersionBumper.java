@@ -0,0 +1,35 @@
+package com.thegamersstation.marketplace.post;
+
+import com.thegamersstation.marketplace.category.CategoryTreeChangedEvent;
+import com.thegamersstation.marketplace.store.StoreChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bumps {@link Post#getVersion() post versions} when data shown with a post
+ * but stored elsewhere changes: the store badge and the category names.
+ * 
+ * <p>Runs synchronously inside the writing transaction, so the new versions
+ * commit or roll back together with the change they reflect.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostVersionBumper {
+    
+    private final PostRepository postRepository;
+    
+    @EventListener
+    public void onStoreChanged(StoreChangedEvent event) {
+        int posts = postRepository.incrementVersionsByStore(event.storeId());
+        log.debug("Bumped the version of {} posts of store {}", posts, event.storeId());
+    }
+    
+    @EventListener
+    public void onCategoryChanged(CategoryTreeChangedEvent event) {
+        int posts = postRepository.incrementVersionsByCategory(event.categoryId());
+        log.debug("Bumped the version of {} posts of category {}", posts, event.categoryId());
+    }
+}
@@ -0,0 +1,184 @@
+package com.thegamersstation.marketplace.post.bulk;
+
+import com.thegamersstation.marketplace.category.Category;
+import com.thegamersstation.marketplace.category.CategoryRepository;
+import com.thegamersstation.marketplace.city.City;
+import com.thegamersstation.marketplace.city.CityRepository;
+import com.thegamersstation.marketplace.common.exception.ResourceNotFoundException;
+import com.thegamersstation.marketplace.common.util.ContentSanitizer;
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.PostImage;
+import com.thegamersstation.marketplace.post.PostRepository;
+import com.thegamersstation.marketplace.post.dto.BulkCreatePostsResponse;
+import com.thegamersstation.marketplace.post.dto.CreatePostRequest;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import com.thegamersstation.marketplace.store.Store;
+import com.thegamersstation.marketplace.store.StoreRepository;
+import com.thegamersstation.marketplace.user.repository.User;
+import com.thegamersstation.marketplace.user.repository.UsersRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Creates many posts for one owner in a single transaction, e.g. a store's
+ * catalog upload.
+ * 
+ * <p>Categories and cities of all items are loaded with one query each and
+ * every item is validated against that snapshot; items are validated and
+ * sanitized in parallel. Valid items are saved together, and since posts and
+ * images take pooled ids Hibernate sends their inserts in JDBC batches;
+ * invalid items are reported with their errors and do not stop the others.
+ * Each created post publishes a CREATED {@link PostChangedEvent} like
+ * {@code PostService.createPost}.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostBulkService {
+    
+    private final UsersRepository usersRepository;
+    private final CategoryRepository categoryRepository;
+    private final CityRepository cityRepository;
+    private final StoreRepository storeRepository;
+    private final ContentSanitizer contentSanitizer;
+    private final Validator validator;
+    private final PostRepository postRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Transactional
+    public BulkCreatePostsResponse createPosts(List<CreatePostRequest> requests, Long userId) {
+        long start = System.currentTimeMillis();
+        User user = usersRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        
+        // Link to store if user is a store manager
+        Store store = null;
+        if (user.getRole() == User.UserRole.STORE_MANAGER) {
+            store = storeRepository.findByOwnerId(userId).orElse(null);
+        }
+        
+        Map<Long, Category> categories = categoryRepository.findAllById(distinct(requests, CreatePostRequest::getCategoryId))
+            .stream()
+            .collect(Collectors.toMap(Category::getId, Function.identity()));
+        Map<Long, City> cities = cityRepository.findAllById(distinct(requests, CreatePostRequest::getCityId))
+            .stream()
+            .collect(Collectors.toMap(City::getId, Function.identity()));
+        
+        Store owningStore = store;
+        List<Item> items = IntStream.range(0, requests.size())
+            .parallel()
+            .mapToObj(index -> prepare(index, requests.get(index), user, owningStore, categories, cities))
+            .toList();
+        
+        List<Post> posts = postRepository.saveAll(items.stream()
+            .map(Item::post)
+            .filter(Objects::nonNull)
+            .toList());
+        for (Post post : posts) {
+            eventPublisher.publishEvent(new PostChangedEvent(PostChangedEvent.ChangeType.CREATED, PostSnapshot.from(post)));
+        }
+        
+        List<BulkCreatePostsResponse.ItemResult> results = new ArrayList<>(items.size());
+        for (Item item : items) {
+            results.add(BulkCreatePostsResponse.ItemResult.builder()
+                .index(item.index())
+                .postId(item.post() != null ? item.post().getId() : null)
+                .errors(item.errors())
+                .build());
+        }
+        log.info("Bulk created {} of {} posts for user {} in {} ms",
+            posts.size(), requests.size(), userId, System.currentTimeMillis() - start);
+        return BulkCreatePostsResponse.builder()
+            .created(posts.size())
+            .failed(requests.size() - posts.size())
+            .results(results)
+            .build();
+    }
+    
+    /**
+     * Validates one item and builds its post, or collects its errors by field.
+     * Runs on several threads, so it only reads the preloaded entities.
+     */
+    private Item prepare(
+        int index,
+        CreatePostRequest request,
+        User user,
+        Store store,
+        Map<Long, Category> categories,
+        Map<Long, City> cities
+    ) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (request == null) {
+            errors.put("post", "Post is required");
+            return new Item(index, null, errors);
+        }
+        Set<ConstraintViolation<CreatePostRequest>> violations = validator.validate(request);
+        for (ConstraintViolation<CreatePostRequest> violation : violations) {
+            errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        
+        Category category = request.getCategoryId() != null ? categories.get(request.getCategoryId()) : null;
+        if (request.getCategoryId() != null && category == null) {
+            errors.put("categoryId", "Category not found");
+        } else if (category != null && !category.getIsActive()) {
+            errors.put("categoryId", "Category is not active");
+        }
+        City city = request.getCityId() != null ? cities.get(request.getCityId()) : null;
+        if (request.getCityId() != null && city == null) {
+            errors.put("cityId", "City not found");
+        }
+        if (!errors.isEmpty()) {
+            return new Item(index, null, errors);
+        }
+        
+        Post post = Post.builder()
+            .owner(user)
+            .store(store)
+            .type(request.getType())
+            .title(contentSanitizer.sanitize(request.getTitle()))
+            .description(contentSanitizer.sanitize(request.getDescription()))
+            .price(request.getPrice())
+            .priceMin(request.getPriceMin())
+            .priceMax(request.getPriceMax())
+            .condition(request.getCondition())
+            .category(category)
+            .city(city)
+            .status(Post.PostStatus.WAITING_APPROVAL)
+            .images(new ArrayList<>())
+            .build();
+        for (int i = 0; i < request.getImageUrls().size(); i++) {
+            post.getImages().add(PostImage.of(post, request.getImageUrls().get(i), i));
+        }
+        return new Item(index, post, Map.of());
+    }
+    
+    private static Set<Long> distinct(List<CreatePostRequest> requests, Function<CreatePostRequest, Long> id) {
+        return requests.stream()
+            .filter(Objects::nonNull)
+            .map(id)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    }
+    
+    /**
+     * One requested post: the post to insert, or the reasons it was rejected.
+     */
+    private record Item(int index, Post post, Map<String, String> errors) {
+    }
+}
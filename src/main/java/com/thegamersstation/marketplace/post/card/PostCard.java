@@ -0,0 +1,98 @@
+package com.thegamersstation.marketplace.post.card;
+
+import com.thegamersstation.marketplace.post.Post;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized listing card of an ACTIVE post (table post_cards): what a
+ * listing shows, copied from the post and its category, city, store and
+ * first image. Maintained by {@link PostCardProjector}; never edited directly.
+ */
+@Entity
+@Table(name = "post_cards")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostCard {
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Post.PostType type;
+    
+    @Column(nullable = false, length = 200)
+    private String title;
+    
+    @Column(name = "description_excerpt", length = 200)
+    private String descriptionExcerpt;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal price;
+    
+    @Column(name = "price_min", precision = 10, scale = 2)
+    private BigDecimal priceMin;
+    
+    @Column(name = "price_max", precision = 10, scale = 2)
+    private BigDecimal priceMax;
+    
+    @Column(nullable = false, length = 3)
+    private String currency;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "`condition`", length = 20)
+    private Post.PostCondition condition;
+    
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+    
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+    
+    @Column(name = "category_name_en", nullable = false, length = 100)
+    private String categoryNameEn;
+    
+    @Column(name = "category_name_ar", nullable = false, length = 100)
+    private String categoryNameAr;
+    
+    @Column(name = "city_id", nullable = false)
+    private Long cityId;
+    
+    @Column(name = "region_id")
+    private Long regionId;
+    
+    @Column(name = "city_name_en", nullable = false, length = 100)
+    private String cityNameEn;
+    
+    @Column(name = "city_name_ar", nullable = false, length = 100)
+    private String cityNameAr;
+    
+    @Column(name = "store_id")
+    private Long storeId;
+    
+    @Column(name = "store_name_en", length = 100)
+    private String storeNameEn;
+    
+    @Column(name = "store_name_ar", length = 100)
+    private String storeNameAr;
+    
+    @Column(name = "store_slug", length = 100)
+    private String storeSlug;
+    
+    @Column(name = "store_logo_url", length = 500)
+    private String storeLogoUrl;
+    
+    @Column(name = "store_verified", nullable = false)
+    @Builder.Default
+    private Boolean storeVerified = false;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
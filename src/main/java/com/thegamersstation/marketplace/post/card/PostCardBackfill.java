@@ -0,0 +1,49 @@
+package com.thegamersstation.marketplace.post.card;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Populates post_cards from the posts table: automatically on startup while
+ * the table is empty (first deployment), and on demand from the admin API to
+ * resynchronize it. Works in id-ordered batches, one transaction each, so
+ * writers are never blocked for long.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostCardBackfill {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private final PostCardProjector postCardProjector;
+    private final PostCardRepository postCardRepository;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (postCardRepository.count() == 0) {
+            run();
+        }
+    }
+    
+    /**
+     * Rewrites the card of every ACTIVE post and removes cards of other posts.
+     * 
+     * @return the number of batches written
+     */
+    public int run() {
+        long start = System.currentTimeMillis();
+        int removed = postCardProjector.deleteStaleCards();
+        int batches = 0;
+        Long lastId = 0L;
+        while ((lastId = postCardProjector.projectBatch(lastId, BATCH_SIZE)) != null) {
+            batches++;
+        }
+        log.info("Post cards backfill wrote {} batches and removed {} stale cards in {} ms",
+            batches, removed, System.currentTimeMillis() - start);
+        return batches;
+    }
+}
@@ -0,0 +1,162 @@
+package com.thegamersstation.marketplace.post.card;
+
+import com.thegamersstation.marketplace.category.CategoryRepository;
+import com.thegamersstation.marketplace.category.CategoryTreeChangedEvent;
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.PostImage;
+import com.thegamersstation.marketplace.post.PostRepository;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import com.thegamersstation.marketplace.post.outbox.PostOutboxSubscriber;
+import com.thegamersstation.marketplace.store.Store;
+import com.thegamersstation.marketplace.store.StoreChangedEvent;
+import com.thegamersstation.marketplace.store.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps post_cards in step with the post, category and store write paths.
+ * 
+ * <p>Post changes arrive from the post outbox shortly after they commit, so
+ * projecting a card adds no work to the write path; a card is rebuilt from
+ * the current post, which makes redelivered changes harmless. Category and
+ * store listeners run synchronously inside the writing transaction, so those
+ * updates commit or roll back together with the change they reflect.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class PostCardProjector implements PostOutboxSubscriber {
+    
+    /**
+     * Characters of the description kept on a card.
+     */
+    static final int EXCERPT_LENGTH = 160;
+    
+    private final PostRepository postRepository;
+    private final PostCardRepository postCardRepository;
+    private final CategoryRepository categoryRepository;
+    private final StoreRepository storeRepository;
+    
+    @Override
+    public void onPostChanged(PostChangedEvent event) {
+        if (!event.isListed()) {
+            // A new post awaiting approval has no card yet
+            if (event.type() != PostChangedEvent.ChangeType.CREATED) {
+                postCardRepository.deleteById(event.postId());
+            }
+            return;
+        }
+        postRepository.findById(event.postId())
+            .ifPresent(post -> postCardRepository.save(toCard(post)));
+    }
+    
+    /**
+     * Resynchronizes the card with the post as it is now, so a given-up
+     * block or deletion does not leave the post listed.
+     */
+    @Override
+    public void onDeliveryAbandoned(Long postId) {
+        postRepository.findById(postId)
+            .filter(post -> post.getStatus() == Post.PostStatus.ACTIVE)
+            .ifPresentOrElse(
+                post -> postCardRepository.save(toCard(post)),
+                () -> postCardRepository.deleteById(postId)
+            );
+    }
+    
+    @EventListener
+    public void onCategoryChanged(CategoryTreeChangedEvent event) {
+        categoryRepository.findById(event.categoryId())
+            .ifPresent(category -> postCardRepository.updateCategoryNames(
+                category.getId(), category.getNameEn(), category.getNameAr()));
+    }
+    
+    @EventListener
+    public void onStoreChanged(StoreChangedEvent event) {
+        storeRepository.findById(event.storeId())
+            .ifPresent(store -> postCardRepository.updateStoreBadge(
+                store.getId(),
+                store.getNameEn(),
+                store.getNameAr(),
+                store.getSlug(),
+                store.getLogoUrl(),
+                Boolean.TRUE.equals(store.getIsVerified())
+            ));
+    }
+    
+    /**
+     * Writes the cards of up to {@code batchSize} ACTIVE posts with an id
+     * greater than {@code afterId}.
+     * 
+     * @return the last post id of the batch, or null when there are no more posts
+     */
+    @Transactional
+    public Long projectBatch(long afterId, int batchSize) {
+        List<Long> ids = postRepository.findActiveIdsAfter(afterId, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return null;
+        }
+        postCardRepository.saveAll(postRepository.findAllForCardsByIdIn(ids).stream()
+            .map(PostCardProjector::toCard)
+            .toList());
+        return ids.get(ids.size() - 1);
+    }
+    
+    @Transactional
+    public int deleteStaleCards() {
+        return postCardRepository.deleteStale();
+    }
+    
+    /**
+     * The card of a post, loaded with its store, category, city, region and images.
+     */
+    public static PostCard toCard(Post post) {
+        Store store = post.getStore();
+        String thumbnailUrl = post.getImages().stream()
+            .min(Comparator.comparing(PostImage::getSortOrder))
+            .map(PostImage::getThumbnailUrl)
+            .orElse(null);
+        return PostCard.builder()
+            .postId(post.getId())
+            .type(post.getType())
+            .title(post.getTitle())
+            .descriptionExcerpt(excerpt(post.getDescription()))
+            .price(post.getPrice())
+            .priceMin(post.getPriceMin())
+            .priceMax(post.getPriceMax())
+            .currency(post.getCurrency())
+            .condition(post.getCondition())
+            .thumbnailUrl(thumbnailUrl)
+            .categoryId(post.getCategory().getId())
+            .categoryNameEn(post.getCategory().getNameEn())
+            .categoryNameAr(post.getCategory().getNameAr())
+            .cityId(post.getCity().getId())
+            .regionId(post.getCity().getRegion() != null ? post.getCity().getRegion().getId() : null)
+            .cityNameEn(post.getCity().getNameEn())
+            .cityNameAr(post.getCity().getNameAr())
+            .storeId(store != null ? store.getId() : null)
+            .storeNameEn(store != null ? store.getNameEn() : null)
+            .storeNameAr(store != null ? store.getNameAr() : null)
+            .storeSlug(store != null ? store.getSlug() : null)
+            .storeLogoUrl(store != null ? store.getLogoUrl() : null)
+            .storeVerified(store != null && Boolean.TRUE.equals(store.getIsVerified()))
+            .createdAt(post.getCreatedAt())
+            .build();
+    }
+    
+    /**
+     * The first {@link #EXCERPT_LENGTH} characters (code points) of a
+     * description; a cut one ends with an ellipsis.
+     */
+    static String excerpt(String description) {
+        if (description == null || description.codePointCount(0, description.length()) <= EXCERPT_LENGTH) {
+            return description;
+        }
+        return description.substring(0, description.offsetByCodePoints(0, EXCERPT_LENGTH)).stripTrailing() + "…";
+    }
+}
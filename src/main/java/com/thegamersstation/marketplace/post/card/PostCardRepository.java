@@ -0,0 +1,91 @@
+package com.thegamersstation.marketplace.post.card;
+
+import com.thegamersstation.marketplace.post.Post;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+@Repository
+public interface PostCardRepository extends JpaRepository<PostCard, Long> {
+    
+    /*
+     * Same filters as PostRepository#ACTIVE_FILTERS, on the single post_cards
+     * table; every card is an ACTIVE post.
+     */
+    String CARD_FILTERS =
+        "WHERE (:anyCategory = true OR c.categoryId IN :categoryIds) " +
+        "AND (:anyCity = true OR c.cityId IN :cityIds) " +
+        "AND (:regionId IS NULL OR c.regionId = :regionId) " +
+        "AND (:type IS NULL OR c.type = :type) " +
+        "AND (:condition IS NULL OR c.condition = :condition) " +
+        "AND (:minPrice IS NULL OR COALESCE(c.price, c.priceMax, c.priceMin) >= :minPrice) " +
+        "AND (:maxPrice IS NULL OR COALESCE(c.price, c.priceMin, c.priceMax) <= :maxPrice) ";
+    
+    @Query("SELECT c FROM PostCard c " + CARD_FILTERS)
+    Page<PostCard> findCards(
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") Post.PostType type,
+        @Param("condition") Post.PostCondition condition,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Pageable pageable
+    );
+    
+    /**
+     * Like {@link #findCards} without the count query.
+     */
+    @Query("SELECT c FROM PostCard c " + CARD_FILTERS)
+    Slice<PostCard> findCardsSlice(
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("anyCategory") boolean anyCategory,
+        @Param("cityIds") Collection<Long> cityIds,
+        @Param("anyCity") boolean anyCity,
+        @Param("regionId") Long regionId,
+        @Param("type") Post.PostType type,
+        @Param("condition") Post.PostCondition condition,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Pageable pageable
+    );
+    
+    Page<PostCard> findByStoreId(Long storeId, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE PostCard c SET c.categoryNameEn = :nameEn, c.categoryNameAr = :nameAr WHERE c.categoryId = :categoryId")
+    int updateCategoryNames(
+        @Param("categoryId") Long categoryId,
+        @Param("nameEn") String nameEn,
+        @Param("nameAr") String nameAr
+    );
+    
+    @Modifying
+    @Query("UPDATE PostCard c SET c.storeNameEn = :nameEn, c.storeNameAr = :nameAr, c.storeSlug = :slug, " +
+           "c.storeLogoUrl = :logoUrl, c.storeVerified = :verified WHERE c.storeId = :storeId")
+    int updateStoreBadge(
+        @Param("storeId") Long storeId,
+        @Param("nameEn") String nameEn,
+        @Param("nameAr") String nameAr,
+        @Param("slug") String slug,
+        @Param("logoUrl") String logoUrl,
+        @Param("verified") boolean verified
+    );
+    
+    /**
+     * Removes cards of posts that are no longer ACTIVE.
+     */
+    @Modifying
+    @Query("DELETE FROM PostCard c WHERE c.postId NOT IN (SELECT p.id FROM Post p WHERE p.status = 'ACTIVE')")
+    int deleteStale();
+}
@@ -0,0 +1,19 @@
+package com.thegamersstation.marketplace.post.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Posts to create in one call. Items are validated one by one, so an invalid
+ * item is reported in the response instead of rejecting the whole request.
+ */
+@Data
+public class BulkCreatePostsRequest {
+    
+    @NotEmpty(message = "At least one post is required")
+    @Size(max = 200, message = "Maximum 200 posts per request")
+    private List<CreatePostRequest> posts;
+}
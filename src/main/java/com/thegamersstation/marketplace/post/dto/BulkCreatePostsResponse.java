@@ -0,0 +1,39 @@
+package com.thegamersstation.marketplace.post.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a bulk post creation, one result per requested post in request order")
+public class BulkCreatePostsResponse {
+    
+    @Schema(description = "Number of posts created", example = "48")
+    private int created;
+    
+    @Schema(description = "Number of posts rejected", example = "2")
+    private int failed;
+    
+    private List<ItemResult> results;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        @Schema(description = "Position of the post in the request", example = "0")
+        private int index;
+        @Schema(description = "Id of the created post; null when rejected", example = "1234")
+        private Long postId;
+        @Schema(description = "Validation errors by field; empty when created")
+        private Map<String, String> errors;
+    }
+}
@@ -0,0 +1,47 @@
+package com.thegamersstation.marketplace.post.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.thegamersstation.marketplace.common.util.SparseFieldset;
+import com.thegamersstation.marketplace.post.Post;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonFilter(SparseFieldset.FILTER)
+@Schema(description = "Compact post for listing pages, read from the post_cards table")
+public class PostCardDto {
+    private Long id;
+    private Post.PostType type;
+    private String title;
+    
+    @Schema(description = "Start of the description, cut at 160 characters")
+    private String descriptionExcerpt;
+    
+    private BigDecimal price;
+    private BigDecimal priceMin;
+    private BigDecimal priceMax;
+    private String currency;
+    private Post.PostCondition condition;
+    
+    @Schema(description = "Thumbnail of the first image")
+    private String thumbnailUrl;
+    
+    private Long categoryId;
+    private String categoryName;
+    private Long cityId;
+    private String cityName;
+    
+    @Schema(description = "Store information (only present for store posts)")
+    private PostDto.StoreInfoDto store;
+    
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,7 @@
 package com.thegamersstation.marketplace.post.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.thegamersstation.marketplace.common.util.SparseFieldset;
 import com.thegamersstation.marketplace.post.Post;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -15,6 +17,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonFilter(SparseFieldset.FILTER)
 public class PostDto {
     private Long id;
     private Long ownerId;
@@ -40,6 +43,9 @@ public class PostDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    @Schema(description = "Changes whenever the post, its store badge or its category names change")
+    private Long version;
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -0,0 +1,62 @@
+package com.thegamersstation.marketplace.post.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Facet counts for a post search. Each facet ignores its own filter, " +
+                      "so it lists the alternatives to the selected value.")
+public class PostFacetsDto {
+    
+    @Schema(description = "Number of posts matching every filter", example = "150")
+    private long total;
+    
+    private List<IdCount> categories;
+    private List<IdCount> cities;
+    private List<IdCount> regions;
+    private List<ValueCount> types;
+    private List<ValueCount> conditions;
+    private List<PriceRangeCount> priceRanges;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IdCount {
+        private Long id;
+        private long count;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ValueCount {
+        @Schema(example = "USED_GOOD")
+        private String value;
+        private long count;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceRangeCount {
+        @Schema(example = "FROM_100_TO_500")
+        private String bucket;
+        @Schema(description = "Inclusive lower bound", example = "100")
+        private BigDecimal min;
+        @Schema(description = "Exclusive upper bound, null for the last range", example = "500")
+        private BigDecimal max;
+        private long count;
+    }
+}
@@ -0,0 +1,48 @@
+package com.thegamersstation.marketplace.post.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Autocomplete suggestions for a partially typed search query, most frequent first")
+public class PostSuggestionsDto {
+    
+    @Schema(description = "Completions of the query's last word from post titles")
+    private List<QuerySuggestion> queries;
+    
+    @Schema(description = "Categories whose name starts with the query")
+    private List<NameSuggestion> categories;
+    
+    @Schema(description = "Cities whose name starts with the query")
+    private List<NameSuggestion> cities;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuerySuggestion {
+        @Schema(description = "The query with its last word completed", example = "playstation 5")
+        private String text;
+        @Schema(description = "Number of active posts whose title has the completed word", example = "42")
+        private long count;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NameSuggestion {
+        private Long id;
+        private String name;
+        @Schema(description = "Number of active posts", example = "42")
+        private long count;
+    }
+}
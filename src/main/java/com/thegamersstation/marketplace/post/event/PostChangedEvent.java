@@ -0,0 +1,27 @@
+package com.thegamersstation.marketplace.post.event;
+
+/**
+ * Published by the post write paths whenever a post is created, edited or
+ * changes status. Listeners that maintain derived state should react after
+ * commit ({@code @TransactionalEventListener}) so they never observe
+ * rolled-back changes. Every event is also recorded in the post outbox, for
+ * subscribers that want durable, asynchronous delivery
+ * ({@link com.thegamersstation.marketplace.post.outbox.PostOutboxSubscriber}).
+ */
+public record PostChangedEvent(ChangeType type, PostSnapshot snapshot) {
+    
+    public Long postId() {
+        return snapshot.id();
+    }
+    
+    /**
+     * Whether the post is publicly listed after this change.
+     */
+    public boolean isListed() {
+        return type != ChangeType.DELETED && snapshot.isActive();
+    }
+    
+    public enum ChangeType {
+        CREATED, UPDATED, APPROVED, BLOCKED, SOLD, DELETED
+    }
+}
@@ -0,0 +1,70 @@
+package com.thegamersstation.marketplace.post.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.thegamersstation.marketplace.category.Category;
+import com.thegamersstation.marketplace.city.City;
+import com.thegamersstation.marketplace.post.Post;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of the searchable state of a post.
+ * 
+ * <p>Captured inside the write transaction so that listeners running after
+ * commit never touch lazy associations of a detached entity. Also used as the
+ * row type when streaming posts to rebuild in-memory read models.</p>
+ */
+public record PostSnapshot(
+    Long id,
+    Post.PostStatus status,
+    Post.PostType type,
+    Post.PostCondition condition,
+    String title,
+    String description,
+    Long categoryId,
+    String categoryNameEn,
+    String categoryNameAr,
+    Long cityId,
+    String cityNameEn,
+    String cityNameAr,
+    Long regionId,
+    Long storeId,
+    BigDecimal price,
+    BigDecimal priceMin,
+    BigDecimal priceMax,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+    
+    public static PostSnapshot from(Post post) {
+        Category category = post.getCategory();
+        City city = post.getCity();
+        return new PostSnapshot(
+            post.getId(),
+            post.getStatus(),
+            post.getType(),
+            post.getCondition(),
+            post.getTitle(),
+            post.getDescription(),
+            category.getId(),
+            category.getNameEn(),
+            category.getNameAr(),
+            city.getId(),
+            city.getNameEn(),
+            city.getNameAr(),
+            city.getRegion() != null ? city.getRegion().getId() : null,
+            post.getStore() != null ? post.getStore().getId() : null,
+            post.getPrice(),
+            post.getPriceMin(),
+            post.getPriceMax(),
+            post.getCreatedAt(),
+            post.getUpdatedAt()
+        );
+    }
+    
+    @JsonIgnore
+    public boolean isActive() {
+        return status == Post.PostStatus.ACTIVE;
+    }
+}
@@ -0,0 +1,57 @@
+package com.thegamersstation.marketplace.post.export;
+
+import com.thegamersstation.marketplace.post.Post;
+
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One exported post, flattened with its category, city and store. Selected
+ * by a constructor expression, so exporting never loads entities.
+ */
+public record PostExportRow(
+    Long id,
+    Post.PostStatus status,
+    Post.PostType type,
+    Post.PostCondition condition,
+    String title,
+    String description,
+    BigDecimal price,
+    BigDecimal priceMin,
+    BigDecimal priceMax,
+    String currency,
+    Long categoryId,
+    String categorySlug,
+    String categoryNameEn,
+    String categoryNameAr,
+    Long cityId,
+    String citySlug,
+    String cityNameEn,
+    String cityNameAr,
+    Long regionId,
+    Long storeId,
+    String storeSlug,
+    Long ownerId,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+    
+    /**
+     * Column names, in the order of {@link #values()}.
+     */
+    public static final List<String> COLUMNS = Arrays.stream(PostExportRow.class.getRecordComponents())
+        .map(RecordComponent::getName)
+        .toList();
+    
+    Object[] values() {
+        return new Object[] {
+            id, status, type, condition, title, description, price, priceMin, priceMax, currency,
+            categoryId, categorySlug, categoryNameEn, categoryNameAr,
+            cityId, citySlug, cityNameEn, cityNameAr, regionId,
+            storeId, storeSlug, ownerId, createdAt, updatedAt
+        };
+    }
+}
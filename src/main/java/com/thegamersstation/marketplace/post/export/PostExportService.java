@@ -0,0 +1,224 @@
+package com.thegamersstation.marketplace.post.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes posts as NDJSON or CSV to an output stream, in id order.
+ * 
+ * <p>Posts are read in keyset batches of {@value #BATCH_SIZE} flattened rows
+ * and written out before the next batch is read, so memory use does not
+ * depend on the size of the export, and no connection or transaction is held
+ * while waiting on a slow client. Each batch is flushed to the client; an
+ * interrupted export is resumed with {@code afterId} set to the last id received.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostExportService {
+    
+    static final int BATCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final PostRepository postRepository;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * Exports every post matching the filter.
+     * 
+     * @return the number of posts written
+     */
+    public long export(Filter filter, Format format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(objectMapper, out);
+        long afterId = filter.afterId() != null ? filter.afterId() : 0L;
+        long rows = 0;
+        List<PostExportRow> batch;
+        do {
+            batch = postRepository.findExportRows(
+                filter.status(),
+                filter.categoryId(),
+                filter.cityId(),
+                filter.storeId(),
+                filter.updatedSince(),
+                afterId,
+                PageRequest.of(0, BATCH_SIZE)
+            );
+            for (PostExportRow row : batch) {
+                writer.write(row);
+            }
+            writer.flush();
+            rows += batch.size();
+            if (!batch.isEmpty()) {
+                afterId = batch.getLast().id();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        log.info("Exported {} posts as {} in {} ms", rows, format, System.currentTimeMillis() - start);
+        return rows;
+    }
+    
+    /**
+     * Posts to export; null fields do not filter. {@code afterId} skips posts
+     * up to and including that id.
+     */
+    public record Filter(
+        Post.PostStatus status,
+        Long categoryId,
+        Long cityId,
+        Long storeId,
+        LocalDateTime updatedSince,
+        Long afterId
+    ) {
+    }
+    
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+        
+        private final MediaType mediaType;
+        private final String extension;
+        
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+        
+        public MediaType mediaType() {
+            return mediaType;
+        }
+        
+        public String extension() {
+            return extension;
+        }
+    }
+    
+    private interface RowWriter {
+        
+        void write(PostExportRow row) throws IOException;
+        
+        void flush() throws IOException;
+    }
+    
+    /**
+     * One JSON object per line, in the same format as the API's other JSON.
+     */
+    private static final class NdjsonRowWriter implements RowWriter {
+        
+        private final JsonGenerator generator;
+        private final ObjectWriter rowWriter;
+        
+        NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(null);
+            this.rowWriter = objectMapper.writerFor(PostExportRow.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+        
+        @Override
+        public void write(PostExportRow row) throws IOException {
+            rowWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+    
+    /**
+     * RFC 4180 CSV with a header row; fields are quoted only when they contain
+     * a separator, quote or line break.
+     * 
+     * <p>Text fields are user input and the file is meant to be opened in a
+     * spreadsheet, so one starting like a formula ({@code =}, {@code +},
+     * {@code -}, {@code @}, tab or carriage return) is prefixed with {@code '}
+     * to be shown as text rather than evaluated.</p>
+     */
+    private static final class CsvRowWriter implements RowWriter {
+        
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(1024);
+        
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writeRecord(PostExportRow.COLUMNS.toArray());
+        }
+        
+        @Override
+        public void write(PostExportRow row) throws IOException {
+            writeRecord(row.values());
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+        
+        private void writeRecord(Object[] values) throws IOException {
+            line.setLength(0);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendField(values[i]);
+            }
+            line.append("\r\n");
+            writer.append(line);
+        }
+        
+        private void appendField(Object value) {
+            if (value == null) {
+                return;
+            }
+            String text;
+            if (value instanceof String string) {
+                text = startsLikeFormula(string) ? "'" + string : string;
+            } else {
+                text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            }
+            if (needsQuotes(text)) {
+                line.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(text);
+            }
+        }
+        
+        private static boolean startsLikeFormula(String text) {
+            if (text.isEmpty()) {
+                return false;
+            }
+            char first = text.charAt(0);
+            return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        }
+        
+        private static boolean needsQuotes(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
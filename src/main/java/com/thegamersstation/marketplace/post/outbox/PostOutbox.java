@@ -0,0 +1,150 @@
+package com.thegamersstation.marketplace.post.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Transactional outbox of post changes.
+ * 
+ * <p>Every {@link PostChangedEvent} is stored in post_outbox by a synchronous
+ * listener, so the entry commits or rolls back with the change it records:
+ * created, updated, approved, blocked, sold and deleted posts from every
+ * write path. {@link PostOutboxRelay} then hands the entries to the
+ * {@link PostOutboxSubscriber}s in batches, oldest first.</p>
+ * 
+ * <p>Failures are isolated per post. Each entry is delivered in a transaction
+ * of its own; a failing one is counted and stays, later entries of the same
+ * post are held back behind it, and entries of other posts go on. After
+ * {@value #MAX_ATTEMPTS} failures the entry is given up: the subscribers are
+ * told (see {@link PostOutboxSubscriber#onDeliveryAbandoned}), and the post's
+ * later entries stay held back until the given-up entry is removed.</p>
+ */
+@Slf4j
+@Component
+public class PostOutbox {
+    
+    /**
+     * Entries failing this many times are no longer delivered; they stay in
+     * the table for inspection.
+     */
+    static final int MAX_ATTEMPTS = 10;
+    
+    private final PostOutboxRepository postOutboxRepository;
+    private final List<PostOutboxSubscriber> subscribers;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate deliveryTransaction;
+    
+    public PostOutbox(
+        PostOutboxRepository postOutboxRepository,
+        List<PostOutboxSubscriber> subscribers,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.postOutboxRepository = postOutboxRepository;
+        this.subscribers = subscribers;
+        this.objectMapper = objectMapper;
+        this.deliveryTransaction = new TransactionTemplate(transactionManager);
+        this.deliveryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        postOutboxRepository.save(PostOutboxEntry.builder()
+            .postId(event.postId())
+            .changeType(event.type())
+            .payload(toJson(event.snapshot()))
+            .build());
+    }
+    
+    /**
+     * Delivers up to {@code batchSize} of the oldest pending entries to every
+     * subscriber, in id order, and deletes the delivered ones. The batch stays
+     * locked meanwhile, so concurrent relays neither repeat nor overtake it.
+     * 
+     * @return the number of entries delivered
+     */
+    @Transactional
+    public int deliverBatch(int batchSize) {
+        List<PostOutboxEntry> entries = postOutboxRepository.lockPending(MAX_ATTEMPTS, PageRequest.of(0, batchSize));
+        List<Long> delivered = new ArrayList<>(entries.size());
+        Set<Long> heldBack = new HashSet<>();
+        for (PostOutboxEntry entry : entries) {
+            if (heldBack.contains(entry.getPostId())) {
+                continue;
+            }
+            try {
+                deliveryTransaction.executeWithoutResult(status -> deliver(entry));
+                delivered.add(entry.getId());
+            } catch (RuntimeException e) {
+                heldBack.add(entry.getPostId());
+                recordFailure(entry, e);
+            }
+        }
+        if (!delivered.isEmpty()) {
+            postOutboxRepository.deleteByIdIn(delivered);
+        }
+        return delivered.size();
+    }
+    
+    private void deliver(PostOutboxEntry entry) {
+        PostChangedEvent event = new PostChangedEvent(entry.getChangeType(), fromJson(entry.getPayload()));
+        for (PostOutboxSubscriber subscriber : subscribers) {
+            subscriber.onPostChanged(event);
+        }
+    }
+    
+    /**
+     * Counts a failed delivery on the locked entry, and gives the entry up
+     * once it reaches {@link #MAX_ATTEMPTS}.
+     */
+    private void recordFailure(PostOutboxEntry entry, RuntimeException error) {
+        entry.setAttempts(entry.getAttempts() + 1);
+        if (entry.getAttempts() < MAX_ATTEMPTS) {
+            log.warn("Delivery of post outbox entry {} (post {}) failed; will retry",
+                entry.getId(), entry.getPostId(), error);
+            return;
+        }
+        log.error("Delivery of post outbox entry {} (post {}) failed; giving up after {} attempts, "
+                + "later changes of the post are held back until the entry is removed",
+            entry.getId(), entry.getPostId(), MAX_ATTEMPTS, error);
+        for (PostOutboxSubscriber subscriber : subscribers) {
+            try {
+                deliveryTransaction.executeWithoutResult(status -> subscriber.onDeliveryAbandoned(entry.getPostId()));
+            } catch (RuntimeException e) {
+                log.error("Subscriber {} failed to handle the abandoned changes of post {}",
+                    subscriber.getClass().getSimpleName(), entry.getPostId(), e);
+            }
+        }
+    }
+    
+    private String toJson(PostSnapshot snapshot) {
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize post " + snapshot.id(), e);
+        }
+    }
+    
+    private PostSnapshot fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, PostSnapshot.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable post outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.thegamersstation.marketplace.post.outbox;
+
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A post change waiting to be delivered to the {@link PostOutboxSubscriber}s.
+ * 
+ * <p>Ids are AUTO_INCREMENT so that they follow the order in which changes
+ * to the same post were written: the post row stays locked until its
+ * transaction commits, so a later change of it gets a higher id.</p>
+ */
+@Entity
+@Table(name = "post_outbox")
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostOutboxEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 20)
+    private PostChangedEvent.ChangeType changeType;
+    
+    /**
+     * The post's {@link com.thegamersstation.marketplace.post.event.PostSnapshot} as JSON.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    /**
+     * Failed deliveries so far.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+    
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,35 @@
+package com.thegamersstation.marketplace.post.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains the post outbox: delivers pending entries in batches, one
+ * transaction each, until the outbox is empty, then waits for the next run.
+ * 
+ * <p>A failing entry only holds back the later entries of its own post; it
+ * is retried on the next run (see {@link PostOutbox}).</p>
+ */
+@Component
+public class PostOutboxRelay {
+    
+    private final PostOutbox postOutbox;
+    private final int batchSize;
+    
+    public PostOutboxRelay(
+        PostOutbox postOutbox,
+        @Value("${post.outbox.batch-size:100}") int batchSize
+    ) {
+        this.postOutbox = postOutbox;
+        this.batchSize = batchSize;
+    }
+    
+    @Scheduled(fixedDelayString = "${post.outbox.drain-millis:500}")
+    public void drain() {
+        int delivered;
+        do {
+            delivered = postOutbox.deliverBatch(batchSize);
+        } while (delivered == batchSize);
+    }
+}
@@ -0,0 +1,34 @@
+package com.thegamersstation.marketplace.post.outbox;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PostOutboxRepository extends JpaRepository<PostOutboxEntry, Long> {
+    
+    /**
+     * The oldest entries still to deliver, locked until the delivering
+     * transaction ends so that two relays never deliver the same entries or
+     * overtake each other. A given-up entry and every later entry of its post
+     * are left out, so a post's changes are never delivered past a gap.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM PostOutboxEntry e WHERE NOT EXISTS (" +
+           "SELECT s.id FROM PostOutboxEntry s " +
+           "WHERE s.postId = e.postId AND s.attempts >= :maxAttempts AND s.id <= e.id) " +
+           "ORDER BY e.id")
+    List<PostOutboxEntry> lockPending(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM PostOutboxEntry e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,26 @@
+package com.thegamersstation.marketplace.post.outbox;
+
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+
+/**
+ * Receives post changes from the outbox, asynchronously and after they are
+ * committed.
+ * 
+ * <p>Delivery is at least once and in order per post: a change may be
+ * delivered again if another subscriber fails on it or the relay stops
+ * before deleting it, so subscribers must be idempotent. Each change is
+ * delivered in a transaction of its own; an exception rolls it back, and the
+ * change is retried while later changes of the same post wait for it.</p>
+ */
+public interface PostOutboxSubscriber {
+    
+    void onPostChanged(PostChangedEvent event);
+    
+    /**
+     * A change of the post failed {@value PostOutbox#MAX_ATTEMPTS} times and
+     * was given up, and its later changes are held back. Subscribers should
+     * fall back to a safe state for the post, e.g. from its current row.
+     */
+    default void onDeliveryAbandoned(Long postId) {
+    }
+}
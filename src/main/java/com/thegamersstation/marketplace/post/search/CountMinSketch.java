@@ -0,0 +1,56 @@
+package com.thegamersstation.marketplace.post.search;
+
+/**
+ * Count-Min sketch: approximate counts of arbitrarily many keys in fixed
+ * memory. An estimate is never below the true count and exceeds it by at
+ * most about {@code 2 * total / width} with high probability.
+ * 
+ * <p>Not thread-safe; callers synchronize.</p>
+ */
+final class CountMinSketch {
+    
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+    
+    private final int[][] counts;
+    private final int mask;
+    
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    CountMinSketch(int width) {
+        int size = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.counts = new int[DEPTH][size];
+        this.mask = size - 1;
+    }
+    
+    void add(Object key) {
+        int hash = key.hashCode();
+        for (int row = 0; row < DEPTH; row++) {
+            int[] rowCounts = counts[row];
+            int index = index(hash, row);
+            if (rowCounts[index] != Integer.MAX_VALUE) {
+                rowCounts[index]++;
+            }
+        }
+    }
+    
+    long estimate(Object key) {
+        int hash = key.hashCode();
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counts[row][index(hash, row)]);
+        }
+        return min;
+    }
+    
+    private int index(int hash, int row) {
+        long mixed = (hash ^ SEEDS[row]) * 0xFF51AFD7ED558CCDL;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xC4CEB9FE1A85EC53L;
+        mixed ^= mixed >>> 33;
+        return (int) mixed & mask;
+    }
+}
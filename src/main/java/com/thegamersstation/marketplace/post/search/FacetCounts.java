@@ -0,0 +1,93 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.Post;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Facet counts for a search: how many matching posts fall under each category,
+ * city, region, type, condition and price bucket.
+ * 
+ * <p>Counts are disjunctive: each facet is counted with every filter applied
+ * except its own, so a client can show the alternatives to the value already
+ * selected. {@code total} applies every filter.</p>
+ */
+public record FacetCounts(
+    long total,
+    Map<Long, Long> categories,
+    Map<Long, Long> cities,
+    Map<Long, Long> regions,
+    Map<Post.PostType, Long> types,
+    Map<Post.PostCondition, Long> conditions,
+    Map<PriceBucket, Long> priceBuckets
+) {
+    
+    /**
+     * Builds facet counts from pre-aggregated groups of posts in a single pass,
+     * applying the dimension filters of the criteria. Price bounds are not
+     * checked here; groups must already respect them.
+     */
+    public static final class Accumulator {
+        
+        private final PostSearchCriteria criteria;
+        private long total;
+        private final Map<Long, Long> categories = new HashMap<>();
+        private final Map<Long, Long> cities = new HashMap<>();
+        private final Map<Long, Long> regions = new HashMap<>();
+        private final Map<Post.PostType, Long> types = new EnumMap<>(Post.PostType.class);
+        private final Map<Post.PostCondition, Long> conditions = new EnumMap<>(Post.PostCondition.class);
+        private final Map<PriceBucket, Long> priceBuckets = new EnumMap<>(PriceBucket.class);
+        
+        public Accumulator(PostSearchCriteria criteria) {
+            this.criteria = criteria;
+        }
+        
+        public void add(
+            Long categoryId,
+            Long cityId,
+            Long regionId,
+            Post.PostType type,
+            Post.PostCondition condition,
+            PriceBucket priceBucket,
+            long count
+        ) {
+            boolean category = criteria.categoryIds() == null || criteria.categoryIds().contains(categoryId);
+            boolean city = criteria.cityIds() == null || criteria.cityIds().contains(cityId);
+            boolean region = criteria.regionId() == null || criteria.regionId().equals(regionId);
+            boolean typeMatches = criteria.type() == null || criteria.type() == type;
+            boolean conditionMatches = criteria.condition() == null || criteria.condition() == condition;
+            
+            if (city && region && typeMatches && conditionMatches) {
+                categories.merge(categoryId, count, Long::sum);
+            }
+            if (category && region && typeMatches && conditionMatches) {
+                cities.merge(cityId, count, Long::sum);
+            }
+            if (category && city && typeMatches && conditionMatches) {
+                regions.merge(regionId, count, Long::sum);
+            }
+            if (category && city && region && conditionMatches) {
+                types.merge(type, count, Long::sum);
+            }
+            if (category && city && region && typeMatches && condition != null) {
+                conditions.merge(condition, count, Long::sum);
+            }
+            if (category && city && region && typeMatches && conditionMatches) {
+                total += count;
+                if (priceBucket != null) {
+                    priceBuckets.merge(priceBucket, count, Long::sum);
+                }
+            }
+        }
+        
+        public FacetCounts build() {
+            categories.keySet().removeIf(Objects::isNull);
+            cities.keySet().removeIf(Objects::isNull);
+            regions.keySet().removeIf(Objects::isNull);
+            return new FacetCounts(total, categories, cities, regions, types, conditions, priceBuckets);
+        }
+    }
+}
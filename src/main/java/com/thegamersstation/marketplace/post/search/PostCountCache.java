@@ -0,0 +1,64 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.ToLongFunction;
+
+/**
+ * Short-lived cache of listing totals keyed by the normalized filters, used by
+ * {@link com.thegamersstation.marketplace.common.dto.CountMode#CACHED}.
+ * 
+ * <p>Entries expire after a few seconds and are dropped early when a post
+ * that could be counted by them changes status. Edits to a listed post may
+ * move it between filters, so they clear the whole cache.</p>
+ */
+@Component
+public class PostCountCache {
+    
+    private final Cache<PostSearchCriteria, Long> counts;
+    
+    public PostCountCache(@Value("${search.count-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.counts = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .maximumSize(10_000)
+            .build();
+    }
+    
+    /**
+     * Returns the cached total for the criteria, computing it with {@code counter} on a miss.
+     */
+    public Count get(PostSearchCriteria criteria, ToLongFunction<PostSearchCriteria> counter) {
+        PostSearchCriteria key = criteria.normalized();
+        Long cached = counts.getIfPresent(key);
+        if (cached != null) {
+            return new Count(cached, false);
+        }
+        long total = counter.applyAsLong(criteria);
+        counts.put(key, total);
+        return new Count(total, true);
+    }
+    
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> {
+                if (event.isListed()) {
+                    counts.invalidateAll();
+                }
+            }
+            default -> counts.asMap().keySet().removeIf(criteria -> criteria.matches(event.snapshot()));
+        }
+    }
+    
+    /**
+     * A total and whether it was just computed (exact) or served from the cache.
+     */
+    public record Count(long total, boolean exact) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.common.exception.BusinessRuleException;
+import com.thegamersstation.marketplace.post.Post;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Position in a keyset-paginated post listing: the sort key value and id of
+ * the last post returned. Encoded as an opaque URL-safe string for clients.
+ * 
+ * <p>Price-ordered listings only contain posts with a fixed price, since
+ * posts without one have no position in that order.</p>
+ */
+public record PostCursor(SortKey sortKey, LocalDateTime createdAt, BigDecimal price, Long id) {
+    
+    private static final String SEPARATOR = "|";
+    
+    public static PostCursor after(SortKey sortKey, Post post) {
+        return new PostCursor(sortKey, post.getCreatedAt(), post.getPrice(), post.getId());
+    }
+    
+    public String encode() {
+        String value = sortKey.isPriceOrder() ? price.toPlainString() : createdAt.toString();
+        String raw = sortKey.name() + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @return the decoded cursor, or null for a blank cursor (first page)
+     */
+    public static PostCursor decode(String cursor, SortKey expectedSortKey) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            if (sortKey != expectedSortKey) {
+                throw new BusinessRuleException("Cursor does not match the requested sort order");
+            }
+            Long id = Long.valueOf(parts[2]);
+            return sortKey.isPriceOrder()
+                ? new PostCursor(sortKey, null, new BigDecimal(parts[1]), id)
+                : new PostCursor(sortKey, LocalDateTime.parse(parts[1]), null, id);
+        } catch (BusinessRuleException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new BusinessRuleException("Invalid cursor");
+        }
+    }
+    
+    /**
+     * Orders supported by keyset pagination; each is unique thanks to the id tie-breaker.
+     */
+    public enum SortKey {
+        NEWEST("createdAt", Sort.Direction.DESC),
+        OLDEST("createdAt", Sort.Direction.ASC),
+        PRICE_ASC("price", Sort.Direction.ASC),
+        PRICE_DESC("price", Sort.Direction.DESC);
+        
+        private final String property;
+        private final Sort.Direction direction;
+        
+        SortKey(String property, Sort.Direction direction) {
+            this.property = property;
+            this.direction = direction;
+        }
+        
+        public boolean isPriceOrder() {
+            return "price".equals(property);
+        }
+        
+        public boolean isAscending() {
+            return direction.isAscending();
+        }
+        
+        /**
+         * @return the name used by the sort query parameter, e.g. price_asc
+         */
+        public String parameterValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+        
+        /**
+         * Maps a Sort built by the listing endpoints to a keyset order.
+         */
+        public static SortKey from(Sort sort) {
+            Sort.Order order = sort.stream().findFirst().orElse(null);
+            if (order == null) {
+                return NEWEST;
+            }
+            for (SortKey sortKey : values()) {
+                if (sortKey.property.equals(order.getProperty()) && sortKey.direction == order.getDirection()) {
+                    return sortKey;
+                }
+            }
+            throw new BusinessRuleException("Cursor pagination supports sorting by newest, oldest, price_asc or price_desc");
+        }
+    }
+}
@@ -0,0 +1,554 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory filter index over ACTIVE posts: one {@link CompressedBitmap} of
+ * post ids per category, city, region, type, condition and price bucket.
+ * 
+ * <p>A filter combination is answered by ANDing the bitmaps of the selected
+ * values; only the ids of the requested page then need to be loaded from
+ * MySQL. Facet counts are intersections of the same bitmaps with the posts
+ * matching the other filters (see {@link FacetCounts}).</p>
+ * 
+ * <p>Price bounds and price orders are served by a {@link PriceIndex} of
+ * integer cents, so neither compares BigDecimals per post.</p>
+ */
+@Component
+public class PostFilterIndex extends PostReadModel<PostFilterIndex.Segment> {
+    
+    @Override
+    protected Segment newSegment() {
+        return new Segment();
+    }
+    
+    /**
+     * Whether {@link #search} can produce the order: a single createdAt or
+     * price order, either direction.
+     */
+    public static boolean supportsSort(Sort sort) {
+        return sort.isUnsorted()
+            || (sort.stream().count() == 1
+                && (sort.getOrderFor("createdAt") != null || sort.getOrderFor("price") != null));
+    }
+    
+    /**
+     * One page of the ids of posts matching the filters of the criteria, in
+     * createdAt or price order (see {@link #supportsSort}), ties broken by id.
+     * Posts without a fixed price come last in price orders, newest first.
+     * The text query of the criteria is ignored. The total is exact.
+     */
+    public Page<Long> search(PostSearchCriteria criteria, Pageable pageable) {
+        return read(segment -> segment.search(criteria, pageable));
+    }
+    
+    /**
+     * Keyset variant of {@link #search} for the price orders: up to
+     * {@code limit} ids of fixed-price posts after the cursor (null for the
+     * first page). The text query of the criteria is ignored.
+     */
+    public List<Long> searchAfterByPrice(PostSearchCriteria criteria, PostCursor.SortKey sortKey, PostCursor after, int limit) {
+        if (!sortKey.isPriceOrder()) {
+            throw new IllegalArgumentException("Not a price order: " + sortKey);
+        }
+        return read(segment -> segment.searchAfterByPrice(criteria, sortKey, after, limit));
+    }
+    
+    /**
+     * Computes facet counts for the criteria.
+     * 
+     * @param textMatches ascending ids of the posts matching the text query,
+     *                    or null when there is no text query
+     */
+    public FacetCounts facets(PostSearchCriteria criteria, int[] textMatches) {
+        return read(segment -> segment.facets(criteria, textMatches));
+    }
+    
+    /**
+     * Filterable attributes kept per post, needed to clear its bits on removal.
+     */
+    private record FilterPost(
+        long id,
+        Long categoryId,
+        Long cityId,
+        Long regionId,
+        Post.PostType type,
+        Post.PostCondition condition,
+        BigDecimal price,
+        BigDecimal priceMin,
+        BigDecimal priceMax,
+        LocalDateTime createdAt,
+        long createdAtKey,
+        Long lowCents,
+        Long highCents
+    ) {
+        
+        /**
+         * Whether the price or price range overlaps [minCents, maxCents]; see {@link PostSearchCriteria#matchesPrice}.
+         */
+        boolean overlapsPrice(long minCents, long maxCents) {
+            return lowCents != null && highCents >= minCents && lowCents <= maxCents;
+        }
+    }
+    
+    static final class Segment implements PostReadModel.Segment {
+        
+        /**
+         * Below one match per this many posts, price orders sort the matches and price bounds
+         * check them one by one, instead of walking the price index.
+         */
+        private static final int SPARSE_SCAN_RATIO = 8;
+        
+        private final CompressedBitmap all = new CompressedBitmap();
+        private final Map<Long, CompressedBitmap> categories = new HashMap<>();
+        private final Map<Long, CompressedBitmap> cities = new HashMap<>();
+        private final Map<Long, CompressedBitmap> regions = new HashMap<>();
+        private final Map<Post.PostType, CompressedBitmap> types = new EnumMap<>(Post.PostType.class);
+        private final Map<Post.PostCondition, CompressedBitmap> conditions = new EnumMap<>(Post.PostCondition.class);
+        private final Map<PriceBucket, CompressedBitmap> priceBuckets = new EnumMap<>(PriceBucket.class);
+        private final PriceIndex prices = new PriceIndex();
+        private final CompressedBitmap unpriced = new CompressedBitmap();
+        private final Map<Long, FilterPost> documents = new HashMap<>();
+        
+        @Override
+        public void put(PostSnapshot snapshot) {
+            put(snapshot, false);
+        }
+        
+        @Override
+        public void load(PostSnapshot snapshot) {
+            put(snapshot, true);
+        }
+        
+        private void put(PostSnapshot snapshot, boolean bulk) {
+            remove(snapshot.id());
+            
+            int docId = Math.toIntExact(snapshot.id());
+            BigDecimal low = snapshot.price() != null ? snapshot.price()
+                : snapshot.priceMin() != null ? snapshot.priceMin() : snapshot.priceMax();
+            BigDecimal high = snapshot.price() != null ? snapshot.price()
+                : snapshot.priceMax() != null ? snapshot.priceMax() : snapshot.priceMin();
+            FilterPost post = new FilterPost(
+                snapshot.id(),
+                snapshot.categoryId(),
+                snapshot.cityId(),
+                snapshot.regionId(),
+                snapshot.type(),
+                snapshot.condition(),
+                snapshot.price(),
+                snapshot.priceMin(),
+                snapshot.priceMax(),
+                snapshot.createdAt(),
+                createdAtKey(snapshot.createdAt()),
+                PriceIndex.toCents(low, RoundingMode.HALF_UP),
+                PriceIndex.toCents(high, RoundingMode.HALF_UP)
+            );
+            documents.put(snapshot.id(), post);
+            all.add(docId);
+            set(categories, post.categoryId(), docId);
+            set(cities, post.cityId(), docId);
+            set(regions, post.regionId(), docId);
+            set(types, post.type(), docId);
+            set(conditions, post.condition(), docId);
+            set(priceBuckets, PriceBucket.of(post.price()), docId);
+            if (bulk) {
+                prices.append(docId, post.price(), post.priceMin(), post.priceMax());
+            } else {
+                prices.add(docId, post.price(), post.priceMin(), post.priceMax());
+            }
+            if (post.price() == null) {
+                unpriced.add(docId);
+            }
+        }
+        
+        @Override
+        public void remove(Long postId) {
+            FilterPost post = documents.remove(postId);
+            if (post == null) {
+                return;
+            }
+            int docId = Math.toIntExact(postId);
+            all.remove(docId);
+            clear(categories, post.categoryId(), docId);
+            clear(cities, post.cityId(), docId);
+            clear(regions, post.regionId(), docId);
+            clear(types, post.type(), docId);
+            clear(conditions, post.condition(), docId);
+            clear(priceBuckets, PriceBucket.of(post.price()), docId);
+            prices.remove(docId, post.price(), post.priceMin(), post.priceMax());
+            unpriced.remove(docId);
+        }
+        
+        @Override
+        public int size() {
+            return documents.size();
+        }
+        
+        @Override
+        public void trim() {
+            prices.trim();
+        }
+        
+        Page<Long> search(PostSearchCriteria criteria, Pageable pageable) {
+            CompressedBitmap matching = matching(criteria);
+            int limit = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+            Sort.Order priceOrder = pageable.getSort().getOrderFor("price");
+            List<Long> ids;
+            if (priceOrder != null) {
+                ids = byPrice(matching, priceOrder.isAscending(), limit);
+            } else {
+                Sort.Order order = pageable.getSort().getOrderFor("createdAt");
+                ids = byCreatedAt(matching, order != null && order.isAscending(), limit);
+            }
+            int from = (int) Math.min(pageable.getOffset(), ids.size());
+            return new PageImpl<>(ids.subList(from, ids.size()), pageable, matching.cardinality());
+        }
+        
+        List<Long> searchAfterByPrice(PostSearchCriteria criteria, PostCursor.SortKey sortKey, PostCursor after, int limit) {
+            CompressedBitmap matching = matching(criteria);
+            List<Long> ids = new ArrayList<>(limit);
+            if (limit == 0) {
+                return ids;
+            }
+            prices.forEachOrdered(
+                sortKey.isAscending(),
+                after != null ? PriceIndex.toCents(after.price(), RoundingMode.HALF_UP) : null,
+                after != null ? (int) Math.max(Math.min(after.id(), Integer.MAX_VALUE), Integer.MIN_VALUE) : 0,
+                docId -> {
+                    if (matching.contains(docId)) {
+                        ids.add((long) docId);
+                    }
+                    return ids.size() < limit;
+                }
+            );
+            return ids;
+        }
+        
+        private CompressedBitmap matching(PostSearchCriteria criteria) {
+            return withinPriceRange(and(
+                all,
+                anyOf(categories, criteria.categoryIds()),
+                anyOf(cities, criteria.cityIds()),
+                filter(regions, criteria.regionId()),
+                filter(types, criteria.type()),
+                filter(conditions, criteria.condition())
+            ), criteria);
+        }
+        
+        /**
+         * The first {@code limit} matching posts by createdAt, ties broken by id.
+         * Selects on primitive keys; in descending order key and id are
+         * complemented, so the smallest pairs always come first.
+         */
+        private List<Long> byCreatedAt(CompressedBitmap matching, boolean ascending, int limit) {
+            if (limit <= 0) {
+                return List.of();
+            }
+            TopKeys top = new TopKeys(limit);
+            matching.forEach(docId -> {
+                long key = documents.get((long) docId).createdAtKey();
+                if (ascending) {
+                    top.offer(key, docId);
+                } else {
+                    top.offer(~key, ~docId);
+                }
+            });
+            long[] ids = top.sortedValues();
+            List<Long> result = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                result.add(ascending ? id : ~id);
+            }
+            return result;
+        }
+        
+        /**
+         * Orders like createdAt with nulls first: nanoseconds since the epoch in UTC.
+         */
+        private static long createdAtKey(LocalDateTime createdAt) {
+            if (createdAt == null) {
+                return Long.MIN_VALUE;
+            }
+            return createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + createdAt.getNano();
+        }
+        
+        /**
+         * The first {@code limit} matching posts by price, ties broken by id,
+         * followed by those without a fixed price, newest first.
+         */
+        private List<Long> byPrice(CompressedBitmap matching, boolean ascending, int limit) {
+            List<Long> ids;
+            CompressedBitmap withoutPrice = matching.and(unpriced);
+            int pricedMatches = matching.cardinality() - withoutPrice.cardinality();
+            if ((long) pricedMatches * SPARSE_SCAN_RATIO < prices.pricedCount()) {
+                // Few matches: sorting them beats walking the whole price order
+                Comparator<FilterPost> comparator = Comparator.comparing(FilterPost::price).thenComparingLong(FilterPost::id);
+                CompressedBitmap priced = new CompressedBitmap();
+                matching.forEach(docId -> {
+                    if (!withoutPrice.contains(docId)) {
+                        priced.add(docId);
+                    }
+                });
+                ids = top(priced, ascending ? comparator : comparator.reversed(), limit);
+            } else {
+                List<Long> walked = new ArrayList<>(Math.min(limit, pricedMatches));
+                if (limit > 0) {
+                    prices.forEachOrdered(ascending, null, 0, docId -> {
+                        if (matching.contains(docId)) {
+                            walked.add((long) docId);
+                        }
+                        return walked.size() < limit;
+                    });
+                }
+                ids = walked;
+            }
+            if (ids.size() < limit) {
+                ids = new ArrayList<>(ids);
+                ids.addAll(byCreatedAt(withoutPrice, false, limit - ids.size()));
+            }
+            return ids;
+        }
+        
+        /**
+         * The first {@code limit} matching posts in the comparator's order.
+         */
+        private List<Long> top(CompressedBitmap matching, Comparator<FilterPost> comparator, int limit) {
+            // Keep the best limit posts; the heap's head is the worst of them
+            PriorityQueue<FilterPost> top = new PriorityQueue<>(Math.max(1, limit + 1), comparator.reversed());
+            if (limit > 0) {
+                matching.forEach(docId -> {
+                    FilterPost post = documents.get((long) docId);
+                    if (top.size() < limit) {
+                        top.offer(post);
+                    } else if (comparator.compare(post, top.peek()) < 0) {
+                        top.poll();
+                        top.offer(post);
+                    }
+                });
+            }
+            
+            List<FilterPost> ordered = new ArrayList<>(top);
+            ordered.sort(comparator);
+            return ordered.stream()
+                .map(FilterPost::id)
+                .toList();
+        }
+        
+        FacetCounts facets(PostSearchCriteria criteria, int[] textMatches) {
+            CompressedBitmap base = textMatches != null ? all.and(CompressedBitmap.of(textMatches)) : all;
+            CompressedBitmap priced = withinPriceRange(base, criteria);
+            
+            CompressedBitmap category = anyOf(categories, criteria.categoryIds());
+            CompressedBitmap city = anyOf(cities, criteria.cityIds());
+            CompressedBitmap region = filter(regions, criteria.regionId());
+            CompressedBitmap type = filter(types, criteria.type());
+            CompressedBitmap condition = filter(conditions, criteria.condition());
+            
+            return new FacetCounts(
+                and(priced, category, city, region, type, condition).cardinality(),
+                counts(and(priced, city, region, type, condition), categories),
+                counts(and(priced, category, region, type, condition), cities),
+                counts(and(priced, category, city, type, condition), regions),
+                counts(and(priced, category, city, region, condition), types),
+                counts(and(priced, category, city, region, type), conditions),
+                counts(and(base, category, city, region, type, condition), priceBuckets)
+            );
+        }
+        
+        /**
+         * Narrows {@code base} to the posts within the price bounds of the criteria.
+         * Few candidates are checked one by one; otherwise the price range is
+         * taken from the price index and intersected.
+         */
+        private CompressedBitmap withinPriceRange(CompressedBitmap base, PostSearchCriteria criteria) {
+            if (criteria.minPrice() == null && criteria.maxPrice() == null) {
+                return base;
+            }
+            Long minCents = PriceIndex.toCents(criteria.minPrice(), RoundingMode.CEILING);
+            Long maxCents = PriceIndex.toCents(criteria.maxPrice(), RoundingMode.FLOOR);
+            if ((long) base.cardinality() * SPARSE_SCAN_RATIO >= documents.size()) {
+                return base.and(prices.matching(minCents, maxCents));
+            }
+            long min = minCents != null ? minCents : Long.MIN_VALUE;
+            long max = maxCents != null ? maxCents : Long.MAX_VALUE;
+            CompressedBitmap result = new CompressedBitmap();
+            base.forEach(docId -> {
+                if (documents.get((long) docId).overlapsPrice(min, max)) {
+                    result.add(docId);
+                }
+            });
+            return result;
+        }
+        
+        /**
+         * @return null when the filter is not set, otherwise the posts having the value
+         */
+        private static <K> CompressedBitmap filter(Map<K, CompressedBitmap> bitmaps, K value) {
+            if (value == null) {
+                return null;
+            }
+            return bitmaps.getOrDefault(value, new CompressedBitmap());
+        }
+        
+        /**
+         * @return null when the filter is not set, otherwise the union of the posts having any of the values
+         */
+        private static <K> CompressedBitmap anyOf(Map<K, CompressedBitmap> bitmaps, Set<K> values) {
+            if (values == null) {
+                return null;
+            }
+            CompressedBitmap union = new CompressedBitmap();
+            for (K value : values) {
+                CompressedBitmap bitmap = bitmaps.get(value);
+                if (bitmap != null) {
+                    union = values.size() == 1 ? bitmap : union.or(bitmap);
+                }
+            }
+            return union;
+        }
+        
+        /**
+         * Intersects the set filters, smallest first so intermediate results stay small.
+         */
+        private static CompressedBitmap and(CompressedBitmap base, CompressedBitmap... filters) {
+            List<CompressedBitmap> selected = new ArrayList<>(filters.length);
+            for (CompressedBitmap filter : filters) {
+                if (filter != null) {
+                    selected.add(filter);
+                }
+            }
+            if (selected.isEmpty()) {
+                return base;
+            }
+            selected.sort(Comparator.comparingInt(CompressedBitmap::cardinality));
+            CompressedBitmap result = selected.get(0).and(base);
+            for (int i = 1; i < selected.size() && !result.isEmpty(); i++) {
+                result = result.and(selected.get(i));
+            }
+            return result;
+        }
+        
+        private static <K> Map<K, Long> counts(CompressedBitmap matching, Map<K, CompressedBitmap> bitmaps) {
+            Map<K, Long> counts = new HashMap<>();
+            if (matching.isEmpty()) {
+                return counts;
+            }
+            bitmaps.forEach((value, bitmap) -> {
+                int count = bitmap.andCardinality(matching);
+                if (count > 0) {
+                    counts.put(value, (long) count);
+                }
+            });
+            return counts;
+        }
+        
+        private static <K> void set(Map<K, CompressedBitmap> bitmaps, K value, int docId) {
+            if (value != null) {
+                bitmaps.computeIfAbsent(value, key -> new CompressedBitmap()).add(docId);
+            }
+        }
+        
+        private static <K> void clear(Map<K, CompressedBitmap> bitmaps, K value, int docId) {
+            if (value == null) {
+                return;
+            }
+            CompressedBitmap bitmap = bitmaps.get(value);
+            if (bitmap != null) {
+                bitmap.remove(docId);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(value);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Keeps the {@code capacity} smallest (key, value) pairs offered, in a
+     * max-heap of parallel primitive arrays.
+     */
+    private static final class TopKeys {
+        
+        private final long[] keys;
+        private final long[] values;
+        private int size;
+        
+        TopKeys(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+        }
+        
+        void offer(long key, long value) {
+            if (size < keys.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!greater(key, value, keys[parent], values[parent])) {
+                        break;
+                    }
+                    keys[i] = keys[parent];
+                    values[i] = values[parent];
+                    i = parent;
+                }
+                keys[i] = key;
+                values[i] = value;
+            } else if (greater(keys[0], values[0], key, value)) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && greater(keys[child + 1], values[child + 1], keys[child], values[child])) {
+                        child++;
+                    }
+                    if (!greater(keys[child], values[child], key, value)) {
+                        break;
+                    }
+                    keys[i] = keys[child];
+                    values[i] = values[child];
+                    i = child;
+                }
+                keys[i] = key;
+                values[i] = value;
+            }
+        }
+        
+        /**
+         * @return the values of the kept pairs, ordered by (key, value)
+         */
+        long[] sortedValues() {
+            Integer[] order = new Integer[size];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, (a, b) -> greater(keys[a], values[a], keys[b], values[b]) ? 1
+                : greater(keys[b], values[b], keys[a], values[a]) ? -1 : 0);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = values[order[i]];
+            }
+            return sorted;
+        }
+        
+        private static boolean greater(long key, long value, long otherKey, long otherValue) {
+            return key != otherKey ? key > otherKey : value > otherValue;
+        }
+    }
+}
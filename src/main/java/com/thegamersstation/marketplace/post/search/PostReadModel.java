@@ -0,0 +1,184 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Base for in-memory read models over ACTIVE posts.
+ * 
+ * <p>Data lives in a {@link Segment} guarded by a read/write lock. A model is
+ * not {@link #isReady() ready} until its first full rebuild finishes; callers
+ * fall back to MySQL until then. Rebuilds happen off to the side while reads
+ * and incremental updates keep using the current segment; changes that arrive
+ * meanwhile are replayed onto the new segment before it is swapped in.</p>
+ */
+@Slf4j
+public abstract class PostReadModel<S extends PostReadModel.Segment> {
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentLinkedQueue<PendingChange> changesDuringRebuild = new ConcurrentLinkedQueue<>();
+    
+    private S segment = newSegment();
+    private volatile boolean rebuilding;
+    private volatile boolean ready;
+    
+    protected abstract S newSegment();
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public int size() {
+        return read(Segment::size);
+    }
+    
+    /**
+     * Adds or replaces a post; posts that are not ACTIVE are removed instead.
+     */
+    public void index(PostSnapshot snapshot) {
+        if (!snapshot.isActive()) {
+            remove(snapshot.id());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            segment.put(snapshot);
+            if (rebuilding) {
+                changesDuringRebuild.add(new PendingChange(snapshot.id(), snapshot));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(postId);
+            if (rebuilding) {
+                changesDuringRebuild.add(new PendingChange(postId, null));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Replaces the whole model with the ACTIVE posts of {@code snapshots}.
+     */
+    public void rebuild(Supplier<Stream<PostSnapshot>> snapshots) {
+        rebuildAll(snapshots, List.of(this));
+    }
+    
+    /**
+     * Rebuilds several models in a single pass over the stream opened by {@code snapshots}.
+     * 
+     * <p>Changes are recorded for replay before the stream is opened, so a change
+     * committed while its query starts is replayed rather than lost; replaying a
+     * change the query already saw is harmless.</p>
+     */
+    public static void rebuildAll(Supplier<Stream<PostSnapshot>> snapshots, List<? extends PostReadModel<?>> models) {
+        List<Rebuild<?>> rebuilds = new ArrayList<>(models.size());
+        for (PostReadModel<?> model : models) {
+            model.rebuilding = true;
+            rebuilds.add(Rebuild.of(model));
+        }
+        try {
+            try (Stream<PostSnapshot> stream = snapshots.get()) {
+                stream.filter(PostSnapshot::isActive)
+                    .forEach(snapshot -> rebuilds.forEach(rebuild -> rebuild.segment.load(snapshot)));
+            }
+            rebuilds.forEach(Rebuild::swap);
+        } finally {
+            for (PostReadModel<?> model : models) {
+                model.rebuilding = false;
+                model.changesDuringRebuild.clear();
+            }
+        }
+    }
+    
+    /**
+     * Runs {@code reader} against the current segment under the read lock.
+     */
+    protected <T> T read(Function<S, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(segment);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * The data of a read model; only accessed under the model's lock.
+     */
+    public interface Segment {
+        
+        void put(PostSnapshot snapshot);
+        
+        /**
+         * Adds a post during a full rebuild. The segment is not read or updated
+         * before {@link #trim()}, so it may defer ordering work until then.
+         */
+        default void load(PostSnapshot snapshot) {
+            put(snapshot);
+        }
+        
+        void remove(Long postId);
+        
+        int size();
+        
+        /**
+         * Completes a bulk load and releases spare capacity.
+         */
+        default void trim() {
+        }
+    }
+    
+    private record PendingChange(Long postId, PostSnapshot snapshot) {
+    }
+    
+    private static final class Rebuild<S extends Segment> {
+        
+        private final PostReadModel<S> model;
+        private final S segment;
+        
+        private Rebuild(PostReadModel<S> model) {
+            this.model = model;
+            this.segment = model.newSegment();
+        }
+        
+        static <S extends Segment> Rebuild<S> of(PostReadModel<S> model) {
+            return new Rebuild<>(model);
+        }
+        
+        void swap() {
+            segment.trim();
+            model.lock.writeLock().lock();
+            try {
+                PendingChange change;
+                while ((change = model.changesDuringRebuild.poll()) != null) {
+                    if (change.snapshot() != null) {
+                        segment.put(change.snapshot());
+                    } else {
+                        segment.remove(change.postId());
+                    }
+                }
+                model.segment = segment;
+                model.ready = true;
+            } finally {
+                model.lock.writeLock().unlock();
+            }
+            log.info("{} rebuilt with {} posts", model.getClass().getSimpleName(), segment.size());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thegamersstation.marketplace.category.CategoryTreeChangedEvent;
+import com.thegamersstation.marketplace.common.dto.CountMode;
+import com.thegamersstation.marketplace.common.dto.PageResponseDto;
+import com.thegamersstation.marketplace.post.dto.PostDto;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import com.thegamersstation.marketplace.store.StoreChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache of whole listing pages in front of the post search endpoints, keyed
+ * by listing, normalized filters, page, sort, count mode and locale (post
+ * DTOs carry localized names).
+ * 
+ * <p>Once an entry is older than the refresh interval, the next request still
+ * gets it immediately while a single background reload, run with the loader
+ * that computed the entry, replaces it (stale-while-revalidate); entries
+ * unused until the expiry are dropped.
+ * Eviction is by weight, one unit per post in the page, so a few large pages
+ * cannot crowd out many small ones.</p>
+ * 
+ * <p>Refreshes run on a few threads of their own with a bounded queue, apart
+ * from the common pool that parallel streams use; a refresh that does not
+ * fit is dropped, and the next request of the entry tries again.</p>
+ * 
+ * <p>Invalidation is targeted: a post change evicts only the entries whose
+ * filters could contain the post or whose page shows it, and a store or
+ * category change the entries whose page shows one of its posts. Other
+ * entries pick up any remaining shift within the refresh interval.</p>
+ */
+@Slf4j
+@Component
+public class PostResultCache {
+    
+    private static final int REFRESH_THREADS = 2;
+    private static final int REFRESH_QUEUE = 256;
+    
+    private final boolean enabled;
+    private final long refreshNanos;
+    private final Cache<Key, Result> results;
+    private final ThreadPoolExecutor refreshExecutor = refreshExecutor();
+    
+    public PostResultCache(
+        @Value("${search.result-cache.enabled:true}") boolean enabled,
+        @Value("${search.result-cache.refresh-seconds:10}") long refreshSeconds,
+        @Value("${search.result-cache.expire-seconds:120}") long expireSeconds,
+        @Value("${search.result-cache.max-posts:50000}") long maxPosts
+    ) {
+        this.enabled = enabled;
+        this.refreshNanos = Duration.ofSeconds(refreshSeconds).toNanos();
+        this.results = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+            .maximumWeight(maxPosts)
+            .weigher((Key key, Result result) -> 1 + result.page().getContent().size())
+            .build();
+    }
+    
+    /**
+     * Returns the cached page for the request, computing it with {@code loader}
+     * on a miss. The loader is kept to refresh the entry later, on another
+     * thread, under the caller's locale.
+     */
+    public PageResponseDto<PostDto> get(
+        Listing listing,
+        PostSearchCriteria criteria,
+        Pageable pageable,
+        CountMode countMode,
+        Supplier<PageResponseDto<PostDto>> loader
+    ) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Locale locale = LocaleContextHolder.getLocale();
+        Key key = new Key(listing, criteria.normalized(), pageable, countMode, locale);
+        Supplier<PageResponseDto<PostDto>> localized = () -> {
+            LocaleContext previous = LocaleContextHolder.getLocaleContext();
+            LocaleContextHolder.setLocale(locale);
+            try {
+                return loader.get();
+            } finally {
+                LocaleContextHolder.setLocaleContext(previous);
+            }
+        };
+        Result result = results.get(key, k -> Result.load(localized));
+        if (result.isStale(refreshNanos) && result.refreshing().compareAndSet(false, true)) {
+            refresh(key, result);
+        }
+        return result.page();
+    }
+    
+    /**
+     * Reloads a stale entry in the background. The new page only replaces
+     * that very entry, so one evicted or recomputed meanwhile is left alone.
+     */
+    private void refresh(Key key, Result stale) {
+        try {
+            CompletableFuture.supplyAsync(stale::reload, refreshExecutor)
+                .whenComplete((fresh, error) -> {
+                    if (error == null) {
+                        results.asMap().replace(key, stale, fresh);
+                    } else {
+                        log.warn("Failed to refresh cached post listing {}", key, error);
+                        stale.refreshing().set(false);
+                    }
+                });
+        } catch (RejectedExecutionException e) {
+            stale.refreshing().set(false);
+        }
+    }
+    
+    /**
+     * Runs after the read models have applied the change, so a reload
+     * triggered by the eviction cannot cache the old state again.
+     */
+    @TransactionalEventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.type() == PostChangedEvent.ChangeType.CREATED && !event.isListed()) {
+            return;
+        }
+        results.asMap().entrySet().removeIf(entry ->
+            entry.getKey().criteria().matches(event.snapshot())
+                || entry.getValue().shows(post -> event.postId().equals(post.getId())));
+    }
+    
+    /**
+     * Evicts the pages showing the store's badge.
+     */
+    @TransactionalEventListener
+    public void onStoreChanged(StoreChangedEvent event) {
+        results.asMap().values().removeIf(result -> result.shows(post ->
+            post.getStore() != null && event.storeId().equals(post.getStore().getId())));
+    }
+    
+    /**
+     * Evicts the pages showing the category's names. Entries filtered by a
+     * subtree the change reshaped are keyed on the old subtree, which new
+     * requests no longer resolve to, so they age out.
+     */
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryTreeChangedEvent event) {
+        results.asMap().values().removeIf(result -> result.shows(post ->
+            event.categoryId().equals(post.getCategoryId())));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+    
+    private static ThreadPoolExecutor refreshExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(REFRESH_QUEUE), runnable -> {
+                Thread thread = new Thread(runnable, "post-result-refresh-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Endpoint a page was computed for; the same filters rank differently on each.
+     */
+    public enum Listing {
+        FILTER, SEARCH
+    }
+    
+    private record Key(Listing listing, PostSearchCriteria criteria, Pageable pageable, CountMode countMode, Locale locale) {
+    }
+    
+    /**
+     * A cached page with the loader that computed it. Compared by identity,
+     * so a refresh only replaces the entry it started from.
+     */
+    private static final class Result {
+        
+        private final PageResponseDto<PostDto> page;
+        private final Supplier<PageResponseDto<PostDto>> loader;
+        private final long loadedAt = System.nanoTime();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        
+        private Result(PageResponseDto<PostDto> page, Supplier<PageResponseDto<PostDto>> loader) {
+            this.page = page;
+            this.loader = loader;
+        }
+        
+        static Result load(Supplier<PageResponseDto<PostDto>> loader) {
+            return new Result(loader.get(), loader);
+        }
+        
+        Result reload() {
+            return load(loader);
+        }
+        
+        PageResponseDto<PostDto> page() {
+            return page;
+        }
+        
+        AtomicBoolean refreshing() {
+            return refreshing;
+        }
+        
+        boolean isStale(long refreshNanos) {
+            return System.nanoTime() - loadedAt >= refreshNanos;
+        }
+        
+        boolean shows(Predicate<PostDto> post) {
+            return page.getContent().stream().anyMatch(post);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Filters accepted by the post search endpoints. Every field is optional.
+ * 
+ * <p>{@code categoryIds} holds the accepted categories: a single id, or a
+ * whole subtree when descendants are included; null means any category.
+ * {@code cityIds} likewise holds a single city, or every city within a
+ * radius of it; null means any city.</p>
+ */
+public record PostSearchCriteria(
+    String query,
+    Set<Long> categoryIds,
+    Set<Long> cityIds,
+    Long regionId,
+    Post.PostType type,
+    Post.PostCondition condition,
+    BigDecimal minPrice,
+    BigDecimal maxPrice
+) {
+    
+    public boolean hasQuery() {
+        return query != null && !query.isBlank();
+    }
+    
+    /**
+     * Canonical form for use as a cache key: the query is trimmed, lower-cased
+     * and whitespace-collapsed (null when blank), prices drop trailing zeros.
+     */
+    public PostSearchCriteria normalized() {
+        return new PostSearchCriteria(
+            hasQuery() ? query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT) : null,
+            categoryIds,
+            cityIds,
+            regionId,
+            type,
+            condition,
+            minPrice != null ? minPrice.stripTrailingZeros() : null,
+            maxPrice != null ? maxPrice.stripTrailingZeros() : null
+        );
+    }
+    
+    /**
+     * Whether a post with these attributes could be among the results. The
+     * text query is not evaluated, so criteria with a query match conservatively.
+     */
+    public boolean matches(PostSnapshot post) {
+        if (categoryIds != null && !categoryIds.contains(post.categoryId())) {
+            return false;
+        }
+        if (cityIds != null && !cityIds.contains(post.cityId())) {
+            return false;
+        }
+        if (regionId != null && !regionId.equals(post.regionId())) {
+            return false;
+        }
+        if (type != null && type != post.type()) {
+            return false;
+        }
+        if (condition != null && condition != post.condition()) {
+            return false;
+        }
+        return matchesPrice(post.price(), post.priceMin(), post.priceMax());
+    }
+    
+    /**
+     * Whether a post's price overlaps [minPrice, maxPrice]. A post with a fixed
+     * price is that single point; otherwise its priceMin..priceMax range counts
+     * (ASK posts), a missing bound taking the value of the other one. Posts
+     * without any price only match when no bound is set.
+     */
+    public boolean matchesPrice(BigDecimal price, BigDecimal priceMin, BigDecimal priceMax) {
+        if (minPrice == null && maxPrice == null) {
+            return true;
+        }
+        BigDecimal low = price != null ? price : priceMin != null ? priceMin : priceMax;
+        BigDecimal high = price != null ? price : priceMax != null ? priceMax : priceMin;
+        if (low == null) {
+            return false;
+        }
+        return (minPrice == null || high.compareTo(minPrice) >= 0)
+            && (maxPrice == null || low.compareTo(maxPrice) <= 0);
+    }
+}
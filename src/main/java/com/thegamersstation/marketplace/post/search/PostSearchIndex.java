@@ -0,0 +1,473 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index over ACTIVE posts.
+ * 
+ * <p>Title, description, category names and city names are analyzed with
+ * {@link SearchTextAnalyzer}; every term maps to a compressed {@link PostingList}
+ * of post ids. A second set of postings covers titles only and boosts relevance.
+ * Per post, only the attributes needed for filtering and sorting are kept.</p>
+ * 
+ * <p>Query terms of three or more characters also match as prefixes, so
+ * "play" finds "playstation"; every index term with that prefix is expanded,
+ * so totals stay exact. All terms must match (AND).</p>
+ * 
+ * <p>The index is not {@link #isReady() ready} until the first full
+ * rebuild finishes; callers fall back to MySQL until then.</p>
+ */
+@Component
+public class PostSearchIndex extends PostReadModel<PostSearchIndex.Segment> {
+    
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final double TITLE_BOOST = 2.0;
+    
+    @Override
+    protected Segment newSegment() {
+        return new Segment();
+    }
+    
+    /**
+     * Ids of the posts matching every term of the query, ascending, or null
+     * when the query has no searchable terms.
+     */
+    public int[] matchingPostIds(String query) {
+        List<String> queryTerms = List.copyOf(SearchTextAnalyzer.terms(query));
+        if (queryTerms.isEmpty()) {
+            return null;
+        }
+        return read(segment -> segment.matchingDocIds(queryTerms));
+    }
+    
+    /**
+     * Runs a search and returns one page of matching post ids, in order.
+     * 
+     * <p>Supported sort properties are createdAt, price, title and relevance;
+     * anything else sorts newest first.</p>
+     */
+    public Page<Long> search(PostSearchCriteria criteria, Pageable pageable) {
+        return read(segment -> segment.search(criteria, pageable));
+    }
+    
+    /**
+     * Keyset variant of {@link #search}: up to {@code limit} ids strictly after
+     * {@code after} (or from the start when null) in the given order. No total is computed.
+     */
+    public List<Long> searchAfter(PostSearchCriteria criteria, PostCursor.SortKey sortKey, PostCursor after, int limit) {
+        return read(segment -> segment.searchAfter(criteria, sortKey, after, limit));
+    }
+    
+    /**
+     * Searchable attributes kept per post.
+     */
+    private record IndexedPost(
+        long id,
+        Long categoryId,
+        Long cityId,
+        Long regionId,
+        Post.PostType type,
+        Post.PostCondition condition,
+        BigDecimal price,
+        BigDecimal priceMin,
+        BigDecimal priceMax,
+        String title,
+        LocalDateTime createdAt,
+        int[] termIds,
+        int[] titleTermIds
+    ) {
+    }
+    
+    private record Hit(IndexedPost post, double score) {
+    }
+    
+    /**
+     * Matches of a single query term, possibly expanded over several index terms.
+     */
+    private record TermMatch(int[] docIds, int[] titleDocIds) {
+    }
+    
+    static final class Segment implements PostReadModel.Segment {
+        
+        private final TreeMap<String, Integer> termIds = new TreeMap<>();
+        private final List<PostingList> postings = new ArrayList<>();
+        private final List<PostingList> titlePostings = new ArrayList<>();
+        private final Map<Long, IndexedPost> documents = new HashMap<>();
+        
+        @Override
+        public void put(PostSnapshot snapshot) {
+            remove(snapshot.id());
+            
+            int docId = Math.toIntExact(snapshot.id());
+            Set<String> titleTerms = SearchTextAnalyzer.terms(snapshot.title());
+            Set<String> allTerms = SearchTextAnalyzer.terms(
+                snapshot.title(),
+                snapshot.description(),
+                snapshot.categoryNameEn(),
+                snapshot.categoryNameAr(),
+                snapshot.cityNameEn(),
+                snapshot.cityNameAr()
+            );
+            
+            int[] titleIds = new int[titleTerms.size()];
+            int i = 0;
+            for (String term : titleTerms) {
+                int termId = termId(term);
+                titlePostings.get(termId).add(docId);
+                titleIds[i++] = termId;
+            }
+            int[] allIds = new int[allTerms.size()];
+            i = 0;
+            for (String term : allTerms) {
+                int termId = termId(term);
+                postings.get(termId).add(docId);
+                allIds[i++] = termId;
+            }
+            
+            documents.put(snapshot.id(), new IndexedPost(
+                snapshot.id(),
+                snapshot.categoryId(),
+                snapshot.cityId(),
+                snapshot.regionId(),
+                snapshot.type(),
+                snapshot.condition(),
+                snapshot.price(),
+                snapshot.priceMin(),
+                snapshot.priceMax(),
+                snapshot.title(),
+                snapshot.createdAt(),
+                allIds,
+                titleIds
+            ));
+        }
+        
+        @Override
+        public void remove(Long postId) {
+            IndexedPost existing = documents.remove(postId);
+            if (existing == null) {
+                return;
+            }
+            int docId = Math.toIntExact(postId);
+            for (int termId : existing.termIds()) {
+                postings.get(termId).remove(docId);
+            }
+            for (int termId : existing.titleTermIds()) {
+                titlePostings.get(termId).remove(docId);
+            }
+        }
+        
+        @Override
+        public int size() {
+            return documents.size();
+        }
+        
+        @Override
+        public void trim() {
+            postings.forEach(PostingList::trim);
+            titlePostings.forEach(PostingList::trim);
+        }
+        
+        Page<Long> search(PostSearchCriteria criteria, Pageable pageable) {
+            List<String> queryTerms = queryTerms(criteria);
+            Sort.Order order = pageable.getSort().stream().findFirst().orElse(null);
+            boolean byRelevance = order != null && "relevance".equals(order.getProperty()) && !queryTerms.isEmpty();
+            
+            int limit = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+            Comparator<Hit> comparator = comparator(order, byRelevance);
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, limit + 1), comparator.reversed());
+            long total = collect(criteria, queryTerms, byRelevance, post -> true, top, limit);
+            
+            List<Hit> ordered = new ArrayList<>(top);
+            ordered.sort(comparator);
+            int from = (int) Math.min(pageable.getOffset(), ordered.size());
+            List<Long> ids = ordered.subList(from, ordered.size()).stream()
+                .map(hit -> hit.post().id())
+                .toList();
+            return new PageImpl<>(ids, pageable, total);
+        }
+        
+        List<Long> searchAfter(PostSearchCriteria criteria, PostCursor.SortKey sortKey, PostCursor after, int limit) {
+            Comparator<Hit> comparator = keysetComparator(sortKey);
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, limit + 1), comparator.reversed());
+            collect(criteria, queryTerms(criteria), false, post -> isAfter(post, sortKey, after), top, limit);
+            
+            List<Hit> ordered = new ArrayList<>(top);
+            ordered.sort(comparator);
+            return ordered.stream()
+                .map(hit -> hit.post().id())
+                .toList();
+        }
+        
+        /**
+         * Offers every post matching the criteria and {@code accept} to {@code top},
+         * keeping at most {@code limit} hits.
+         * 
+         * @return the number of matching posts
+         */
+        private long collect(
+            PostSearchCriteria criteria,
+            List<String> queryTerms,
+            boolean byRelevance,
+            Predicate<IndexedPost> accept,
+            PriorityQueue<Hit> top,
+            int limit
+        ) {
+            long total = 0;
+            if (queryTerms.isEmpty()) {
+                for (IndexedPost post : documents.values()) {
+                    if (matchesFilters(post, criteria) && accept.test(post)) {
+                        total++;
+                        offer(top, new Hit(post, 0), limit);
+                    }
+                }
+                return total;
+            }
+            
+            List<TermMatch> matches = lookupAll(queryTerms);
+            if (matches == null) {
+                return 0;
+            }
+            int[] candidates = intersectAll(matches);
+            int documentCount = documents.size();
+            for (int docId : candidates) {
+                IndexedPost post = documents.get((long) docId);
+                if (post == null || !matchesFilters(post, criteria) || !accept.test(post)) {
+                    continue;
+                }
+                total++;
+                double score = byRelevance ? score(docId, matches, documentCount) : 0;
+                offer(top, new Hit(post, score), limit);
+            }
+            return total;
+        }
+        
+        private static List<String> queryTerms(PostSearchCriteria criteria) {
+            return criteria.hasQuery()
+                ? List.copyOf(SearchTextAnalyzer.terms(criteria.query()))
+                : List.of();
+        }
+        
+        int[] matchingDocIds(List<String> queryTerms) {
+            List<TermMatch> matches = lookupAll(queryTerms);
+            return matches == null ? new int[0] : intersectAll(matches);
+        }
+        
+        /**
+         * @return the matches of every term, or null as soon as one term matches nothing
+         */
+        private List<TermMatch> lookupAll(List<String> queryTerms) {
+            List<TermMatch> matches = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                TermMatch match = lookup(term);
+                if (match.docIds().length == 0) {
+                    return null;
+                }
+                matches.add(match);
+            }
+            return matches;
+        }
+        
+        private int termId(String term) {
+            Integer existing = termIds.get(term);
+            if (existing != null) {
+                return existing;
+            }
+            int termId = postings.size();
+            termIds.put(term, termId);
+            postings.add(new PostingList());
+            titlePostings.add(new PostingList());
+            return termId;
+        }
+        
+        private TermMatch lookup(String term) {
+            if (term.length() < MIN_PREFIX_LENGTH) {
+                Integer termId = termIds.get(term);
+                return termId == null
+                    ? new TermMatch(new int[0], new int[0])
+                    : new TermMatch(postings.get(termId).toArray(), titlePostings.get(termId).toArray());
+            }
+            SortedMap<String, Integer> expansions = termIds.subMap(term, term + Character.MAX_VALUE);
+            List<int[]> docIds = new ArrayList<>(expansions.size());
+            List<int[]> titleDocIds = new ArrayList<>(expansions.size());
+            for (int termId : expansions.values()) {
+                docIds.add(postings.get(termId).toArray());
+                titleDocIds.add(titlePostings.get(termId).toArray());
+            }
+            return new TermMatch(unionAll(docIds), unionAll(titleDocIds));
+        }
+        
+        private static int[] intersectAll(List<TermMatch> matches) {
+            List<int[]> lists = new ArrayList<>(matches.size());
+            matches.forEach(match -> lists.add(match.docIds()));
+            lists.sort(Comparator.comparingInt(list -> list.length));
+            int[] result = lists.get(0);
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = intersect(result, lists.get(i));
+            }
+            return result;
+        }
+        
+        private static int[] intersect(int[] a, int[] b) {
+            int[] result = new int[Math.min(a.length, b.length)];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    result[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, n);
+        }
+        
+        /**
+         * Sorted, distinct union of ascending id lists. Concatenates and sorts once,
+         * so a prefix with many expansions costs O(n log n) rather than a merge per term.
+         */
+        private static int[] unionAll(List<int[]> lists) {
+            if (lists.isEmpty()) {
+                return new int[0];
+            }
+            if (lists.size() == 1) {
+                return lists.get(0);
+            }
+            int length = 0;
+            for (int[] list : lists) {
+                length += list.length;
+            }
+            int[] all = new int[length];
+            int n = 0;
+            for (int[] list : lists) {
+                System.arraycopy(list, 0, all, n, list.length);
+                n += list.length;
+            }
+            Arrays.sort(all);
+            int distinct = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (distinct == 0 || all[i] != all[distinct - 1]) {
+                    all[distinct++] = all[i];
+                }
+            }
+            return Arrays.copyOf(all, distinct);
+        }
+        
+        /**
+         * Sum of per-term inverse document frequencies, doubled for title matches.
+         */
+        private static double score(int docId, List<TermMatch> matches, int documentCount) {
+            double score = 0;
+            for (TermMatch match : matches) {
+                double idf = Math.log(1 + (double) documentCount / match.docIds().length);
+                boolean inTitle = Arrays.binarySearch(match.titleDocIds(), docId) >= 0;
+                score += inTitle ? idf * TITLE_BOOST : idf;
+            }
+            return score;
+        }
+        
+        private static boolean matchesFilters(IndexedPost post, PostSearchCriteria criteria) {
+            if (criteria.categoryIds() != null && !criteria.categoryIds().contains(post.categoryId())) {
+                return false;
+            }
+            if (criteria.cityIds() != null && !criteria.cityIds().contains(post.cityId())) {
+                return false;
+            }
+            if (criteria.regionId() != null && !criteria.regionId().equals(post.regionId())) {
+                return false;
+            }
+            if (criteria.type() != null && criteria.type() != post.type()) {
+                return false;
+            }
+            if (criteria.condition() != null && criteria.condition() != post.condition()) {
+                return false;
+            }
+            return criteria.matchesPrice(post.price(), post.priceMin(), post.priceMax());
+        }
+        
+        private static void offer(PriorityQueue<Hit> top, Hit hit, int limit) {
+            if (limit == 0) {
+                return;
+            }
+            top.offer(hit);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        
+        /**
+         * Whether a post lies strictly after the cursor in the keyset order.
+         * Posts without a value for the sort key have no position and never match.
+         */
+        private static boolean isAfter(IndexedPost post, PostCursor.SortKey sortKey, PostCursor after) {
+            Comparable<?> value = sortKey.isPriceOrder() ? post.price() : post.createdAt();
+            if (value == null) {
+                return false;
+            }
+            if (after == null) {
+                return true;
+            }
+            int cmp = sortKey.isPriceOrder()
+                ? post.price().compareTo(after.price())
+                : post.createdAt().compareTo(after.createdAt());
+            if (cmp == 0) {
+                cmp = Long.compare(post.id(), after.id());
+            }
+            return sortKey.isAscending() ? cmp > 0 : cmp < 0;
+        }
+        
+        private static Comparator<Hit> keysetComparator(PostCursor.SortKey sortKey) {
+            Comparator<Hit> ascending = sortKey.isPriceOrder()
+                ? Comparator.comparing((Hit hit) -> hit.post().price())
+                : Comparator.comparing((Hit hit) -> hit.post().createdAt());
+            ascending = ascending.thenComparingLong(hit -> hit.post().id());
+            return sortKey.isAscending() ? ascending : ascending.reversed();
+        }
+        
+        private static Comparator<Hit> comparator(Sort.Order order, boolean byRelevance) {
+            Comparator<Hit> newest = Comparator.comparing((Hit hit) -> hit.post().createdAt(), Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(hit -> hit.post().id(), Comparator.reverseOrder());
+            if (byRelevance) {
+                return Comparator.comparingDouble(Hit::score).reversed().thenComparing(newest);
+            }
+            if (order == null) {
+                return newest;
+            }
+            Comparator<Hit> primary = switch (order.getProperty()) {
+                case "createdAt" -> Comparator.comparing((Hit hit) -> hit.post().createdAt(),
+                    Comparator.nullsLast(order.isAscending() ? Comparator.<LocalDateTime>naturalOrder() : Comparator.<LocalDateTime>reverseOrder()));
+                case "price" -> Comparator.comparing((Hit hit) -> hit.post().price(),
+                    Comparator.nullsLast(order.isAscending() ? Comparator.<BigDecimal>naturalOrder() : Comparator.<BigDecimal>reverseOrder()));
+                case "title" -> Comparator.comparing((Hit hit) -> hit.post().title(),
+                    Comparator.nullsLast(order.isAscending() ? String.CASE_INSENSITIVE_ORDER : Collections.reverseOrder(String.CASE_INSENSITIVE_ORDER)));
+                default -> null;
+            };
+            return primary == null ? newest : primary.thenComparing(newest);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.PostRepository;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Keeps the in-memory post read models ({@link PostSearchIndex},
+ * {@link PostFilterIndex}, {@link PostSuggestIndex}, {@link PostSimilarityIndex})
+ * in sync with the database: a full rebuild once the application is ready,
+ * then incremental updates from committed
+ * {@link PostChangedEvent}s, applied before result caches are invalidated.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostSearchIndexer {
+    
+    private final PostRepository postRepository;
+    private final PostSearchIndex postSearchIndex;
+    private final PostFilterIndex postFilterIndex;
+    private final PostSuggestIndex postSuggestIndex;
+    private final PostSimilarityIndex postSimilarityIndex;
+    
+    @Value("${search.index.enabled:true}")
+    private boolean enabled;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildOnStartup() {
+        if (!enabled) {
+            log.info("Post search index disabled; searches and facets use MySQL");
+            return;
+        }
+        rebuild();
+    }
+    
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        PostReadModel.rebuildAll(postRepository::streamActiveSnapshots, readModels());
+        log.info("Post search index rebuild took {} ms", System.currentTimeMillis() - start);
+    }
+    
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onPostChanged(PostChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (PostReadModel<?> readModel : readModels()) {
+            if (event.isListed()) {
+                readModel.index(event.snapshot());
+            } else {
+                readModel.remove(event.postId());
+            }
+        }
+    }
+    
+    private List<PostReadModel<?>> readModels() {
+        return List.of(postSearchIndex, postFilterIndex, postSuggestIndex, postSimilarityIndex);
+    }
+}
@@ -0,0 +1,350 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory "more like this" index over ACTIVE posts.
+ * 
+ * <p>Each post's title and description terms ({@link SearchTextAnalyzer}) are
+ * reduced to a MinHash signature of {@value #HASHES} 16-bit values; the share
+ * of equal values estimates the Jaccard similarity of two term sets. The
+ * signature is split into {@value #BANDS} bands of two values
+ * (locality-sensitive hashing): posts sharing any band land in a common
+ * bucket and become candidates, so a lookup scores a few hundred candidates
+ * instead of every post. Posts with a Jaccard similarity of 0.3 share a band
+ * with a probability of about 0.8. Scores are boosted when a candidate is in
+ * the same category or city.</p>
+ * 
+ * <p>A bucket only keeps its {@value #MAX_BUCKET_CANDIDATES} newest posts,
+ * the only ones a lookup takes, so lookups and memory stay bounded however
+ * common a band is. An older post pushed out does not come back when a newer
+ * one is removed; the next rebuild restores it.</p>
+ * 
+ * <p>The index is not {@link #isReady() ready} until the first full
+ * rebuild finishes.</p>
+ */
+@Component
+public class PostSimilarityIndex extends PostReadModel<PostSimilarityIndex.Segment> {
+    
+    static final int HASHES = 32;
+    static final int BANDS = 16;
+    private static final int ROWS = HASHES / BANDS;
+    
+    /**
+     * Buckets per band, as a power of two. Bands are hashed into a fixed
+     * number of buckets so memory does not grow with the number of distinct
+     * bands; the unrelated posts that share a bucket are scored out.
+     */
+    private static final int BUCKET_BITS = 14;
+    
+    /**
+     * Newest posts kept in each bucket, so common bands cannot blow up a lookup.
+     */
+    private static final int MAX_BUCKET_CANDIDATES = 64;
+    
+    /**
+     * Candidates whose signatures are compared per lookup.
+     */
+    private static final int MAX_SCORED_CANDIDATES = 128;
+    private static final double CATEGORY_BOOST = 0.3;
+    private static final double CITY_BOOST = 0.1;
+    
+    private static final long[] SEEDS = new long[HASHES];
+    
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < HASHES; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+    
+    @Override
+    protected Segment newSegment() {
+        return new Segment();
+    }
+    
+    /**
+     * Ids of up to {@code limit} posts most similar to the given one, best
+     * first; empty when the post is not indexed or has no searchable terms.
+     */
+    public List<Long> similar(Long postId, int limit) {
+        return read(segment -> segment.similar(postId, limit));
+    }
+    
+    /**
+     * MinHash signature of a term set: per hash function, the low 16 bits of
+     * the smallest hash of any term.
+     */
+    static short[] signature(Set<String> terms) {
+        long[] min = new long[HASHES];
+        Arrays.fill(min, Long.MAX_VALUE);
+        for (String term : terms) {
+            long base = term.hashCode();
+            for (int i = 0; i < HASHES; i++) {
+                long hash = mix(base ^ SEEDS[i]);
+                if (hash < min[i]) {
+                    min[i] = hash;
+                }
+            }
+        }
+        short[] signature = new short[HASHES];
+        for (int i = 0; i < HASHES; i++) {
+            signature[i] = (short) min[i];
+        }
+        return signature;
+    }
+    
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+    
+    static final class Segment implements PostReadModel.Segment {
+        
+        private final Map<Long, IndexedPost> documents = new HashMap<>();
+        private final Bucket[] buckets = new Bucket[BANDS << BUCKET_BITS];
+        
+        @Override
+        public void put(PostSnapshot snapshot) {
+            remove(snapshot.id());
+            
+            Set<String> terms = SearchTextAnalyzer.terms(snapshot.title(), snapshot.description());
+            if (terms.isEmpty()) {
+                return;
+            }
+            IndexedPost post = new IndexedPost(signature(terms), snapshot.categoryId(), snapshot.cityId());
+            documents.put(snapshot.id(), post);
+            int docId = Math.toIntExact(snapshot.id());
+            for (int band = 0; band < BANDS; band++) {
+                int bucket = bucket(post.signature(), band);
+                if (buckets[bucket] == null) {
+                    buckets[bucket] = new Bucket();
+                }
+                buckets[bucket].add(docId);
+            }
+        }
+        
+        @Override
+        public void remove(Long postId) {
+            IndexedPost existing = documents.remove(postId);
+            if (existing == null) {
+                return;
+            }
+            int docId = Math.toIntExact(postId);
+            for (int band = 0; band < BANDS; band++) {
+                int bucket = bucket(existing.signature(), band);
+                if (buckets[bucket] != null && buckets[bucket].remove(docId) && buckets[bucket].isEmpty()) {
+                    buckets[bucket] = null;
+                }
+            }
+        }
+        
+        @Override
+        public int size() {
+            return documents.size();
+        }
+        
+        @Override
+        public void trim() {
+            for (Bucket bucket : buckets) {
+                if (bucket != null) {
+                    bucket.trim();
+                }
+            }
+        }
+        
+        List<Long> similar(Long postId, int limit) {
+            IndexedPost post = documents.get(postId);
+            if (post == null || limit <= 0) {
+                return List.of();
+            }
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Hit.ORDER);
+            for (int docId : candidates(post, Math.toIntExact(postId))) {
+                Hit hit = new Hit(docId, score(post, documents.get((long) docId)));
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (Hit.ORDER.compare(hit, top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+            List<Hit> ordered = new ArrayList<>(top);
+            ordered.sort(Hit.ORDER.reversed());
+            return ordered.stream()
+                .map(hit -> (long) hit.docId())
+                .toList();
+        }
+        
+        /**
+         * Doc ids sharing a bucket with the post, other than {@code self}: the
+         * {@value #MAX_SCORED_CANDIDATES} sharing the most bands, newest first
+         * among equals. Posts sharing a single band are mostly unrelated ones
+         * hashed into the same bucket, and scoring looks each one up, so
+         * candidates are narrowed by this cheap count first.
+         */
+        private int[] candidates(IndexedPost post, int self) {
+            int[] all = new int[BANDS * MAX_BUCKET_CANDIDATES];
+            int size = 0;
+            for (int band = 0; band < BANDS; band++) {
+                Bucket bucket = buckets[bucket(post.signature(), band)];
+                if (bucket != null) {
+                    System.arraycopy(bucket.docIds, 0, all, size, bucket.size);
+                    size += bucket.size;
+                }
+            }
+            Arrays.sort(all, 0, size);
+            
+            // Distinct ids (ascending, so oldest first) and their number of shared bands
+            int[] docIds = new int[size];
+            int[] shared = new int[size];
+            int distinct = 0;
+            int[] histogram = new int[BANDS + 1];
+            for (int i = 0; i < size; i++) {
+                if (all[i] == self) {
+                    continue;
+                }
+                if (distinct > 0 && docIds[distinct - 1] == all[i]) {
+                    histogram[shared[distinct - 1]]--;
+                    histogram[++shared[distinct - 1]]++;
+                } else {
+                    docIds[distinct] = all[i];
+                    shared[distinct] = 1;
+                    histogram[1]++;
+                    distinct++;
+                }
+            }
+            if (distinct <= MAX_SCORED_CANDIDATES) {
+                return Arrays.copyOf(docIds, distinct);
+            }
+            
+            // Lowest band count that still fits, taking all above it
+            int threshold = BANDS;
+            int above = 0;
+            while (threshold > 1 && above + histogram[threshold] < MAX_SCORED_CANDIDATES) {
+                above += histogram[threshold--];
+            }
+            int[] selected = new int[MAX_SCORED_CANDIDATES];
+            int count = 0;
+            int atThreshold = MAX_SCORED_CANDIDATES - above;
+            for (int i = distinct - 1; i >= 0 && count < MAX_SCORED_CANDIDATES; i--) {
+                if (shared[i] > threshold || (shared[i] == threshold && atThreshold-- > 0)) {
+                    selected[count++] = docIds[i];
+                }
+            }
+            return Arrays.copyOf(selected, count);
+        }
+        
+        private static double score(IndexedPost post, IndexedPost candidate) {
+            int equal = 0;
+            for (int i = 0; i < HASHES; i++) {
+                if (post.signature()[i] == candidate.signature()[i]) {
+                    equal++;
+                }
+            }
+            double score = (double) equal / HASHES;
+            if (Objects.equals(post.categoryId(), candidate.categoryId())) {
+                score *= 1 + CATEGORY_BOOST;
+            }
+            if (Objects.equals(post.cityId(), candidate.cityId())) {
+                score *= 1 + CITY_BOOST;
+            }
+            return score;
+        }
+        
+        /**
+         * Bucket of one band of a signature: the band number and a hash of its rows.
+         */
+        private static int bucket(short[] signature, int band) {
+            long hash = band;
+            for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+                hash = (hash << 16) | (signature[i] & 0xFFFF);
+            }
+            return (band << BUCKET_BITS) | (int) (mix(hash) & ((1 << BUCKET_BITS) - 1));
+        }
+    }
+    
+    /**
+     * The newest doc ids of a bucket, ascending: adding beyond
+     * {@value #MAX_BUCKET_CANDIDATES} drops the oldest.
+     */
+    private static final class Bucket {
+        
+        private int[] docIds = new int[4];
+        private int size;
+        
+        void add(int docId) {
+            if (size == MAX_BUCKET_CANDIDATES && docId < docIds[0]) {
+                return;
+            }
+            int position = Arrays.binarySearch(docIds, 0, size, docId);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == MAX_BUCKET_CANDIDATES) {
+                // Full: shift the older ids down over the oldest
+                System.arraycopy(docIds, 1, docIds, 0, insertAt - 1);
+                docIds[insertAt - 1] = docId;
+                return;
+            }
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, Math.min(size * 2, MAX_BUCKET_CANDIDATES));
+            }
+            System.arraycopy(docIds, insertAt, docIds, insertAt + 1, size - insertAt);
+            docIds[insertAt] = docId;
+            size++;
+        }
+        
+        /**
+         * @return true if the id was present
+         */
+        boolean remove(int docId) {
+            int position = Arrays.binarySearch(docIds, 0, size, docId);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(docIds, position + 1, docIds, position, size - position - 1);
+            size--;
+            return true;
+        }
+        
+        boolean isEmpty() {
+            return size == 0;
+        }
+        
+        void trim() {
+            if (docIds.length > size) {
+                docIds = Arrays.copyOf(docIds, Math.max(size, 1));
+            }
+        }
+    }
+    
+    private record IndexedPost(short[] signature, Long categoryId, Long cityId) {
+    }
+    
+    private record Hit(int docId, double score) {
+        
+        /**
+         * Ascending by score; on a tie the newer post (higher id) ranks higher.
+         */
+        static final Comparator<Hit> ORDER = (a, b) -> a.score != b.score
+            ? Double.compare(a.score, b.score)
+            : Integer.compare(a.docId, b.docId);
+    }
+}
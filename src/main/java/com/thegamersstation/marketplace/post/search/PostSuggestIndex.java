@@ -0,0 +1,401 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory prefix index for search-box autocompletion over ACTIVE posts.
+ * 
+ * <p>Three vocabularies are kept in sorted maps keyed by normalized text
+ * ({@link SearchTextAnalyzer}), so a prefix lookup is a range scan:
+ * - title terms, weighted by the number of posts whose title contains them
+ * - category names (English and Arabic), weighted by their number of posts
+ * - city names (English and Arabic), weighted by their number of posts</p>
+ * 
+ * <p>Names are also indexed from each of their words, so "games" finds
+ * "Video Games". Counts follow every post change; entries whose count drops
+ * to zero are removed.</p>
+ * 
+ * <p>Short prefixes match a large part of the title vocabulary, so the ranked
+ * terms of any prefix that needed a long scan are kept, with some spare
+ * terms, and updated in place when a term starting with the prefix changes
+ * count. A ranking is only dropped when a change could let a term it left
+ * out into the top {@link #MAX_SUGGESTIONS}.</p>
+ */
+@Component
+public class PostSuggestIndex extends PostReadModel<PostSuggestIndex.Segment> {
+    
+    public static final int MAX_SUGGESTIONS = 20;
+    
+    /**
+     * Prefixes matching more terms than this have their ranking cached.
+     */
+    private static final int CACHED_SCAN_LENGTH = 256;
+    
+    /**
+     * Terms kept in a cached ranking; the spares absorb count changes.
+     */
+    private static final int CACHED_RANKING_LENGTH = 2 * MAX_SUGGESTIONS;
+    
+    @Override
+    protected Segment newSegment() {
+        return new Segment();
+    }
+    
+    /**
+     * Up to {@code limit} suggestions of each kind for a partially typed query;
+     * the last word of the query is the prefix being completed.
+     */
+    public Suggestions suggest(String query, int limit) {
+        String normalized = SearchTextAnalyzer.normalize(query).trim();
+        if (normalized.isEmpty() || limit <= 0) {
+            return Suggestions.EMPTY;
+        }
+        int size = Math.min(limit, MAX_SUGGESTIONS);
+        int split = normalized.lastIndexOf(' ');
+        String head = String.join(" ", SearchTextAnalyzer.tokenize(normalized.substring(0, split + 1)));
+        List<String> lastWords = SearchTextAnalyzer.prefixVariants(normalized.substring(split + 1));
+        List<String> namePrefixes = lastWords.stream()
+            .map(word -> head.isEmpty() ? word : head + " " + word)
+            .toList();
+        return read(segment -> new Suggestions(
+            segment.terms(lastWords, size),
+            segment.categories.matching(namePrefixes, size),
+            segment.cities.matching(namePrefixes, size)
+        ));
+    }
+    
+    /**
+     * Suggestions for a query, each list ordered by count, most posts first.
+     */
+    public record Suggestions(List<Term> terms, List<Name> categories, List<Name> cities) {
+        
+        static final Suggestions EMPTY = new Suggestions(List.of(), List.of(), List.of());
+    }
+    
+    /**
+     * A title word as first seen in a post, and the number of posts whose title has it.
+     */
+    public record Term(String text, int count) {
+    }
+    
+    /**
+     * A category or city and the number of ACTIVE posts in it.
+     */
+    public record Name(Long id, String nameEn, String nameAr, int count) {
+    }
+    
+    static final class Segment implements PostReadModel.Segment {
+        
+        private final TreeMap<String, TermStats> terms = new TreeMap<>();
+        private final Names categories = new Names();
+        private final Names cities = new Names();
+        private final Map<Long, IndexedPost> posts = new HashMap<>();
+        /*
+         * Filled by readers under the read lock and cleared by writers under the
+         * write lock, so entries are never computed from a changing vocabulary.
+         */
+        private final Map<String, Ranking> rankedByPrefix = new ConcurrentHashMap<>();
+        
+        @Override
+        public void put(PostSnapshot snapshot) {
+            remove(snapshot.id());
+            
+            Map<String, String> titleTerms = SearchTextAnalyzer.surfaceForms(snapshot.title());
+            titleTerms.forEach((term, surface) -> {
+                TermStats stats = terms.computeIfAbsent(term, t -> new TermStats(surface));
+                stats.count++;
+                updateRankings(term, stats.surface, stats.count);
+            });
+            categories.add(snapshot.categoryId(), snapshot.categoryNameEn(), snapshot.categoryNameAr());
+            cities.add(snapshot.cityId(), snapshot.cityNameEn(), snapshot.cityNameAr());
+            posts.put(snapshot.id(), new IndexedPost(
+                titleTerms.keySet().toArray(String[]::new),
+                snapshot.categoryId(),
+                snapshot.cityId()
+            ));
+        }
+        
+        @Override
+        public void remove(Long postId) {
+            IndexedPost existing = posts.remove(postId);
+            if (existing == null) {
+                return;
+            }
+            for (String term : existing.titleTerms()) {
+                TermStats stats = terms.get(term);
+                if (stats == null) {
+                    continue;
+                }
+                if (--stats.count == 0) {
+                    terms.remove(term);
+                }
+                updateRankings(term, stats.surface, stats.count);
+            }
+            categories.remove(existing.categoryId());
+            cities.remove(existing.cityId());
+        }
+        
+        @Override
+        public int size() {
+            return posts.size();
+        }
+        
+        List<Term> terms(List<String> prefixes, int limit) {
+            List<RankedTerm> ranked = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (String prefix : prefixes) {
+                Ranking cached = rankedByPrefix.get(prefix);
+                for (RankedTerm term : cached != null ? cached.top() : rank(prefix)) {
+                    if (seen.add(term.key())) {
+                        ranked.add(term);
+                    }
+                }
+            }
+            ranked.sort(RankedTerm.ORDER);
+            return ranked.stream()
+                .limit(limit)
+                .map(term -> new Term(term.surface(), term.count()))
+                .toList();
+        }
+        
+        /**
+         * The {@link #MAX_SUGGESTIONS} most frequent terms starting with a prefix.
+         */
+        private List<RankedTerm> rank(String prefix) {
+            PriorityQueue<RankedTerm> top = new PriorityQueue<>(CACHED_RANKING_LENGTH + 1, RankedTerm.ORDER.reversed());
+            int scanned = 0;
+            int leftOut = 0;
+            for (Map.Entry<String, TermStats> entry : terms.subMap(prefix, prefix + Character.MAX_VALUE).entrySet()) {
+                top.add(new RankedTerm(entry.getKey(), entry.getValue().surface, entry.getValue().count));
+                if (top.size() > CACHED_RANKING_LENGTH) {
+                    leftOut = Math.max(leftOut, top.poll().count());
+                }
+                scanned++;
+            }
+            List<RankedTerm> ranked = new ArrayList<>(top);
+            ranked.sort(RankedTerm.ORDER);
+            if (scanned > CACHED_SCAN_LENGTH) {
+                Ranking ranking = new Ranking(ranked, leftOut);
+                rankedByPrefix.put(prefix, ranking);
+                return ranking.top();
+            }
+            return ranked.subList(0, Math.min(MAX_SUGGESTIONS, ranked.size()));
+        }
+        
+        /**
+         * Applies a term's new count to the cached rankings of its prefixes,
+         * dropping those that can no longer tell their top terms.
+         */
+        private void updateRankings(String term, String surface, int count) {
+            if (rankedByPrefix.isEmpty()) {
+                return;
+            }
+            for (int end = 1; end <= term.length(); end++) {
+                String prefix = term.substring(0, end);
+                Ranking ranking = rankedByPrefix.get(prefix);
+                if (ranking != null && !ranking.update(term, surface, count)) {
+                    rankedByPrefix.remove(prefix);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Categories or cities by id, with an index of their name keys.
+     */
+    private static final class Names {
+        
+        private final TreeMap<String, Set<Long>> idsByKey = new TreeMap<>();
+        private final Map<Long, NameStats> byId = new HashMap<>();
+        
+        void add(Long id, String nameEn, String nameAr) {
+            if (id == null) {
+                return;
+            }
+            NameStats stats = byId.get(id);
+            if (stats != null && !(Objects.equals(stats.nameEn, nameEn) && Objects.equals(stats.nameAr, nameAr))) {
+                // Renamed: the latest post carries the current names
+                unlink(id, stats);
+                stats.rename(nameEn, nameAr);
+                link(id, stats);
+            } else if (stats == null) {
+                stats = new NameStats(nameEn, nameAr);
+                byId.put(id, stats);
+                link(id, stats);
+            }
+            stats.count++;
+        }
+        
+        void remove(Long id) {
+            NameStats stats = id != null ? byId.get(id) : null;
+            if (stats != null && --stats.count == 0) {
+                unlink(id, stats);
+                byId.remove(id);
+            }
+        }
+        
+        List<Name> matching(List<String> prefixes, int limit) {
+            Set<Long> ids = new HashSet<>();
+            forEachWithPrefix(idsByKey, prefixes, (key, keyIds) -> ids.addAll(keyIds));
+            return ids.stream()
+                .map(id -> {
+                    NameStats stats = byId.get(id);
+                    return new Name(id, stats.nameEn, stats.nameAr, stats.count);
+                })
+                .sorted(Comparator.comparingInt(Name::count).reversed().thenComparing(Name::id))
+                .limit(limit)
+                .toList();
+        }
+        
+        private void link(Long id, NameStats stats) {
+            for (String key : stats.keys) {
+                idsByKey.computeIfAbsent(key, k -> new HashSet<>(2)).add(id);
+            }
+        }
+        
+        private void unlink(Long id, NameStats stats) {
+            for (String key : stats.keys) {
+                Set<Long> ids = idsByKey.get(key);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    idsByKey.remove(key);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Calls {@code action} for every entry whose key starts with one of the
+     * prefixes, once per entry.
+     */
+    private static <V> void forEachWithPrefix(TreeMap<String, V> map, List<String> prefixes, BiConsumer<String, V> action) {
+        Set<String> seen = prefixes.size() > 1 ? new HashSet<>() : null;
+        for (String prefix : prefixes) {
+            SortedMap<String, V> range = map.subMap(prefix, prefix + Character.MAX_VALUE);
+            for (Map.Entry<String, V> entry : range.entrySet()) {
+                if (seen == null || seen.add(entry.getKey())) {
+                    action.accept(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Cached ranking of a prefix: its most frequent terms, in order, and the
+     * highest count any term left out of it can have. Only changed by writers.
+     */
+    private static final class Ranking {
+        
+        private final List<RankedTerm> terms;
+        private int leftOutCount;
+        
+        Ranking(List<RankedTerm> terms, int leftOutCount) {
+            this.terms = terms;
+            this.leftOutCount = leftOutCount;
+        }
+        
+        List<RankedTerm> top() {
+            return terms.subList(0, Math.min(MAX_SUGGESTIONS, terms.size()));
+        }
+        
+        /**
+         * Records a term's new count, zero once no post has it.
+         * 
+         * @return whether the top terms are still exactly known
+         */
+        boolean update(String key, String surface, int count) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                terms.remove(index);
+            }
+            // A term left out is only brought in once it beats every other term left out
+            if (count > 0 && (index >= 0 || count > leftOutCount)) {
+                RankedTerm term = new RankedTerm(key, surface, count);
+                int position = Collections.binarySearch(terms, term, RankedTerm.ORDER);
+                terms.add(position < 0 ? -position - 1 : position, term);
+            }
+            if (terms.size() > CACHED_RANKING_LENGTH) {
+                leftOutCount = Math.max(leftOutCount, terms.remove(terms.size() - 1).count());
+            }
+            if (terms.size() < MAX_SUGGESTIONS) {
+                return leftOutCount == 0;
+            }
+            // A term left out with the same count may sort before the last one shown
+            return terms.get(MAX_SUGGESTIONS - 1).count() > leftOutCount;
+        }
+        
+        private int indexOf(String key) {
+            for (int i = 0; i < terms.size(); i++) {
+                if (terms.get(i).key().equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+    
+    private static final class TermStats {
+        
+        private final String surface;
+        private int count;
+        
+        TermStats(String surface) {
+            this.surface = surface;
+        }
+    }
+    
+    private static final class NameStats {
+        
+        private String nameEn;
+        private String nameAr;
+        private Set<String> keys;
+        private int count;
+        
+        NameStats(String nameEn, String nameAr) {
+            rename(nameEn, nameAr);
+        }
+        
+        void rename(String nameEn, String nameAr) {
+            this.nameEn = nameEn;
+            this.nameAr = nameAr;
+            this.keys = new LinkedHashSet<>();
+            addKeys(nameEn);
+            addKeys(nameAr);
+        }
+        
+        /**
+         * The normalized name from each of its words on, e.g. "video games" and "games".
+         */
+        private void addKeys(String name) {
+            List<String> tokens = SearchTextAnalyzer.tokenize(name);
+            for (int i = 0; i < tokens.size(); i++) {
+                keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+            }
+        }
+    }
+    
+    private record IndexedPost(String[] titleTerms, Long categoryId, Long cityId) {
+    }
+    
+    private record RankedTerm(String key, String surface, int count) {
+        
+        static final Comparator<RankedTerm> ORDER = Comparator.comparingInt(RankedTerm::count).reversed()
+            .thenComparing(RankedTerm::key);
+    }
+}
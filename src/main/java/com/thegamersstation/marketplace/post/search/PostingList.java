@@ -0,0 +1,124 @@
+package com.thegamersstation.marketplace.post.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of document ids stored as delta-encoded variable-length integers.
+ * 
+ * <p>Appending an id larger than every stored id (the common case, since new
+ * posts get increasing ids) costs a few bytes; inserting or removing anywhere
+ * else re-encodes the list. Not thread-safe; callers synchronize.</p>
+ */
+final class PostingList {
+    
+    private static final int[] EMPTY = new int[0];
+    
+    private byte[] bytes = new byte[8];
+    private int length;
+    private int size;
+    private int last;
+    
+    int size() {
+        return size;
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * @return true if the id was not already present
+     */
+    boolean add(int docId) {
+        if (size == 0 || docId > last) {
+            append(docId);
+            return true;
+        }
+        int[] docIds = toArray();
+        int position = Arrays.binarySearch(docIds, docId);
+        if (position >= 0) {
+            return false;
+        }
+        int insertAt = -position - 1;
+        int[] updated = new int[docIds.length + 1];
+        System.arraycopy(docIds, 0, updated, 0, insertAt);
+        updated[insertAt] = docId;
+        System.arraycopy(docIds, insertAt, updated, insertAt + 1, docIds.length - insertAt);
+        encode(updated, updated.length);
+        return true;
+    }
+    
+    /**
+     * @return true if the id was present
+     */
+    boolean remove(int docId) {
+        if (size == 0 || docId > last) {
+            return false;
+        }
+        int[] docIds = toArray();
+        int position = Arrays.binarySearch(docIds, docId);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(docIds, position + 1, docIds, position, docIds.length - position - 1);
+        encode(docIds, docIds.length - 1);
+        return true;
+    }
+    
+    /**
+     * Decodes the list into a new ascending array.
+     */
+    int[] toArray() {
+        if (size == 0) {
+            return EMPTY;
+        }
+        int[] docIds = new int[size];
+        int offset = 0;
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += delta;
+            docIds[i] = previous;
+        }
+        return docIds;
+    }
+    
+    /**
+     * Drops unused capacity once a list is fully built.
+     */
+    void trim() {
+        if (bytes.length > length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length, 1));
+        }
+    }
+    
+    private void encode(int[] docIds, int count) {
+        bytes = new byte[Math.max(8, count * 2)];
+        length = 0;
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            append(docIds[i]);
+        }
+    }
+    
+    private void append(int docId) {
+        int delta = size == 0 ? docId : docId - last;
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+        }
+        while ((delta & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        bytes[length++] = (byte) delta;
+        last = docId;
+        size++;
+    }
+}
@@ -0,0 +1,53 @@
+package com.thegamersstation.marketplace.post.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Price ranges offered as a search facet, in SAR. Lower bounds are inclusive,
+ * upper bounds exclusive. Posts without a fixed price fall in no bucket.
+ * 
+ * <p>Mirrored by the CASE expression in {@code PostRepository#countFacetRows};
+ * keep the two in sync.</p>
+ */
+public enum PriceBucket {
+    UNDER_100(BigDecimal.ZERO, new BigDecimal("100")),
+    FROM_100_TO_500(new BigDecimal("100"), new BigDecimal("500")),
+    FROM_500_TO_1000(new BigDecimal("500"), new BigDecimal("1000")),
+    FROM_1000_TO_2500(new BigDecimal("1000"), new BigDecimal("2500")),
+    FROM_2500_TO_5000(new BigDecimal("2500"), new BigDecimal("5000")),
+    OVER_5000(new BigDecimal("5000"), null);
+    
+    private final BigDecimal min;
+    private final BigDecimal max;
+    
+    PriceBucket(BigDecimal min, BigDecimal max) {
+        this.min = min;
+        this.max = max;
+    }
+    
+    public BigDecimal getMin() {
+        return min;
+    }
+    
+    /**
+     * @return the exclusive upper bound, or null for the last bucket
+     */
+    public BigDecimal getMax() {
+        return max;
+    }
+    
+    /**
+     * @return the bucket containing the price, or null when there is no price
+     */
+    public static PriceBucket of(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        for (PriceBucket bucket : values()) {
+            if (bucket.max == null || price.compareTo(bucket.max) < 0) {
+                return bucket;
+            }
+        }
+        return OVER_5000;
+    }
+}
@@ -0,0 +1,326 @@
+package com.thegamersstation.marketplace.post.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+
+/**
+ * Sorted price index over doc ids, kept in primitive arrays.
+ * 
+ * <p>Posts with a fixed price are stored as (cents, docId) pairs ordered by
+ * cents then doc id, so a price range is two binary searches and a price
+ * order is a walk over the arrays. Posts without a fixed price but with a
+ * priceMin/priceMax range (typically ASK posts) are stored as
+ * (low, high, docId) ordered by low; a range filter scans the prefix whose
+ * low is within the bound. See {@link PostSearchCriteria#matchesPrice}.</p>
+ * 
+ * <p>Live updates shift the arrays, which is cheap next to the reads at the
+ * marketplace's size. A bulk load {@link #append appends} unsorted and sorts
+ * once in {@link #trim}. Not thread-safe; callers guard instances with their own lock.</p>
+ */
+final class PriceIndex {
+    
+    private long[] cents = new long[16];
+    private int[] docIds = new int[16];
+    private int size;
+    
+    private long[] rangeLows = new long[16];
+    private long[] rangeHighs = new long[16];
+    private int[] rangeDocIds = new int[16];
+    private int rangeSize;
+    
+    private boolean sorted = true;
+    
+    private static final BigDecimal MIN_CENTS = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE);
+    
+    /**
+     * @return the price in cents, rounded in the given direction when it is
+     *         not on a whole cent and clamped to the long range; null for null
+     */
+    static Long toCents(BigDecimal price, RoundingMode rounding) {
+        if (price == null) {
+            return null;
+        }
+        return price.movePointRight(2).setScale(0, rounding).max(MIN_CENTS).min(MAX_CENTS).longValue();
+    }
+    
+    void add(int docId, BigDecimal price, BigDecimal priceMin, BigDecimal priceMax) {
+        sortIfNeeded();
+        if (price != null) {
+            addPrice(docId, toCents(price, RoundingMode.HALF_UP));
+        } else if (priceMin != null || priceMax != null) {
+            addRange(
+                docId,
+                toCents(priceMin != null ? priceMin : priceMax, RoundingMode.HALF_UP),
+                toCents(priceMax != null ? priceMax : priceMin, RoundingMode.HALF_UP)
+            );
+        }
+    }
+    
+    /**
+     * Adds a post during a bulk load, without keeping the order. The index
+     * must be {@link #trim() trimmed} before it is read.
+     */
+    void append(int docId, BigDecimal price, BigDecimal priceMin, BigDecimal priceMax) {
+        if (price != null) {
+            ensurePriceCapacity();
+            cents[size] = toCents(price, RoundingMode.HALF_UP);
+            docIds[size] = docId;
+            size++;
+            sorted = false;
+        } else if (priceMin != null || priceMax != null) {
+            ensureRangeCapacity();
+            rangeLows[rangeSize] = toCents(priceMin != null ? priceMin : priceMax, RoundingMode.HALF_UP);
+            rangeHighs[rangeSize] = toCents(priceMax != null ? priceMax : priceMin, RoundingMode.HALF_UP);
+            rangeDocIds[rangeSize] = docId;
+            rangeSize++;
+            sorted = false;
+        }
+    }
+    
+    /**
+     * Sorts what was {@link #append appended} and drops spare capacity.
+     */
+    void trim() {
+        sortIfNeeded();
+        cents = Arrays.copyOf(cents, Math.max(size, 1));
+        docIds = Arrays.copyOf(docIds, Math.max(size, 1));
+        rangeLows = Arrays.copyOf(rangeLows, Math.max(rangeSize, 1));
+        rangeHighs = Arrays.copyOf(rangeHighs, Math.max(rangeSize, 1));
+        rangeDocIds = Arrays.copyOf(rangeDocIds, Math.max(rangeSize, 1));
+    }
+    
+    /**
+     * Removes a post, given the prices it was added with.
+     */
+    void remove(int docId, BigDecimal price, BigDecimal priceMin, BigDecimal priceMax) {
+        sortIfNeeded();
+        if (price != null) {
+            int index = search(toCents(price, RoundingMode.HALF_UP), docId, false);
+            if (index < size && docIds[index] == docId) {
+                System.arraycopy(cents, index + 1, cents, index, size - index - 1);
+                System.arraycopy(docIds, index + 1, docIds, index, size - index - 1);
+                size--;
+            }
+        } else if (priceMin != null || priceMax != null) {
+            for (int i = 0; i < rangeSize; i++) {
+                if (rangeDocIds[i] == docId) {
+                    System.arraycopy(rangeLows, i + 1, rangeLows, i, rangeSize - i - 1);
+                    System.arraycopy(rangeHighs, i + 1, rangeHighs, i, rangeSize - i - 1);
+                    System.arraycopy(rangeDocIds, i + 1, rangeDocIds, i, rangeSize - i - 1);
+                    rangeSize--;
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Number of posts with a fixed price.
+     */
+    int pricedCount() {
+        return size;
+    }
+    
+    /**
+     * Posts whose price or price range overlaps [minCents, maxCents]; a null
+     * bound is open.
+     */
+    CompressedBitmap matching(Long minCents, Long maxCents) {
+        long min = minCents != null ? minCents : Long.MIN_VALUE;
+        long max = maxCents != null ? maxCents : Long.MAX_VALUE;
+        // Collected in price order; sorted by doc id, the bitmap is built by appending
+        int from = search(min, Integer.MIN_VALUE, false);
+        int to = search(max, Integer.MAX_VALUE, true);
+        int rangeTo = 0;
+        while (rangeTo < rangeSize && rangeLows[rangeTo] <= max) {
+            rangeTo++;
+        }
+        int[] matching = new int[Math.max(0, to - from) + rangeTo];
+        int n = to > from ? to - from : 0;
+        System.arraycopy(docIds, from, matching, 0, n);
+        for (int i = 0; i < rangeTo; i++) {
+            if (rangeHighs[i] >= min) {
+                matching[n++] = rangeDocIds[i];
+            }
+        }
+        int[] values = Arrays.copyOf(matching, n);
+        Arrays.sort(values);
+        return CompressedBitmap.of(values);
+    }
+    
+    /**
+     * Visits the doc ids of fixed-price posts in price order, ties by doc id in
+     * the same direction, until the visitor returns false.
+     * 
+     * @param afterCents when not null, starts strictly after (afterCents, afterDocId)
+     */
+    void forEachOrdered(boolean ascending, Long afterCents, int afterDocId, IntPredicate visitor) {
+        if (ascending) {
+            int from = afterCents != null ? search(afterCents, afterDocId, true) : 0;
+            for (int i = from; i < size; i++) {
+                if (!visitor.test(docIds[i])) {
+                    return;
+                }
+            }
+        } else {
+            int from = afterCents != null ? search(afterCents, afterDocId, false) - 1 : size - 1;
+            for (int i = from; i >= 0; i--) {
+                if (!visitor.test(docIds[i])) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return the first position whose (cents, docId) is greater than, or when
+     *         not strict greater than or equal to, the given pair
+     */
+    private int search(long value, int docId, boolean strict) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = cents[mid] != value ? Long.compare(cents[mid], value) : Integer.compare(docIds[mid], docId);
+            if (cmp < 0 || (strict && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private void addPrice(int docId, long value) {
+        ensurePriceCapacity();
+        int index = search(value, docId, false);
+        System.arraycopy(cents, index, cents, index + 1, size - index);
+        System.arraycopy(docIds, index, docIds, index + 1, size - index);
+        cents[index] = value;
+        docIds[index] = docId;
+        size++;
+    }
+    
+    private void addRange(int docId, long low, long high) {
+        ensureRangeCapacity();
+        int index = rangeSize;
+        while (index > 0 && rangeLows[index - 1] > low) {
+            index--;
+        }
+        System.arraycopy(rangeLows, index, rangeLows, index + 1, rangeSize - index);
+        System.arraycopy(rangeHighs, index, rangeHighs, index + 1, rangeSize - index);
+        System.arraycopy(rangeDocIds, index, rangeDocIds, index + 1, rangeSize - index);
+        rangeLows[index] = low;
+        rangeHighs[index] = high;
+        rangeDocIds[index] = docId;
+        rangeSize++;
+    }
+    
+    private void ensurePriceCapacity() {
+        if (size == cents.length) {
+            cents = Arrays.copyOf(cents, Math.max(16, size * 2));
+            docIds = Arrays.copyOf(docIds, Math.max(16, size * 2));
+        }
+    }
+    
+    private void ensureRangeCapacity() {
+        if (rangeSize == rangeLows.length) {
+            rangeLows = Arrays.copyOf(rangeLows, Math.max(16, rangeSize * 2));
+            rangeHighs = Arrays.copyOf(rangeHighs, Math.max(16, rangeSize * 2));
+            rangeDocIds = Arrays.copyOf(rangeDocIds, Math.max(16, rangeSize * 2));
+        }
+    }
+    
+    /**
+     * Restores the order after a bulk load: prices by (cents, docId), ranges by low.
+     */
+    private void sortIfNeeded() {
+        if (sorted) {
+            return;
+        }
+        int[] order = sortedOrder(size, (a, b) -> cents[a] != cents[b]
+            ? Long.compare(cents[a], cents[b])
+            : Integer.compare(docIds[a], docIds[b]));
+        cents = permute(cents, order);
+        docIds = permute(docIds, order);
+        
+        int[] rangeOrder = sortedOrder(rangeSize, (a, b) -> rangeLows[a] != rangeLows[b]
+            ? Long.compare(rangeLows[a], rangeLows[b])
+            : Integer.compare(rangeDocIds[a], rangeDocIds[b]));
+        rangeLows = permute(rangeLows, rangeOrder);
+        rangeHighs = permute(rangeHighs, rangeOrder);
+        rangeDocIds = permute(rangeDocIds, rangeOrder);
+        sorted = true;
+    }
+    
+    /**
+     * Positions 0..count-1 ordered by {@code comparator}, sorted with a
+     * quicksort over the primitive array (no boxing).
+     */
+    private static int[] sortedOrder(int count, IntBinaryOperator comparator) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        quicksort(order, 0, count - 1, comparator);
+        return order;
+    }
+    
+    private static void quicksort(int[] order, int low, int high, IntBinaryOperator comparator) {
+        while (high - low > 16) {
+            int pivot = order[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (comparator.applyAsInt(order[i], pivot) < 0) {
+                    i++;
+                }
+                while (comparator.applyAsInt(order[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            // Recurse into the smaller side, loop on the larger one
+            if (j - low < high - i) {
+                quicksort(order, low, j, comparator);
+                low = i;
+            } else {
+                quicksort(order, i, high, comparator);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            int value = order[i];
+            int j = i - 1;
+            while (j >= low && comparator.applyAsInt(order[j], value) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = value;
+        }
+    }
+    
+    private static long[] permute(long[] values, int[] order) {
+        long[] permuted = new long[Math.max(values.length, 1)];
+        for (int i = 0; i < order.length; i++) {
+            permuted[i] = values[order[i]];
+        }
+        return permuted;
+    }
+    
+    private static int[] permute(int[] values, int[] order) {
+        int[] permuted = new int[Math.max(values.length, 1)];
+        for (int i = 0; i < order.length; i++) {
+            permuted[i] = values[order[i]];
+        }
+        return permuted;
+    }
+}
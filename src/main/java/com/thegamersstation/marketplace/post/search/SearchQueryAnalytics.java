@@ -0,0 +1,254 @@
+package com.thegamersstation.marketplace.post.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * What people search for: the most popular and the most frequent
+ * zero-result searches per time window, in bounded memory.
+ * 
+ * <p>The search path only claims a slot in a lock-free ring buffer and stores
+ * the criteria there. A scheduled drain normalizes them (query terms as
+ * analyzed by {@link SearchTextAnalyzer}, canonical filters) and feeds the
+ * current window: a {@link SpaceSaving} summary picks the top candidates and
+ * a {@link CountMinSketch} bounds their counts. If the drain falls a whole
+ * ring behind, the oldest searches are dropped and counted as such.</p>
+ */
+@Component
+public class SearchQueryAnalytics {
+    
+    private static final int RING_SIZE = 8192;
+    private static final int SKETCH_WIDTH = 2048;
+    
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int windowCount;
+    private final int topK;
+    
+    private final AtomicReferenceArray<Recorded> ring = new AtomicReferenceArray<>(RING_SIZE);
+    private final AtomicLong head = new AtomicLong();
+    
+    // Guarded by this
+    private final ArrayDeque<Window> windows = new ArrayDeque<>();
+    private long tail;
+    private long dropped;
+    
+    public SearchQueryAnalytics(
+        @Value("${search.analytics.enabled:true}") boolean enabled,
+        @Value("${search.analytics.window-minutes:60}") long windowMinutes,
+        @Value("${search.analytics.windows:24}") int windowCount,
+        @Value("${search.analytics.top-k:50}") int topK
+    ) {
+        this.enabled = enabled;
+        this.windowMillis = windowMinutes * 60_000;
+        this.windowCount = windowCount;
+        this.topK = topK;
+    }
+    
+    /**
+     * Records a search; called on the request path, so it never blocks.
+     */
+    public void record(PostSearchCriteria criteria, boolean zeroResults) {
+        if (!enabled) {
+            return;
+        }
+        long seq = head.getAndIncrement();
+        ring.set((int) (seq & (RING_SIZE - 1)), new Recorded(seq, criteria, zeroResults));
+    }
+    
+    @Scheduled(fixedDelayString = "${search.analytics.drain-millis:1000}")
+    public synchronized void drain() {
+        long end = head.get();
+        if (end - tail > RING_SIZE) {
+            dropped += end - RING_SIZE - tail;
+            tail = end - RING_SIZE;
+        }
+        Window window = currentWindow(System.currentTimeMillis());
+        while (tail < end) {
+            int index = (int) (tail & (RING_SIZE - 1));
+            Recorded recorded = ring.get(index);
+            if (recorded == null || recorded.seq() < tail) {
+                // Claimed but not written yet; picked up by the next drain
+                break;
+            }
+            if (recorded.seq() == tail) {
+                ring.compareAndSet(index, recorded, null);
+                window.add(SearchKey.of(recorded.criteria()), recorded.zeroResults());
+            } else {
+                // Overwritten by a search one ring later
+                dropped++;
+            }
+            tail++;
+        }
+    }
+    
+    /**
+     * Top searches over the last {@code windowsBack} windows, current one included.
+     */
+    public synchronized Report report(int windowsBack) {
+        drain();
+        List<Window> recent = new ArrayList<>();
+        Iterator<Window> newestFirst = windows.descendingIterator();
+        while (newestFirst.hasNext() && recent.size() < windowsBack) {
+            recent.add(newestFirst.next());
+        }
+        if (recent.isEmpty()) {
+            Instant now = Instant.now();
+            return new Report(now, now, 0, 0, dropped, List.of(), List.of());
+        }
+        return new Report(
+            Instant.ofEpochMilli(recent.get(recent.size() - 1).start),
+            Instant.ofEpochMilli(recent.get(0).start + windowMillis),
+            recent.stream().mapToLong(window -> window.searches).sum(),
+            recent.stream().mapToLong(window -> window.zeroResultSearches).sum(),
+            dropped,
+            top(recent, window -> window.popular),
+            top(recent, window -> window.zeroResults)
+        );
+    }
+    
+    private List<QueryCount> top(List<Window> recent, Function<Window, Summary> summary) {
+        Set<SearchKey> candidates = new LinkedHashSet<>();
+        recent.forEach(window -> candidates.addAll(summary.apply(window).topKeys.keys()));
+        return candidates.stream()
+            .map(key -> new QueryCount(
+                key.query(),
+                key.filters(),
+                recent.stream().mapToLong(window -> summary.apply(window).estimate(key)).sum(),
+                recent.stream().mapToLong(window -> summary.apply(window).topKeys.lowerBound(key)).sum()
+            ))
+            .sorted(Comparator.comparingLong(QueryCount::count).reversed())
+            .limit(topK)
+            .toList();
+    }
+    
+    private Window currentWindow(long now) {
+        long start = now - now % windowMillis;
+        Window last = windows.peekLast();
+        if (last == null || last.start != start) {
+            last = new Window(start, topK * 4);
+            windows.addLast(last);
+            while (windows.size() > windowCount) {
+                windows.removeFirst();
+            }
+        }
+        return last;
+    }
+    
+    /**
+     * Searches in a time range, most frequent first. Each count is an upper
+     * bound and minCount a lower bound; they meet for clearly popular searches,
+     * while a minCount of 0 marks a search that may be rare.
+     */
+    public record Report(
+        Instant from,
+        Instant to,
+        long searches,
+        long zeroResultSearches,
+        long dropped,
+        List<QueryCount> popular,
+        List<QueryCount> zeroResults
+    ) {
+    }
+    
+    public record QueryCount(String query, String filters, long count, long minCount) {
+    }
+    
+    /**
+     * A normalized search: analyzed query terms (empty for filter-only
+     * searches) and the filters in a fixed order, e.g. "category=3 city=1".
+     */
+    private record SearchKey(String query, String filters) {
+        
+        static SearchKey of(PostSearchCriteria criteria) {
+            StringJoiner filters = new StringJoiner(" ");
+            if (criteria.categoryIds() != null) {
+                filters.add("category=" + criteria.categoryIds().stream().sorted()
+                    .map(String::valueOf).collect(Collectors.joining(",")));
+            }
+            if (criteria.cityIds() != null) {
+                filters.add("city=" + criteria.cityIds().stream().sorted()
+                    .map(String::valueOf).collect(Collectors.joining(",")));
+            }
+            if (criteria.regionId() != null) {
+                filters.add("region=" + criteria.regionId());
+            }
+            if (criteria.type() != null) {
+                filters.add("type=" + criteria.type());
+            }
+            if (criteria.condition() != null) {
+                filters.add("condition=" + criteria.condition());
+            }
+            if (criteria.minPrice() != null || criteria.maxPrice() != null) {
+                filters.add("price=" + plain(criteria.minPrice()) + "-" + plain(criteria.maxPrice()));
+            }
+            return new SearchKey(String.join(" ", SearchTextAnalyzer.tokenize(criteria.query())), filters.toString());
+        }
+        
+        private static String plain(BigDecimal price) {
+            return price != null ? price.stripTrailingZeros().toPlainString() : "";
+        }
+    }
+    
+    private record Recorded(long seq, PostSearchCriteria criteria, boolean zeroResults) {
+    }
+    
+    private static final class Summary {
+        
+        private final SpaceSaving<SearchKey> topKeys;
+        private final CountMinSketch counts = new CountMinSketch(SKETCH_WIDTH);
+        
+        Summary(int capacity) {
+            this.topKeys = new SpaceSaving<>(capacity);
+        }
+        
+        void add(SearchKey key) {
+            topKeys.add(key);
+            counts.add(key);
+        }
+        
+        long estimate(SearchKey key) {
+            return Math.min(topKeys.upperBound(key), counts.estimate(key));
+        }
+    }
+    
+    private static final class Window {
+        
+        private final long start;
+        private final Summary popular;
+        private final Summary zeroResults;
+        private long searches;
+        private long zeroResultSearches;
+        
+        Window(long start, int capacity) {
+            this.start = start;
+            this.popular = new Summary(capacity);
+            this.zeroResults = new Summary(capacity);
+        }
+        
+        void add(SearchKey key, boolean zeroResult) {
+            searches++;
+            popular.add(key);
+            if (zeroResult) {
+                zeroResultSearches++;
+                zeroResults.add(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.thegamersstation.marketplace.post.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bilingual (Arabic/English) text analysis for the in-memory search structures.
+ * 
+ * <p>Normalization folds the spelling variants users mix freely when typing Arabic:
+ * - Alef forms (أ إ آ ٱ) become bare alef (ا)
+ * - Alef maksura (ى) becomes yaa (ي), taa marbuta (ة) becomes haa (ه)
+ * - Diacritics (harakat, shadda, superscript alef) and tatweel (ـ) are removed
+ * - Arabic-Indic digits become ASCII digits, Latin text is lowercased</p>
+ * 
+ * <p>Tokens are maximal runs of letters and digits. The Arabic definite article
+ * (ال / وال) is stripped from longer words so "الرياض" and "رياض" match.</p>
+ */
+public final class SearchTextAnalyzer {
+    
+    private static final int MIN_STEM_LENGTH = 2;
+    
+    private static final char ALEF = '\u0627';
+    private static final char YAA = '\u064A';
+    private static final char HAA = '\u0647';
+    private static final char TATWEEL = '\u0640';
+    
+    private static final String ARTICLE = "\u0627\u0644";
+    private static final String WAW_ARTICLE = "\u0648\u0627\u0644";
+    
+    private SearchTextAnalyzer() {
+    }
+    
+    /**
+     * Normalizes text; every character that cannot be part of a token becomes a space.
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isDiacritic(c) || c == TATWEEL) {
+                continue;
+            }
+            normalized.append(fold(c));
+        }
+        return normalized.toString();
+    }
+    
+    /**
+     * Splits text into normalized tokens, in order and with duplicates.
+     */
+    public static List<String> tokenize(String text) {
+        String normalized = normalize(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean tokenChar = i < normalized.length() && normalized.charAt(i) != ' ';
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                String token = stripArticle(normalized.substring(start, i));
+                if (isIndexable(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+    
+    /**
+     * Distinct normalized tokens of all given texts, in first-seen order.
+     */
+    public static Set<String> terms(String... texts) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : texts) {
+            terms.addAll(tokenize(text));
+        }
+        return terms;
+    }
+    
+    /**
+     * Distinct normalized tokens of a text, in first-seen order, each mapped to
+     * the word it was first seen as, without diacritics and tatweel (a form
+     * fit for display, e.g. "ألعاب" for the token "عاب").
+     */
+    public static Map<String, String> surfaceForms(String text) {
+        Map<String, String> forms = new LinkedHashMap<>();
+        if (text == null) {
+            return forms;
+        }
+        StringBuilder surface = new StringBuilder();
+        StringBuilder normalized = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (isDiacritic(c) || c == TATWEEL) {
+                continue;
+            }
+            char folded = fold(c);
+            if (folded != ' ') {
+                surface.append(c);
+                normalized.append(folded);
+            } else if (!normalized.isEmpty()) {
+                String token = stripArticle(normalized.toString());
+                if (isIndexable(token)) {
+                    forms.putIfAbsent(token, surface.toString());
+                }
+                surface.setLength(0);
+                normalized.setLength(0);
+            }
+        }
+        return forms;
+    }
+    
+    /**
+     * Tokens a partially typed, normalized word may be the beginning of: the
+     * word itself and, when it starts with the definite article, the word
+     * without it (tokens are indexed without the article).
+     */
+    static List<String> prefixVariants(String partial) {
+        if (partial.startsWith(WAW_ARTICLE) && partial.length() > WAW_ARTICLE.length()) {
+            return List.of(partial, partial.substring(WAW_ARTICLE.length()));
+        }
+        if (partial.startsWith(ARTICLE) && partial.length() > ARTICLE.length()) {
+            return List.of(partial, partial.substring(ARTICLE.length()));
+        }
+        return List.of(partial);
+    }
+    
+    private static char fold(char c) {
+        switch (c) {
+            case '\u0622', '\u0623', '\u0625', '\u0671':
+                return ALEF;
+            case '\u0649':
+                return YAA;
+            case '\u0629':
+                return HAA;
+            default:
+                break;
+        }
+        if (c >= '\u0660' && c <= '\u0669') {
+            return (char) ('0' + (c - '\u0660'));
+        }
+        if (c >= '\u06F0' && c <= '\u06F9') {
+            return (char) ('0' + (c - '\u06F0'));
+        }
+        if (!Character.isLetterOrDigit(c)) {
+            return ' ';
+        }
+        return Character.toLowerCase(c);
+    }
+    
+    private static boolean isDiacritic(char c) {
+        return (c >= '\u064B' && c <= '\u065F') || c == '\u0670';
+    }
+    
+    private static String stripArticle(String token) {
+        if (token.startsWith(WAW_ARTICLE) && token.length() - WAW_ARTICLE.length() > MIN_STEM_LENGTH) {
+            return token.substring(WAW_ARTICLE.length());
+        }
+        if (token.startsWith(ARTICLE) && token.length() - ARTICLE.length() > MIN_STEM_LENGTH) {
+            return token.substring(ARTICLE.length());
+        }
+        return token;
+    }
+    
+    private static boolean isIndexable(String token) {
+        return token.length() > 1 || Character.isDigit(token.charAt(0));
+    }
+}
@@ -0,0 +1,78 @@
+package com.thegamersstation.marketplace.post.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving summary of the most frequent keys of a stream, in memory
+ * bounded by its capacity whatever the number of distinct keys.
+ * 
+ * <p>When full, a new key replaces the key with the lowest count and starts
+ * from that count, which is recorded as its possible overestimation. Any key
+ * seen more than {@code total / capacity} times is guaranteed to be kept.
+ * Not thread-safe; callers synchronize.</p>
+ */
+final class SpaceSaving<K> {
+    
+    private final int capacity;
+    // Per key: {count, overestimation}
+    private final Map<K, long[]> counts;
+    
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counts = new HashMap<>(capacity * 2);
+    }
+    
+    void add(K key) {
+        long[] count = counts.get(key);
+        if (count != null) {
+            count[0]++;
+        } else if (counts.size() < capacity) {
+            counts.put(key, new long[] {1, 0});
+        } else {
+            long[] min = counts.remove(minKey());
+            counts.put(key, new long[] {min[0] + 1, min[0]});
+        }
+    }
+    
+    /**
+     * Keys currently tracked, in no particular order.
+     */
+    List<K> keys() {
+        return List.copyOf(counts.keySet());
+    }
+    
+    /**
+     * Upper bound of the number of times a key was added: its counter when
+     * tracked, else the lowest counter (0 while not full, as every key is then tracked).
+     */
+    long upperBound(K key) {
+        long[] count = counts.get(key);
+        if (count != null) {
+            return count[0];
+        }
+        return counts.size() < capacity ? 0 : counts.get(minKey())[0];
+    }
+    
+    /**
+     * Lower bound of the number of times a key was added: its counter minus
+     * the overestimation it started with, 0 when not tracked.
+     */
+    long lowerBound(K key) {
+        long[] count = counts.get(key);
+        return count != null ? count[0] - count[1] : 0;
+    }
+    
+    private K minKey() {
+        K minKey = null;
+        long min = Long.MAX_VALUE;
+        for (Map.Entry<K, long[]> entry : counts.entrySet()) {
+            if (entry.getValue()[0] < min) {
+                minKey = entry.getKey();
+                min = entry.getValue()[0];
+            }
+        }
+        return minKey;
+    }
+}
@@ -1,5 +1,6 @@
 package com.thegamersstation.marketplace.region;
 
+import com.thegamersstation.marketplace.common.dto.DataVersion;
 import com.thegamersstation.marketplace.region.dto.RegionDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,12 +26,18 @@ public class RegionController {
     @GetMapping
     @Operation(
         summary = "Get all regions",
-        description = "Returns list of all regions with bilingual names (EN/AR)."
+        description = "Returns list of all regions with bilingual names (EN/AR). " +
+                     "Supports conditional requests via ETag/If-None-Match."
     )
     @ApiResponses({
-        @ApiResponse(responseCode = "200", description = "Regions retrieved successfully")
+        @ApiResponse(responseCode = "200", description = "Regions retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Regions unchanged since the client's copy")
     })
-    public ResponseEntity<List<RegionDto>> getAllRegions() {
+    public ResponseEntity<List<RegionDto>> getAllRegions(WebRequest request) {
+        DataVersion version = regionService.getDataVersion();
+        if (request.checkNotModified(version.eTag("regions"))) {
+            return null;
+        }
         List<RegionDto> regions = regionService.getAllRegions();
         return ResponseEntity.ok(regions);
     }
@@ -1,5 +1,8 @@
 package com.thegamersstation.marketplace.region;
 
+import com.thegamersstation.marketplace.common.dto.DataVersion;
+import com.thegamersstation.marketplace.common.version.ReferenceDataVersion;
+import com.thegamersstation.marketplace.common.version.ReferenceDataVersionRepository;
 import com.thegamersstation.marketplace.region.dto.RegionDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -14,6 +17,7 @@ public class RegionService {
     
     private final RegionRepository regionRepository;
     private final RegionMapper regionMapper;
+    private final ReferenceDataVersionRepository referenceDataVersionRepository;
     
     /**
      * Get all regions
@@ -23,4 +27,12 @@ public class RegionService {
         List<Region> regions = regionRepository.findAll();
         return regionMapper.toDtoList(regions);
     }
+    
+    /**
+     * Get the version of the region table, for HTTP validators
+     * @return Change counter of the table
+     */
+    public DataVersion getDataVersion() {
+        return new DataVersion(referenceDataVersionRepository.findVersion(ReferenceDataVersion.REGIONS));
+    }
 }
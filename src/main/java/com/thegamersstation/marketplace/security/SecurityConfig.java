@@ -1,5 +1,6 @@
 package com.thegamersstation.marketplace.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -35,6 +36,9 @@ public class SecurityConfig {
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authorizeHttpRequests(auth -> auth
+                // Completion of streamed responses, already authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                
                 // Public endpoints - Authentication
                 .requestMatchers(
                     "/auth/otp/request",
@@ -68,6 +72,9 @@ public class SecurityConfig {
                     "/posts/**"
                 ).permitAll()
                 
+                // Public endpoints - Sitemaps for search engines
+                .requestMatchers(HttpMethod.GET, "/sitemaps/**").permitAll()
+                
                 // Admin endpoints - require ADMIN role
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 
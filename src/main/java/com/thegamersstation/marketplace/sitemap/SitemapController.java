@@ -0,0 +1,80 @@
+package com.thegamersstation.marketplace.sitemap;
+
+import com.thegamersstation.marketplace.common.exception.ResourceNotFoundException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/sitemaps")
+@RequiredArgsConstructor
+@Tag(name = "Sitemaps", description = "Sitemap files for search engines")
+public class SitemapController {
+    
+    /*
+     * Tomcat's sendfile request attributes: when supported, the connector
+     * writes the file to the socket itself, without copying it through the JVM.
+     */
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    private final SitemapGenerator sitemapGenerator;
+    
+    @GetMapping("/{file}")
+    @Operation(
+        summary = "Get sitemap file",
+        description = "Returns the sitemap index (sitemap.xml) or one of the gzipped shards it lists. " +
+                     "Supports conditional requests via Last-Modified/If-Modified-Since."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Sitemap file"),
+        @ApiResponse(responseCode = "304", description = "File unchanged since the client's copy"),
+        @ApiResponse(responseCode = "404", description = "No such sitemap file")
+    })
+    public void getSitemap(
+            @Parameter(description = "File name, e.g. sitemap.xml or posts-0-1700000000000.xml.gz")
+            @PathVariable String file,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        Path path = sitemapGenerator.find(file)
+            .orElseThrow(() -> new ResourceNotFoundException("Sitemap file not found: " + file));
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        if (new ServletWebRequest(request, response).checkNotModified(lastModified)) {
+            return;
+        }
+        
+        boolean index = file.equals(SitemapGenerator.INDEX_FILE);
+        long length = Files.size(path);
+        response.setContentType(index ? MediaType.APPLICATION_XML_VALUE : "application/gzip");
+        response.setContentLengthLong(length);
+        // Shard names change whenever their content does; the index does not
+        response.setHeader(HttpHeaders.CACHE_CONTROL, index ? "public, max-age=3600" : "public, max-age=31536000, immutable");
+        
+        if (!index && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+        } else {
+            Files.copy(path, response.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.thegamersstation.marketplace.sitemap;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A page to list in a sitemap: the key that completes its URL (a post id or
+ * a slug) and the day it last changed. Selected by constructor expressions
+ * from the post, store and category repositories.
+ */
+public record SitemapEntry(String key, LocalDate lastModified) {
+    
+    public SitemapEntry(String key, LocalDateTime lastModified) {
+        this(key, lastModified != null ? lastModified.toLocalDate() : null);
+    }
+    
+    public SitemapEntry(String key, Instant lastModified) {
+        this(key, lastModified != null ? lastModified.atOffset(ZoneOffset.UTC).toLocalDate() : null);
+    }
+}
@@ -0,0 +1,311 @@
+package com.thegamersstation.marketplace.sitemap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thegamersstation.marketplace.category.CategoryRepository;
+import com.thegamersstation.marketplace.post.PostRepository;
+import com.thegamersstation.marketplace.store.StoreRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the sitemaps of the site to a directory: gzipped shard files of at
+ * most {@value #SHARD_SIZE} URLs and an index listing them, served by
+ * {@link SitemapController}.
+ * 
+ * <p>Posts are sharded by fixed id ranges, so a post always lands in the same
+ * shard. Each run fingerprints every shard with one grouped query (count, sum
+ * of ids and latest modification of its ACTIVE posts) and regenerates only
+ * the shards whose fingerprint changed, streaming their posts in id order
+ * straight into the gzip stream. Stores and categories have one shard each.</p>
+ * 
+ * <p>Shard files are immutable: a regenerated shard gets a new file name and
+ * the index is replaced atomically, so a file is never rewritten while it is
+ * being served. Files no longer listed are deleted after a grace period.
+ * Fingerprints are kept in a manifest next to the files, so a restart does
+ * not regenerate unchanged shards.</p>
+ */
+@Slf4j
+@Component
+public class SitemapGenerator {
+    
+    /**
+     * Posts per shard id range; the protocol allows at most 50,000 URLs per file.
+     */
+    static final int SHARD_SIZE = 50_000;
+    
+    static final String INDEX_FILE = "sitemap.xml";
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final Pattern SHARD_FILE = Pattern.compile("[a-z]+(-\\d+)?-\\d+\\.xml\\.gz");
+    private static final Duration DELETE_GRACE = Duration.ofHours(1);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final PostRepository postRepository;
+    private final StoreRepository storeRepository;
+    private final CategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final String siteUrl;
+    private final String filesUrl;
+    
+    /**
+     * Stamp of the last shard file written, so a shard rewritten within the
+     * same millisecond still gets a new file name.
+     */
+    private long lastFileStamp;
+    
+    public SitemapGenerator(
+        PostRepository postRepository,
+        StoreRepository storeRepository,
+        CategoryRepository categoryRepository,
+        ObjectMapper objectMapper,
+        @Value("${sitemap.enabled:true}") boolean enabled,
+        @Value("${sitemap.directory:./data/sitemaps}") String directory,
+        @Value("${sitemap.site-url:http://localhost:3000}") String siteUrl,
+        @Value("${sitemap.files-url:http://localhost:8080/api/v1/sitemaps}") String filesUrl
+    ) {
+        this.postRepository = postRepository;
+        this.storeRepository = storeRepository;
+        this.categoryRepository = categoryRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.siteUrl = stripTrailingSlash(siteUrl);
+        this.filesUrl = stripTrailingSlash(filesUrl);
+    }
+    
+    /**
+     * The sitemap file with the given name, if it exists. Only names this
+     * generator writes are resolved, so a request cannot leave the directory.
+     */
+    public Optional<Path> find(String name) {
+        if (!INDEX_FILE.equals(name) && !SHARD_FILE.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+    
+    /**
+     * Brings the sitemaps up to date, regenerating only changed shards.
+     * Runs shortly after startup and then periodically.
+     */
+    @Scheduled(
+        initialDelayString = "${sitemap.initial-delay-minutes:1}",
+        fixedDelayString = "${sitemap.refresh-minutes:60}",
+        timeUnit = TimeUnit.MINUTES
+    )
+    @Transactional(readOnly = true)
+    public synchronized void regenerate() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Files.createDirectories(directory);
+            Map<String, Shard> previous = readManifest();
+            Map<String, Shard> shards = new TreeMap<>();
+            int written = 0;
+            
+            for (Object[] row : postRepository.findSitemapShards(SHARD_SIZE)) {
+                long shard = ((Number) row[0]).longValue();
+                String name = "posts-" + shard;
+                String fingerprint = row[1] + ":" + row[2] + ":" + row[3];
+                Shard current = previous.get(name);
+                if (!isCurrent(current, fingerprint)) {
+                    long fromId = shard * SHARD_SIZE + 1;
+                    try (Stream<SitemapEntry> entries = postRepository.streamSitemapEntries(fromId, fromId + SHARD_SIZE - 1)) {
+                        current = writeShard(name, fingerprint, "/posts/", entries.iterator());
+                    }
+                    written++;
+                }
+                shards.put(name, current);
+            }
+            
+            SitemapVersion stores = storeRepository.findSitemapVersion();
+            if (stores.count() > 0) {
+                String fingerprint = stores.fingerprint();
+                Shard current = previous.get("stores");
+                if (!isCurrent(current, fingerprint)) {
+                    current = writeShard("stores", fingerprint, "/stores/", storeRepository.findSitemapEntries().iterator());
+                    written++;
+                }
+                shards.put("stores", current);
+            }
+            
+            SitemapVersion categories = categoryRepository.findSitemapVersion();
+            if (categories.count() > 0) {
+                String fingerprint = categories.fingerprint();
+                Shard current = previous.get("categories");
+                if (!isCurrent(current, fingerprint)) {
+                    current = writeShard("categories", fingerprint, "/categories/", categoryRepository.findSitemapEntries().iterator());
+                    written++;
+                }
+                shards.put("categories", current);
+            }
+            
+            if (!shards.equals(previous) || !Files.exists(directory.resolve(INDEX_FILE))) {
+                writeIndex(shards);
+                writeManifest(shards);
+            }
+            deleteUnlisted(shards);
+            log.info("Sitemaps up to date: {} shards, {} regenerated, in {} ms",
+                shards.size(), written, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write sitemaps to " + directory, e);
+        }
+    }
+    
+    private boolean isCurrent(Shard shard, String fingerprint) {
+        return shard != null && shard.fingerprint().equals(fingerprint) && Files.exists(directory.resolve(shard.file()));
+    }
+    
+    /**
+     * Writes one gzipped urlset to a new file; entries are consumed one at a time.
+     */
+    private Shard writeShard(String name, String fingerprint, String path, Iterator<SitemapEntry> entries) throws IOException {
+        lastFileStamp = Math.max(System.currentTimeMillis(), lastFileStamp + 1);
+        String file = name + "-" + lastFileStamp + ".xml.gz";
+        LocalDate lastModified = null;
+        Path temp = directory.resolve(file + ".tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+            while (entries.hasNext()) {
+                SitemapEntry entry = entries.next();
+                writer.write("<url><loc>");
+                writer.write(escape(siteUrl + path + entry.key()));
+                writer.write("</loc>");
+                if (entry.lastModified() != null) {
+                    writer.write("<lastmod>" + entry.lastModified() + "</lastmod>");
+                    if (lastModified == null || entry.lastModified().isAfter(lastModified)) {
+                        lastModified = entry.lastModified();
+                    }
+                }
+                writer.write("</url>\n");
+            }
+            writer.write("</urlset>\n");
+        }
+        move(temp, directory.resolve(file));
+        return new Shard(file, fingerprint, lastModified);
+    }
+    
+    private void writeIndex(Map<String, Shard> shards) throws IOException {
+        Path temp = directory.resolve(INDEX_FILE + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+            for (Shard shard : shards.values()) {
+                writer.write("<sitemap><loc>" + escape(filesUrl + "/" + shard.file()) + "</loc>");
+                if (shard.lastModified() != null) {
+                    writer.write("<lastmod>" + shard.lastModified() + "</lastmod>");
+                }
+                writer.write("</sitemap>\n");
+            }
+            writer.write("</sitemapindex>\n");
+        }
+        move(temp, directory.resolve(INDEX_FILE));
+    }
+    
+    private Map<String, Shard> readManifest() {
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifest)) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(manifest.toFile(), Manifest.class).shards();
+        } catch (IOException e) {
+            log.warn("Unreadable sitemap manifest, regenerating all shards: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+    
+    private void writeManifest(Map<String, Shard> shards) throws IOException {
+        Path temp = directory.resolve(MANIFEST_FILE + ".tmp");
+        objectMapper.writeValue(temp.toFile(), new Manifest(shards));
+        move(temp, directory.resolve(MANIFEST_FILE));
+    }
+    
+    /**
+     * Deletes shard files that are no longer listed, once they are old enough
+     * that no client should still be reading them from a previous index.
+     */
+    private void deleteUnlisted(Map<String, Shard> shards) throws IOException {
+        Instant cutoff = Instant.now().minus(DELETE_GRACE);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.xml.gz")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean listed = shards.values().stream().anyMatch(shard -> shard.file().equals(name));
+                if (!listed && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+    
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&apos;");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+    
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+    
+    /**
+     * A written shard: its file, the fingerprint of the data it was written
+     * from, and its latest lastmod.
+     */
+    record Shard(String file, String fingerprint, LocalDate lastModified) {
+    }
+    
+    record Manifest(Map<String, Shard> shards) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.thegamersstation.marketplace.sitemap;
+
+import java.time.Instant;
+
+/**
+ * Fingerprint of the pages of a single-shard sitemap: their number and
+ * latest modification. Selected by constructor expressions from the store
+ * and category repositories.
+ */
+public record SitemapVersion(Long count, Instant lastModified) {
+    
+    public String fingerprint() {
+        return count + ":" + (lastModified != null ? lastModified.toEpochMilli() : -1);
+    }
+}
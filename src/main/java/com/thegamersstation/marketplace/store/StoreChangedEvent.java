@@ -0,0 +1,8 @@
+package com.thegamersstation.marketplace.store;
+
+/**
+ * Published when the public badge of a store (names, slug, logo,
+ * verification) changes, so that copies of it can be refreshed.
+ */
+public record StoreChangedEvent(Long storeId) {
+}
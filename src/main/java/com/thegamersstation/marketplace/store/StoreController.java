@@ -1,12 +1,17 @@
 package com.thegamersstation.marketplace.store;
 
 import com.thegamersstation.marketplace.common.dto.PageResponseDto;
+import com.thegamersstation.marketplace.common.util.SparseFieldset;
 import com.thegamersstation.marketplace.post.PostService;
+import com.thegamersstation.marketplace.post.dto.PostCardDto;
 import com.thegamersstation.marketplace.post.dto.PostDto;
 import com.thegamersstation.marketplace.security.SecurityUtil;
 import com.thegamersstation.marketplace.store.dto.StoreDto;
 import com.thegamersstation.marketplace.store.dto.UpdateStoreRequest;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -14,11 +19,14 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/stores")
@@ -51,17 +59,45 @@ public class StoreController {
     }
     
     @GetMapping("/{id}/posts")
-    @Operation(summary = "Get all posts from a store")
-    public ResponseEntity<PageResponseDto<PostDto>> getStorePosts(
+    @Operation(
+        summary = "Get all posts from a store",
+        description = "fields=title,price,... returns only the listed post fields (id is always included)."
+    )
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = PageResponseDto.class)))
+    public ResponseEntity<MappingJacksonValue> getStorePosts(
         @PathVariable Long id,
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "20") int size,
         @RequestParam(defaultValue = "createdAt") String sortBy,
-        @RequestParam(defaultValue = "DESC") Sort.Direction direction
+        @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+        @RequestParam(required = false) String fields
     ) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        PageResponseDto<PostDto> posts = postService.getPostsByStore(id, pageable);
-        return ResponseEntity.ok(posts);
+        Set<String> fieldset = SparseFieldset.parse(fields);
+        PageResponseDto<PostDto> posts = postService.getPostsByStore(id, pageable, fieldset);
+        return ResponseEntity.ok(SparseFieldset.apply(posts, fieldset));
+    }
+    
+    @GetMapping(value = "/{id}/posts", params = "view=card")
+    @Operation(
+        summary = "Get all posts from a store (cards)",
+        description = "Same as GET /stores/{id}/posts, used when view=card: returns compact cards. " +
+                     "fields=title,price,... returns only the listed post fields (id is always included)."
+    )
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = PageResponseDto.class)))
+    public ResponseEntity<MappingJacksonValue> getStorePostCards(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "createdAt") String sortBy,
+        @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+        @RequestParam(required = false) String fields
+    ) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+        PageResponseDto<PostCardDto> cards = postService.getStorePostCards(id, pageable);
+        return ResponseEntity.ok(SparseFieldset.apply(cards, fields));
     }
     
     @GetMapping("/my-store")
@@ -1,8 +1,12 @@
 package com.thegamersstation.marketplace.store;
 
+import com.thegamersstation.marketplace.sitemap.SitemapEntry;
+import com.thegamersstation.marketplace.sitemap.SitemapVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +19,12 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
     boolean existsBySlug(String slug);
     
     boolean existsByOwnerId(Long ownerId);
+    
+    @Query("SELECT new com.thegamersstation.marketplace.sitemap.SitemapEntry(s.slug, COALESCE(s.updatedAt, s.createdAt)) " +
+           "FROM Store s WHERE s.isActive = true ORDER BY s.id")
+    List<SitemapEntry> findSitemapEntries();
+    
+    @Query("SELECT new com.thegamersstation.marketplace.sitemap.SitemapVersion(COUNT(s), MAX(COALESCE(s.updatedAt, s.createdAt))) " +
+           "FROM Store s WHERE s.isActive = true")
+    SitemapVersion findSitemapVersion();
 }
@@ -10,6 +10,7 @@ import com.thegamersstation.marketplace.user.repository.User;
 import com.thegamersstation.marketplace.user.repository.UsersRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,6 +26,7 @@ public class StoreService {
     private final StoreRepository storeRepository;
     private final UsersRepository usersRepository;
     private final StoreMapper storeMapper;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Create a new store for a store manager
@@ -114,6 +116,7 @@ public class StoreService {
         }
         
         Store updated = storeRepository.save(store);
+        eventPublisher.publishEvent(new StoreChangedEvent(storeId));
         log.info("Updated store: {}", storeId);
         
         return storeMapper.toDto(updated);
@@ -177,6 +180,7 @@ public class StoreService {
         
         store.setIsVerified(verified);
         Store updated = storeRepository.save(store);
+        eventPublisher.publishEvent(new StoreChangedEvent(storeId));
         log.info("{} store: {}", verified ? "Verified" : "Unverified", storeId);
         
         return storeMapper.toDto(updated);
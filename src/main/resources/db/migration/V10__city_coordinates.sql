@@ -0,0 +1,25 @@
+-- City centre coordinates (WGS84) for radius searches; distances between
+-- cities are computed in memory by CityNeighbors.
+ALTER TABLE cities ADD COLUMN latitude DECIMAL(9,6) NULL AFTER slug;
+ALTER TABLE cities ADD COLUMN longitude DECIMAL(9,6) NULL AFTER latitude;
+
+UPDATE cities SET latitude = 24.713600, longitude = 46.675300 WHERE slug = 'riyadh';
+UPDATE cities SET latitude = 21.485800, longitude = 39.192500 WHERE slug = 'jeddah';
+UPDATE cities SET latitude = 21.389100, longitude = 39.857900 WHERE slug = 'mecca';
+UPDATE cities SET latitude = 24.524700, longitude = 39.569200 WHERE slug = 'medina';
+UPDATE cities SET latitude = 26.420700, longitude = 50.088800 WHERE slug = 'dammam';
+UPDATE cities SET latitude = 26.217200, longitude = 50.197100 WHERE slug = 'khobar';
+UPDATE cities SET latitude = 26.236100, longitude = 50.039300 WHERE slug = 'dhahran';
+UPDATE cities SET latitude = 21.270300, longitude = 40.415800 WHERE slug = 'taif';
+UPDATE cities SET latitude = 28.383800, longitude = 36.555000 WHERE slug = 'tabuk';
+UPDATE cities SET latitude = 26.326000, longitude = 43.975000 WHERE slug = 'buraidah';
+UPDATE cities SET latitude = 18.300000, longitude = 42.733300 WHERE slug = 'khamis-mushait';
+UPDATE cities SET latitude = 27.511400, longitude = 41.720800 WHERE slug = 'hail';
+UPDATE cities SET latitude = 17.565600, longitude = 44.228900 WHERE slug = 'najran';
+UPDATE cities SET latitude = 28.432800, longitude = 45.970800 WHERE slug = 'hafar-al-batin';
+UPDATE cities SET latitude = 27.004600, longitude = 49.646000 WHERE slug = 'jubail';
+UPDATE cities SET latitude = 18.216400, longitude = 42.505300 WHERE slug = 'abha';
+UPDATE cities SET latitude = 24.089500, longitude = 38.061800 WHERE slug = 'yanbu';
+UPDATE cities SET latitude = 24.155600, longitude = 47.334600 WHERE slug = 'al-kharj';
+UPDATE cities SET latitude = 26.519600, longitude = 50.011500 WHERE slug = 'qatif';
+UPDATE cities SET latitude = 25.383300, longitude = 49.583300 WHERE slug = 'al-ahsa';
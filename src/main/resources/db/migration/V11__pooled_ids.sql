@@ -0,0 +1,21 @@
+-- Id blocks for posts, post images and comments, allocated by Hibernate's
+-- pooled table generator (see Post, PostImage and Comment). Ids are taken 50
+-- at a time, so inserts no longer need the generated key of each row and can
+-- be sent in JDBC batches.
+--
+-- next_val is the upper end of the next block to hand out; seeding it with
+-- MAX(id) + 50 makes the first block start right after the existing rows.
+-- The AUTO_INCREMENT columns stay, but the application no longer relies on them.
+CREATE TABLE id_sequences (
+    sequence_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'posts', COALESCE(MAX(id), 0) + 50 FROM posts;
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'post_images', COALESCE(MAX(id), 0) + 50 FROM post_images;
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'comments', COALESCE(MAX(id), 0) + 50 FROM comments;
@@ -0,0 +1,13 @@
+-- Transactional outbox of post changes: one row per PostChangedEvent,
+-- written in the transaction that made the change and deleted once the
+-- relay (PostOutboxRelay) has delivered it. Rows are delivered in id order;
+-- a row that keeps failing is left in place with its attempt count.
+CREATE TABLE post_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    change_type VARCHAR(20) NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_attempts_id (attempts, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
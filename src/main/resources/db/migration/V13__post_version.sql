@@ -0,0 +1,4 @@
+-- Optimistic-locking version of a post, incremented by every update of the
+-- row and when the store badge or category names shown with the post change.
+-- HTTP validators and the serialized post caches are keyed on it.
+ALTER TABLE posts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
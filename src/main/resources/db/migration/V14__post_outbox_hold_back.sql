@@ -0,0 +1,3 @@
+-- Entries of a post are held back behind one that was given up (attempts
+-- at the maximum), so pending entries are looked up by post and attempts.
+CREATE INDEX idx_post_attempts ON post_outbox (post_id, attempts, id);
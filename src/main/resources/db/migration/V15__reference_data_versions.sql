@@ -0,0 +1,10 @@
+-- Change counters of the reference data served with HTTP validators, one row
+-- per table. A row is bumped in the transaction that changes its table, so
+-- two changes within the same second still give different ETags. Data
+-- migrations of cities or regions must bump their row as well.
+CREATE TABLE reference_data_versions (
+    name VARCHAR(20) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO reference_data_versions (name) VALUES ('categories'), ('cities'), ('regions');
@@ -0,0 +1,7 @@
+-- Rebuild the posts FULLTEXT index with the ngram parser.
+-- The default parser splits on whitespace only, which tokenizes Arabic and
+-- mixed-script titles poorly; ngram indexes every 2-character sequence
+-- (ngram_token_size) so MATCH ... AGAINST works for both languages.
+ALTER TABLE posts DROP INDEX idx_fulltext_search;
+
+ALTER TABLE posts ADD FULLTEXT INDEX idx_fulltext_search_ngram (title, description) WITH PARSER ngram;
@@ -0,0 +1,37 @@
+-- Denormalized listing cards: one row per ACTIVE post with everything a
+-- listing card shows, so listings read a single narrow table instead of
+-- posts (with its TEXT description) joined to five other tables.
+-- Maintained by the application from the post, category and store write
+-- paths; existing rows are filled by the backfill (see PostCardBackfill).
+CREATE TABLE post_cards (
+    post_id BIGINT PRIMARY KEY,
+    type VARCHAR(10) NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    price DECIMAL(10, 2),
+    price_min DECIMAL(10, 2),
+    price_max DECIMAL(10, 2),
+    currency VARCHAR(3) NOT NULL,
+    `condition` VARCHAR(20),
+    thumbnail_url VARCHAR(500),
+    category_id BIGINT NOT NULL,
+    category_name_en VARCHAR(100) NOT NULL,
+    category_name_ar VARCHAR(100) NOT NULL,
+    city_id BIGINT NOT NULL,
+    region_id BIGINT,
+    city_name_en VARCHAR(100) NOT NULL,
+    city_name_ar VARCHAR(100) NOT NULL,
+    store_id BIGINT,
+    store_name_en VARCHAR(100),
+    store_name_ar VARCHAR(100),
+    store_slug VARCHAR(100),
+    store_logo_url VARCHAR(500),
+    store_verified BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_card_post FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    INDEX idx_cards_created (created_at, post_id),
+    INDEX idx_cards_category_created (category_id, created_at, post_id),
+    INDEX idx_cards_city_created (city_id, created_at, post_id),
+    INDEX idx_cards_region_created (region_id, created_at, post_id),
+    INDEX idx_cards_store_created (store_id, created_at, post_id),
+    INDEX idx_cards_price (price, post_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,11 @@
+-- Short plain excerpt of the description for listing cards, so listings
+-- never read the TEXT column. Same rule as PostCardProjector#excerpt:
+-- at most 160 characters, cut ones end with an ellipsis.
+ALTER TABLE post_cards ADD COLUMN description_excerpt VARCHAR(200) AFTER title;
+
+UPDATE post_cards c
+JOIN posts p ON p.id = c.post_id
+SET c.description_excerpt = CASE
+    WHEN CHAR_LENGTH(p.description) <= 160 THEN p.description
+    ELSE CONCAT(RTRIM(LEFT(p.description, 160)), '…')
+END;
@@ -0,0 +1,75 @@
+package com.thegamersstation.marketplace.benchmark;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Minimal in-process latency harness for the {@code benchmark}-tagged tests.
+ * 
+ * <p>Runs an operation for a number of warmup iterations, then times every
+ * measured iteration individually and reports percentiles. Results are
+ * folded into a sink so the JIT cannot drop the work. Numbers are only
+ * comparable between runs on the same machine and JVM.</p>
+ * 
+ * <p>Benchmarks are excluded from the default test run; run them with
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups=}.</p>
+ */
+public final class LatencyBenchmark {
+    
+    public static final String TAG = "benchmark";
+    
+    private static volatile int sink;
+    
+    private LatencyBenchmark() {
+    }
+    
+    /**
+     * Times {@code operation}, called with the iteration number, and prints the result.
+     */
+    public static Result run(String name, int warmupIterations, int measuredIterations, IntFunction<?> operation) {
+        int hash = 0;
+        for (int i = 0; i < warmupIterations; i++) {
+            hash += System.identityHashCode(operation.apply(i));
+        }
+        long[] nanos = new long[measuredIterations];
+        long total = System.nanoTime();
+        for (int i = 0; i < measuredIterations; i++) {
+            long start = System.nanoTime();
+            Object result = operation.apply(warmupIterations + i);
+            nanos[i] = System.nanoTime() - start;
+            hash += System.identityHashCode(result);
+        }
+        total = System.nanoTime() - total;
+        sink += hash;
+        
+        Arrays.sort(nanos);
+        Result result = new Result(
+            name,
+            measuredIterations,
+            percentile(nanos, 0.50),
+            percentile(nanos, 0.99),
+            nanos[nanos.length - 1],
+            measuredIterations * 1_000_000_000.0 / total
+        );
+        System.out.println(result);
+        return result;
+    }
+    
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+    
+    /**
+     * Latencies in nanoseconds of one benchmarked operation.
+     */
+    public record Result(String name, int iterations, long p50Nanos, long p99Nanos, long maxNanos, double opsPerSecond) {
+        
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %d ops, p50 %.1f us, p99 %.1f us, max %.1f us, %.0f ops/s",
+                name, iterations, p50Nanos / 1_000.0, p99Nanos / 1_000.0, maxNanos / 1_000.0, opsPerSecond);
+        }
+    }
+}
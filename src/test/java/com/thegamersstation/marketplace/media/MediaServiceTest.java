@@ -0,0 +1,73 @@
+package com.thegamersstation.marketplace.media;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MediaServiceTest {
+
+    private static final String BASE_URL = "http://localhost:8080/uploads";
+
+    @TempDir
+    Path root;
+
+    private Path uploadDir;
+    private final MediaService mediaService = new MediaService("", "", "us-east-1");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        uploadDir = Files.createDirectories(root.resolve("uploads"));
+        ReflectionTestUtils.setField(mediaService, "storageProvider", "local");
+        ReflectionTestUtils.setField(mediaService, "localUploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(mediaService, "localBaseUrl", BASE_URL);
+        ReflectionTestUtils.setField(mediaService, "s3BucketName", "gs-marketplace");
+        ReflectionTestUtils.setField(mediaService, "s3Region", "us-east-1");
+        ReflectionTestUtils.setField(mediaService, "cloudFrontDomain", "d111.cloudfront.net");
+    }
+
+    @Test
+    void recognizesOnlyUrlsOfOurStorage() {
+        assertThat(mediaService.isStoredUrl(BASE_URL + "/posts/a.jpg")).isTrue();
+        assertThat(mediaService.isStoredUrl("https://d111.cloudfront.net/posts/a.jpg")).isTrue();
+        assertThat(mediaService.isStoredUrl("https://gs-marketplace.s3.us-east-1.amazonaws.com/posts/a.jpg")).isTrue();
+
+        assertThat(mediaService.isStoredUrl("https://d999.cloudfront.net/posts/a.jpg")).isFalse();
+        assertThat(mediaService.isStoredUrl("https://other.s3.us-east-1.amazonaws.com/posts/a.jpg")).isFalse();
+        assertThat(mediaService.isStoredUrl("https://example.com/?u=" + BASE_URL + "/posts/a.jpg")).isFalse();
+        assertThat(mediaService.isStoredUrl(BASE_URL + "/posts/../../secret.txt")).isFalse();
+        assertThat(mediaService.isStoredUrl(null)).isFalse();
+    }
+
+    @Test
+    void deletesFilesBelowTheUploadDirectory() throws IOException {
+        Path image = Files.createDirectories(uploadDir.resolve("posts")).resolve("a.jpg");
+        Files.writeString(image, "image");
+
+        mediaService.deleteImage(BASE_URL + "/posts/a.jpg");
+
+        assertThat(image).doesNotExist();
+    }
+
+    @Test
+    void neverDeletesOutsideTheUploadDirectory() throws IOException {
+        Path secret = Files.writeString(root.resolve("secret.txt"), "secret");
+        Path sibling = Files.createDirectories(root.resolve("uploads-other")).resolve("a.jpg");
+        Files.writeString(sibling, "image");
+
+        mediaService.deleteImage(BASE_URL + "/../secret.txt");
+        mediaService.deleteImage(BASE_URL + "/" + secret.toAbsolutePath());
+        mediaService.deleteImage(BASE_URL + "-other/a.jpg");
+        mediaService.deleteImage("https://d999.cloudfront.net/posts/a.jpg");
+
+        assertThat(secret).exists();
+        assertThat(sibling).exists();
+        assertThat(uploadDir).exists();
+    }
+}
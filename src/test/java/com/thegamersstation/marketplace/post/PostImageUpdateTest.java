@@ -0,0 +1,151 @@
+package com.thegamersstation.marketplace.post;
+
+import com.thegamersstation.marketplace.category.Category;
+import com.thegamersstation.marketplace.category.CategoryRepository;
+import com.thegamersstation.marketplace.city.City;
+import com.thegamersstation.marketplace.city.CityRepository;
+import com.thegamersstation.marketplace.post.dto.UpdatePostRequest;
+import com.thegamersstation.marketplace.user.repository.User;
+import com.thegamersstation.marketplace.user.repository.UsersRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Edits the images of a post through {@link PostService#updatePost} against
+ * the MySQL database the migrations are written for, where positions are
+ * unique per post (uk_post_sort). Only runs when {@code DB_URL} points to
+ * one; every test rolls back.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+class PostImageUpdateTest {
+    
+    private static final List<String> IMAGES = List.of(url("a"), url("b"), url("c"));
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private UsersRepository usersRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private CityRepository cityRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private User owner;
+    private Post post;
+    private Map<String, PostImage> before;
+    
+    @BeforeEach
+    void setUp() {
+        owner = usersRepository.save(User.builder()
+            .phoneNumber("+9665" + System.nanoTime() % 100_000_000)
+            .build());
+        Category category = categoryRepository.findAll().stream()
+            .filter(Category::getIsActive)
+            .findFirst()
+            .orElseThrow();
+        City city = cityRepository.findAll().getFirst();
+        post = Post.builder()
+            .owner(owner)
+            .type(Post.PostType.SELL)
+            .title("Image update test")
+            .description("Image update test post")
+            .price(BigDecimal.TEN)
+            .condition(Post.PostCondition.NEW)
+            .category(category)
+            .city(city)
+            .status(Post.PostStatus.ACTIVE)
+            .build();
+        for (int i = 0; i < IMAGES.size(); i++) {
+            // Thumbnails differ from the URLs, so a kept image cannot pass for a recreated one
+            PostImage image = PostImage.of(post, IMAGES.get(i), i);
+            image.setThumbnailUrl(IMAGES.get(i) + "?thumbnail");
+            post.getImages().add(image);
+        }
+        postRepository.saveAndFlush(post);
+        before = imagesByUrl();
+    }
+    
+    @Test
+    void swapsTwoImages() {
+        updatesImagesTo(url("b"), url("a"), url("c"));
+    }
+    
+    @Test
+    void removesAnImageFromTheMiddle() {
+        updatesImagesTo(url("a"), url("c"));
+    }
+    
+    @Test
+    void replacesAnImageInPlace() {
+        updatesImagesTo(url("a"), url("x"), url("c"));
+    }
+    
+    @Test
+    void addsAnImageAtTheFront() {
+        updatesImagesTo(url("x"), url("a"), url("b"), url("c"));
+    }
+    
+    /**
+     * Updates the images, which flushes, and checks the stored rows: the
+     * requested order, and kept images with their id and thumbnail.
+     */
+    private void updatesImagesTo(String... urls) {
+        UpdatePostRequest request = new UpdatePostRequest();
+        request.setImageUrls(List.of(urls));
+        
+        postService.updatePost(post.getId(), request, owner.getId());
+        
+        Map<String, PostImage> after = imagesByUrl();
+        assertThat(after.keySet()).containsExactly(urls);
+        after.forEach((url, image) -> {
+            PostImage previous = before.get(url);
+            if (previous != null) {
+                assertThat(image.getId()).isEqualTo(previous.getId());
+                assertThat(image.getThumbnailUrl()).isEqualTo(previous.getThumbnailUrl());
+            } else {
+                assertThat(image.getThumbnailUrl()).isEqualTo(url);
+            }
+        });
+    }
+    
+    /**
+     * The post's stored images by URL, in position order.
+     */
+    private Map<String, PostImage> imagesByUrl() {
+        entityManager.clear();
+        List<PostImage> images = postRepository.findById(post.getId()).orElseThrow().getImages();
+        Map<String, PostImage> byUrl = new LinkedHashMap<>();
+        for (int i = 0; i < images.size(); i++) {
+            assertThat(images.get(i).getSortOrder()).isEqualTo(i);
+            byUrl.put(images.get(i).getUrl(), images.get(i));
+        }
+        return byUrl;
+    }
+    
+    private static String url(String name) {
+        return "https://cdn.example.com/image-update-test/" + name + ".jpg";
+    }
+}
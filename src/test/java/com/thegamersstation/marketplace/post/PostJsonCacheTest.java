@@ -0,0 +1,57 @@
+package com.thegamersstation.marketplace.post;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thegamersstation.marketplace.common.util.LocalizationService;
+import com.thegamersstation.marketplace.common.util.SparseFieldset;
+import com.thegamersstation.marketplace.post.dto.PostDto;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PostJsonCacheTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+    
+    private final PostJsonCache cache = new PostJsonCache(
+        new ObjectMapper().findAndRegisterModules().setFilterProvider(SparseFieldset.filters(null)),
+        mock(LocalizationService.class), true, 10, 1_024);
+    
+    @Test
+    void servesAFragmentOnlyForItsVersion() {
+        byte[] first = cache.toJson(post(1L, "Old title"));
+        
+        assertThat(cache.toJson(post(1L, "Mapped again"))).isSameAs(first);
+        assertThat(json(cache.toJson(post(2L, "New title")))).contains("New title");
+        // The older version no longer matches the replaced fragment either
+        assertThat(json(cache.toJson(post(1L, "Old title")))).contains("Old title");
+    }
+    
+    @Test
+    void committedPostChangeEvictsTheFragment() {
+        cache.toJson(post(1L, "Before"));
+        
+        cache.onPostChanged(new PostChangedEvent(PostChangedEvent.ChangeType.UPDATED, snapshot()));
+        
+        assertThat(json(cache.toJson(post(1L, "After")))).contains("After");
+    }
+    
+    private static PostDto post(long version, String title) {
+        return PostDto.builder().id(5L).version(version).title(title).build();
+    }
+    
+    private static PostSnapshot snapshot() {
+        return new PostSnapshot(5L, Post.PostStatus.ACTIVE, Post.PostType.SELL, Post.PostCondition.NEW,
+            "After", null, 1L, null, null, 1L, null, null, 1L, null, BigDecimal.TEN, null, null, NOW, NOW);
+    }
+    
+    private static String json(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,161 @@
+package com.thegamersstation.marketplace.post;
+
+import com.thegamersstation.marketplace.category.Category;
+import com.thegamersstation.marketplace.category.CategoryRepository;
+import com.thegamersstation.marketplace.city.City;
+import com.thegamersstation.marketplace.city.CityRepository;
+import com.thegamersstation.marketplace.common.util.SparseFieldset;
+import com.thegamersstation.marketplace.user.repository.User;
+import com.thegamersstation.marketplace.user.repository.UsersRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the JDBC statements of the post read and write paths with Hibernate
+ * statistics. Needs the MySQL database the migrations are written for, so it
+ * only runs when {@code DB_URL} points to one; every test rolls back.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PostStatementCountTest {
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private UsersRepository usersRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private CityRepository cityRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    private User owner;
+    private Category category;
+    private City city;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = usersRepository.save(User.builder()
+            .phoneNumber("+9665" + System.nanoTime() % 100_000_000)
+            .build());
+        category = categoryRepository.findAll().stream()
+            .filter(Category::getIsActive)
+            .findFirst()
+            .orElseThrow();
+        city = cityRepository.findAll().getFirst();
+    }
+    
+    @Test
+    void listingPageStatementsDoNotGrowWithPageSize() {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            posts.add(post("Listing post " + i, 3));
+        }
+        postRepository.saveAll(posts);
+        entityManager.flush();
+        
+        long smallPage = statementsToList(5);
+        long fullPage = statementsToList(20);
+        
+        // The page with its to-one associations, the count, and one IN query for the images
+        assertThat(smallPage).isLessThanOrEqualTo(3);
+        assertThat(fullPage).isEqualTo(smallPage);
+    }
+    
+    @Test
+    void listingWithoutImagesSkipsTheirQuery() {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            posts.add(post("Sparse listing post " + i, 3));
+        }
+        postRepository.saveAll(posts);
+        entityManager.flush();
+        
+        long withImages = statementsToList(5);
+        entityManager.clear();
+        statistics.clear();
+        assertThat(postService.getMyPosts(owner.getId(), PageRequest.of(0, 5), SparseFieldset.parse("title,price"))
+            .getContent())
+            .hasSize(5)
+            .allSatisfy(post -> assertThat(post.getImages()).isNull());
+        
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(withImages - 1);
+    }
+    
+    @Test
+    void postWithImagesIsInsertedInTwoStatements() {
+        // Takes the first id block of posts and images, so the next insert needs no allocation
+        postRepository.saveAndFlush(post("Warm-up post", 1));
+        entityManager.clear();
+        statistics.clear();
+        
+        postRepository.saveAndFlush(post("Ten image post", 10));
+        
+        // One insert for the post and one JDBC batch for its images
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(11);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+    
+    private long statementsToList(int pageSize) {
+        entityManager.clear();
+        statistics.clear();
+        assertThat(postService.getMyPosts(owner.getId(), PageRequest.of(0, pageSize), null).getContent())
+            .hasSize(pageSize)
+            .allSatisfy(post -> assertThat(post.getImages()).hasSize(3));
+        return statistics.getPrepareStatementCount();
+    }
+    
+    private Post post(String title, int images) {
+        Post post = Post.builder()
+            .owner(owner)
+            .type(Post.PostType.SELL)
+            .title(title)
+            .description("Statement count test")
+            .price(BigDecimal.TEN)
+            .condition(Post.PostCondition.NEW)
+            .category(category)
+            .city(city)
+            .status(Post.PostStatus.ACTIVE)
+            .build();
+        for (int i = 0; i < images; i++) {
+            post.getImages().add(PostImage.builder()
+                .post(post)
+                .url("https://cdn.example.com/" + title.hashCode() + "-" + i + ".jpg")
+                .thumbnailUrl("https://cdn.example.com/" + title.hashCode() + "-" + i + ".jpg")
+                .sortOrder(i)
+                .build());
+        }
+        return post;
+    }
+}
@@ -0,0 +1,147 @@
+package com.thegamersstation.marketplace.post.card;
+
+import com.thegamersstation.marketplace.category.Category;
+import com.thegamersstation.marketplace.category.CategoryRepository;
+import com.thegamersstation.marketplace.category.CategoryTreeChangedEvent;
+import com.thegamersstation.marketplace.city.City;
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.PostImage;
+import com.thegamersstation.marketplace.post.PostRepository;
+import com.thegamersstation.marketplace.region.Region;
+import com.thegamersstation.marketplace.store.Store;
+import com.thegamersstation.marketplace.store.StoreChangedEvent;
+import com.thegamersstation.marketplace.store.StoreRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostCardProjectorTest {
+    
+    private final PostCardRepository postCardRepository = mock(PostCardRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final StoreRepository storeRepository = mock(StoreRepository.class);
+    private final PostCardProjector projector = new PostCardProjector(
+        mock(PostRepository.class), postCardRepository, categoryRepository, storeRepository);
+    
+    @Test
+    void cardTakesTheThumbnailOfTheFirstImage() {
+        Post post = post("Short description");
+        post.getImages().add(image(post, "third", 2));
+        post.getImages().add(image(post, "first", 0));
+        post.getImages().add(image(post, "second", 1));
+        
+        PostCard card = PostCardProjector.toCard(post);
+        
+        assertThat(card.getThumbnailUrl()).isEqualTo("https://cdn.example.com/first-thumbnail.jpg");
+        assertThat(card.getDescriptionExcerpt()).isEqualTo("Short description");
+        assertThat(card.getCategoryNameEn()).isEqualTo("Consoles");
+        assertThat(card.getCityNameAr()).isEqualTo("الرياض");
+        assertThat(card.getRegionId()).isEqualTo(3L);
+    }
+    
+    @Test
+    void cardOfAPostWithoutStoreOrImages() {
+        PostCard card = PostCardProjector.toCard(post("No store"));
+        
+        assertThat(card.getThumbnailUrl()).isNull();
+        assertThat(card.getStoreId()).isNull();
+        assertThat(card.getStoreNameEn()).isNull();
+        assertThat(card.getStoreVerified()).isFalse();
+    }
+    
+    @Test
+    void cardCopiesTheStoreBadge() {
+        Post post = post("With store");
+        post.setStore(Store.builder().id(7L).nameEn("Game Hub").slug("game-hub").isVerified(true).build());
+        
+        PostCard card = PostCardProjector.toCard(post);
+        
+        assertThat(card.getStoreId()).isEqualTo(7L);
+        assertThat(card.getStoreNameEn()).isEqualTo("Game Hub");
+        assertThat(card.getStoreSlug()).isEqualTo("game-hub");
+        assertThat(card.getStoreVerified()).isTrue();
+    }
+    
+    @Test
+    void excerptKeepsShortDescriptions() {
+        String description = "x".repeat(PostCardProjector.EXCERPT_LENGTH);
+        
+        assertThat(PostCardProjector.excerpt(description)).isSameAs(description);
+        assertThat(PostCardProjector.excerpt(null)).isNull();
+    }
+    
+    @Test
+    void excerptCutsLongDescriptionsWithAnEllipsis() {
+        String description = "a".repeat(PostCardProjector.EXCERPT_LENGTH - 1) + "  " + "b".repeat(50);
+        
+        // The trailing space at the cut is dropped before the ellipsis
+        assertThat(PostCardProjector.excerpt(description))
+            .isEqualTo("a".repeat(PostCardProjector.EXCERPT_LENGTH - 1) + "…");
+    }
+    
+    @Test
+    void excerptCountsCodePoints() {
+        // Each emoji is two chars; a cut by chars would split the last pair
+        String description = "🎮".repeat(PostCardProjector.EXCERPT_LENGTH + 1);
+        
+        String excerpt = PostCardProjector.excerpt(description);
+        
+        assertThat(excerpt).isEqualTo("🎮".repeat(PostCardProjector.EXCERPT_LENGTH) + "…");
+        assertThat(excerpt.codePointCount(0, excerpt.length())).isEqualTo(PostCardProjector.EXCERPT_LENGTH + 1);
+        assertThat(PostCardProjector.excerpt("🎮".repeat(PostCardProjector.EXCERPT_LENGTH))).doesNotEndWith("…");
+    }
+    
+    @Test
+    void categoryChangeUpdatesTheNamesOnCards() {
+        when(categoryRepository.findById(4L)).thenReturn(Optional.of(
+            Category.builder().id(4L).nameEn("Retro consoles").nameAr("أجهزة كلاسيكية").build()));
+        
+        projector.onCategoryChanged(new CategoryTreeChangedEvent(4L));
+        
+        verify(postCardRepository).updateCategoryNames(4L, "Retro consoles", "أجهزة كلاسيكية");
+    }
+    
+    @Test
+    void storeChangeUpdatesTheBadgeOnCards() {
+        when(storeRepository.findById(7L)).thenReturn(Optional.of(Store.builder()
+            .id(7L)
+            .nameEn("Game Hub")
+            .nameAr("قيم هب")
+            .slug("game-hub")
+            .logoUrl("https://cdn.example.com/logo.png")
+            .isVerified(null)
+            .build()));
+        
+        projector.onStoreChanged(new StoreChangedEvent(7L));
+        
+        verify(postCardRepository).updateStoreBadge(7L, "Game Hub", "قيم هب", "game-hub",
+            "https://cdn.example.com/logo.png", false);
+    }
+    
+    private static Post post(String description) {
+        return Post.builder()
+            .id(1L)
+            .type(Post.PostType.SELL)
+            .title("PlayStation 5")
+            .description(description)
+            .price(BigDecimal.TEN)
+            .condition(Post.PostCondition.NEW)
+            .category(Category.builder().id(4L).nameEn("Consoles").nameAr("أجهزة").build())
+            .city(City.builder().id(2L).nameEn("Riyadh").nameAr("الرياض")
+                .region(Region.builder().id(3L).build()).build())
+            .status(Post.PostStatus.ACTIVE)
+            .build();
+    }
+    
+    private static PostImage image(Post post, String name, int sortOrder) {
+        PostImage image = PostImage.of(post, "https://cdn.example.com/" + name + ".jpg", sortOrder);
+        image.setThumbnailUrl("https://cdn.example.com/" + name + "-thumbnail.jpg");
+        return image;
+    }
+}
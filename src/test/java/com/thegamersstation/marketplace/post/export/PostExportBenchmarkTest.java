@@ -0,0 +1,85 @@
+package com.thegamersstation.marketplace.post.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thegamersstation.marketplace.benchmark.LatencyBenchmark;
+import com.thegamersstation.marketplace.post.PostRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Serialization throughput of {@link PostExportService} for both formats,
+ * exporting 100k posts to a stream that discards the bytes. The repository
+ * serves prepared batches, so the numbers leave out the database and network.
+ */
+@Tag(LatencyBenchmark.TAG)
+class PostExportBenchmarkTest {
+    
+    private static final int POSTS = 100_000;
+    
+    @Test
+    void export() {
+        List<PostExportRow> rows = new ArrayList<>(POSTS);
+        for (long id = 1; id <= POSTS; id++) {
+            rows.add(PostExportServiceTest.row(id, "PlayStation 5 Slim " + id + ", barely used",
+                "Comes with two controllers and the original box. Pickup only.", BigDecimal.valueOf(150_000 + id, 2)));
+        }
+        PostRepository postRepository = mock(PostRepository.class);
+        when(postRepository.findExportRows(any(), any(), any(), any(), any(), anyLong(), any()))
+            .thenAnswer(invocation -> {
+                int from = Math.toIntExact(invocation.<Long>getArgument(5));
+                Pageable pageable = invocation.getArgument(6);
+                return rows.subList(Math.min(from, POSTS), Math.min(from + pageable.getPageSize(), POSTS));
+            });
+        PostExportService service = new PostExportService(postRepository, new ObjectMapper().findAndRegisterModules());
+        
+        for (PostExportService.Format format : PostExportService.Format.values()) {
+            CountingOutputStream out = new CountingOutputStream();
+            export(service, format, out);
+            long bytes = out.bytes;
+            LatencyBenchmark.Result result = LatencyBenchmark.run(format + " export of " + POSTS + " posts", 3, 10,
+                i -> export(service, format, out));
+            double seconds = result.p50Nanos() / 1e9;
+            System.out.printf(Locale.ROOT, "%s: %.0f posts/s, %.1f MB/s%n", format, POSTS / seconds, bytes / seconds / 1e6);
+        }
+    }
+    
+    private static long export(PostExportService service, PostExportService.Format format, OutputStream out) {
+        try {
+            return service.export(new PostExportService.Filter(null, null, null, null, null, null), format, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Discards what is written and counts the bytes.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        
+        private long bytes;
+        
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
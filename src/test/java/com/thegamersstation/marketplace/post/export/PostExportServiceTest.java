@@ -0,0 +1,69 @@
+package com.thegamersstation.marketplace.post.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.PostRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostExportServiceTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+    
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final PostExportService service = new PostExportService(postRepository, new ObjectMapper().findAndRegisterModules());
+    
+    @Test
+    void writesCsvWithQuotedFields() throws IOException {
+        exporting(row(1L, "PS5, like new", "Says \"boxed\"", new BigDecimal("1500.00")));
+        
+        List<String> lines = csv();
+        
+        assertThat(lines.get(0)).startsWith("id,status,type,condition,title,description,price,");
+        assertThat(lines.get(1)).startsWith("1,ACTIVE,SELL,USED_GOOD,\"PS5, like new\",\"Says \"\"boxed\"\"\",1500.00,");
+    }
+    
+    @Test
+    void prefixesTextThatStartsLikeAFormula() throws IOException {
+        exporting(
+            row(1L, "=HYPERLINK(\"http://example.com\")", "+1 controller", BigDecimal.TEN),
+            row(2L, "-5% off", "@SUM(A1)", new BigDecimal("-1"))
+        );
+        
+        List<String> lines = csv();
+        
+        assertThat(lines.get(1)).startsWith("1,ACTIVE,SELL,USED_GOOD,\"'=HYPERLINK(\"\"http://example.com\"\")\",'+1 controller,10,");
+        // Numbers are not user text and keep their sign
+        assertThat(lines.get(2)).startsWith("2,ACTIVE,SELL,USED_GOOD,'-5% off,'@SUM(A1),-1,");
+    }
+    
+    private void exporting(PostExportRow... rows) {
+        when(postRepository.findExportRows(any(), any(), any(), any(), any(), eq(0L), any()))
+            .thenReturn(List.of(rows));
+    }
+    
+    private List<String> csv() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(new PostExportService.Filter(null, null, null, null, null, null), PostExportService.Format.CSV, out);
+        return List.of(out.toString(StandardCharsets.UTF_8).split("\r\n"));
+    }
+    
+    static PostExportRow row(Long id, String title, String description, BigDecimal price) {
+        return new PostExportRow(id, Post.PostStatus.ACTIVE, Post.PostType.SELL, Post.PostCondition.USED_GOOD,
+            title, description, price, null, null, "SAR",
+            1L, "consoles", "Consoles", "أجهزة", 1L, "riyadh", "Riyadh", "الرياض", 1L,
+            null, null, 7L, NOW, NOW);
+    }
+}
@@ -0,0 +1,179 @@
+package com.thegamersstation.marketplace.post.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent.ChangeType;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Delivers from an in-memory table, whose pending query leaves out given-up
+ * entries and the later entries of their posts like the repository's.
+ */
+class PostOutboxTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<PostOutboxEntry> table = new ArrayList<>();
+    private final RecordingSubscriber subscriber = new RecordingSubscriber();
+    private PostOutbox outbox;
+    
+    @BeforeEach
+    void setUp() {
+        PostOutboxRepository repository = mock(PostOutboxRepository.class);
+        when(repository.lockPending(anyInt(), any())).thenAnswer(invocation ->
+            pending(invocation.getArgument(0), invocation.getArgument(1)));
+        when(repository.deleteByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            table.removeIf(entry -> ids.contains(entry.getId()));
+            return ids.size();
+        });
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        outbox = new PostOutbox(repository, List.of(subscriber), objectMapper, transactionManager);
+    }
+    
+    @Test
+    void deliversEntriesInOrderAndDeletesThem() {
+        add(1L, ChangeType.CREATED);
+        add(2L, ChangeType.CREATED);
+        add(1L, ChangeType.SOLD);
+        
+        assertThat(outbox.deliverBatch(100)).isEqualTo(3);
+        
+        assertThat(subscriber.delivered).containsExactly("1 CREATED", "2 CREATED", "1 SOLD");
+        assertThat(table).isEmpty();
+    }
+    
+    @Test
+    void failureHoldsBackLaterChangesOfThatPostOnly() {
+        add(1L, ChangeType.CREATED);
+        add(1L, ChangeType.BLOCKED);
+        add(2L, ChangeType.CREATED);
+        subscriber.failing.add(1L);
+        
+        assertThat(outbox.deliverBatch(100)).isEqualTo(1);
+        
+        assertThat(subscriber.delivered).containsExactly("2 CREATED");
+        assertThat(table).extracting(PostOutboxEntry::getAttempts).containsExactly(1, 0);
+        
+        subscriber.failing.clear();
+        assertThat(outbox.deliverBatch(100)).isEqualTo(2);
+        
+        assertThat(subscriber.delivered).containsExactly("2 CREATED", "1 CREATED", "1 BLOCKED");
+        assertThat(table).isEmpty();
+    }
+    
+    @Test
+    void givesUpAfterMaxAttemptsAndKeepsThePostHeldBack() {
+        add(1L, ChangeType.UPDATED);
+        add(1L, ChangeType.BLOCKED);
+        subscriber.failing.add(1L);
+        
+        for (int attempt = 1; attempt < PostOutbox.MAX_ATTEMPTS; attempt++) {
+            outbox.deliverBatch(100);
+            assertThat(subscriber.abandoned).isEmpty();
+        }
+        outbox.deliverBatch(100);
+        
+        assertThat(subscriber.abandoned).containsExactly(1L);
+        assertThat(table.getFirst().getAttempts()).isEqualTo(PostOutbox.MAX_ATTEMPTS);
+        
+        subscriber.failing.clear();
+        add(2L, ChangeType.CREATED);
+        assertThat(outbox.deliverBatch(100)).isEqualTo(1);
+        
+        assertThat(subscriber.delivered).containsExactly("2 CREATED");
+        assertThat(subscriber.abandoned).containsExactly(1L);
+        assertThat(table).extracting(PostOutboxEntry::getChangeType)
+            .containsExactly(ChangeType.UPDATED, ChangeType.BLOCKED);
+    }
+    
+    @Test
+    void unreadablePayloadCountsAsFailedDelivery() {
+        table.add(PostOutboxEntry.builder()
+            .id(1L)
+            .postId(1L)
+            .changeType(ChangeType.UPDATED)
+            .payload("{not json")
+            .build());
+        add(2L, ChangeType.CREATED);
+        
+        assertThat(outbox.deliverBatch(100)).isEqualTo(1);
+        
+        assertThat(subscriber.delivered).containsExactly("2 CREATED");
+        assertThat(table).singleElement()
+            .satisfies(entry -> assertThat(entry.getAttempts()).isEqualTo(1));
+    }
+    
+    private List<PostOutboxEntry> pending(int maxAttempts, Pageable pageable) {
+        Set<Long> givenUp = new HashSet<>();
+        List<PostOutboxEntry> pending = new ArrayList<>();
+        for (PostOutboxEntry entry : table) {
+            if (entry.getAttempts() >= maxAttempts) {
+                givenUp.add(entry.getPostId());
+            }
+            if (!givenUp.contains(entry.getPostId()) && pending.size() < pageable.getPageSize()) {
+                pending.add(entry);
+            }
+        }
+        return pending;
+    }
+    
+    private void add(Long postId, ChangeType type) {
+        PostSnapshot snapshot = new PostSnapshot(postId, Post.PostStatus.ACTIVE, Post.PostType.SELL,
+            Post.PostCondition.NEW, "Post " + postId, null, 1L, "Consoles", null, 1L, "Riyadh", null, 1L, null,
+            BigDecimal.TEN, null, null, NOW, NOW);
+        try {
+            table.add(PostOutboxEntry.builder()
+                .id(table.stream().mapToLong(PostOutboxEntry::getId).max().orElse(0) + 1)
+                .postId(postId)
+                .changeType(type)
+                .payload(objectMapper.writeValueAsString(snapshot))
+                .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static class RecordingSubscriber implements PostOutboxSubscriber {
+        
+        final List<String> delivered = new ArrayList<>();
+        final List<Long> abandoned = new ArrayList<>();
+        final Set<Long> failing = new HashSet<>();
+        
+        @Override
+        public void onPostChanged(PostChangedEvent event) {
+            if (failing.contains(event.postId())) {
+                throw new IllegalStateException("Subscriber down");
+            }
+            delivered.add(event.postId() + " " + event.type());
+        }
+        
+        @Override
+        public void onDeliveryAbandoned(Long postId) {
+            abandoned.add(postId);
+        }
+    }
+}
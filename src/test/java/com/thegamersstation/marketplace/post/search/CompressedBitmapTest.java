@@ -0,0 +1,111 @@
+package com.thegamersstation.marketplace.post.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedBitmapTest {
+    
+    @Test
+    void addsRemovesAndContains() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(5);
+        bitmap.add(70_000);
+        bitmap.add(5);
+        
+        assertThat(bitmap.contains(5)).isTrue();
+        assertThat(bitmap.contains(70_000)).isTrue();
+        assertThat(bitmap.contains(6)).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(2);
+        
+        bitmap.remove(5);
+        bitmap.remove(70_000);
+        bitmap.remove(123);
+        
+        assertThat(bitmap.isEmpty()).isTrue();
+        assertThat(bitmap.toArray()).isEmpty();
+    }
+    
+    @Test
+    void keepsValuesAcrossDenseAndSparseChunks() {
+        // 10_000 values in one chunk exceed the array limit and switch it to a bitmap
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        for (int value = 0; value < 20_000; value += 2) {
+            bitmap.add(value);
+            expected.set(value);
+        }
+        assertThat(bitmap.toArray()).isEqualTo(expected.stream().toArray());
+        
+        // and removing most of them switches it back
+        for (int value = 0; value < 19_000; value += 2) {
+            bitmap.remove(value);
+            expected.clear(value);
+        }
+        assertThat(bitmap.cardinality()).isEqualTo(expected.cardinality());
+        assertThat(bitmap.toArray()).isEqualTo(expected.stream().toArray());
+    }
+    
+    @Test
+    void buildsFromSortedValues() {
+        int[] values = {1, 2, 65_535, 65_536, 1_000_000};
+        
+        assertThat(CompressedBitmap.of(values).toArray()).containsExactly(values);
+    }
+    
+    @Test
+    void matchesBitSetForAndOr() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            BitSet left = randomSet(random);
+            BitSet right = randomSet(random);
+            CompressedBitmap a = toBitmap(left);
+            CompressedBitmap b = toBitmap(right);
+            
+            BitSet and = (BitSet) left.clone();
+            and.and(right);
+            BitSet or = (BitSet) left.clone();
+            or.or(right);
+            
+            assertThat(a.and(b).toArray()).isEqualTo(and.stream().toArray());
+            assertThat(a.andCardinality(b)).isEqualTo(and.cardinality());
+            assertThat(a.or(b).toArray()).isEqualTo(or.stream().toArray());
+            // the operands are left untouched
+            assertThat(a.toArray()).isEqualTo(left.stream().toArray());
+            assertThat(b.toArray()).isEqualTo(right.stream().toArray());
+        }
+    }
+    
+    @Test
+    void copiesAreIndependent() {
+        CompressedBitmap original = CompressedBitmap.of(new int[] {1, 2, 3});
+        CompressedBitmap copy = original.copy();
+        
+        copy.add(4);
+        copy.remove(1);
+        
+        assertThat(original.toArray()).containsExactly(1, 2, 3);
+        assertThat(copy.toArray()).containsExactly(2, 3, 4);
+    }
+    
+    /**
+     * Mix of sparse and dense chunks over the first few 65536-value chunks.
+     */
+    private static BitSet randomSet(Random random) {
+        BitSet set = new BitSet();
+        for (int chunk = 0; chunk < 4; chunk++) {
+            int count = random.nextBoolean() ? random.nextInt(100) : 5_000 + random.nextInt(20_000);
+            for (int i = 0; i < count; i++) {
+                set.set(chunk * 65_536 + random.nextInt(65_536));
+            }
+        }
+        return set;
+    }
+    
+    private static CompressedBitmap toBitmap(BitSet set) {
+        return CompressedBitmap.of(set.stream().toArray());
+    }
+}
@@ -0,0 +1,65 @@
+package com.thegamersstation.marketplace.post.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTest {
+    
+    @Test
+    void countsExactlyWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(1_024);
+        for (int i = 0; i < 5; i++) {
+            sketch.add("ps5");
+        }
+        sketch.add("xbox");
+        
+        assertThat(sketch.estimate("ps5")).isEqualTo(5);
+        assertThat(sketch.estimate("xbox")).isEqualTo(1);
+        assertThat(sketch.estimate("switch")).isZero();
+    }
+    
+    @Test
+    void neverUnderestimatesAndStaysWithinTheErrorBound() {
+        int width = 256;
+        CountMinSketch sketch = new CountMinSketch(width);
+        Map<Integer, Integer> counts = new HashMap<>();
+        Random random = new Random(3);
+        int total = 50_000;
+        for (int i = 0; i < total; i++) {
+            int key = (int) (Math.pow(random.nextDouble(), 3) * 10_000);
+            sketch.add(key);
+            counts.merge(key, 1, Integer::sum);
+        }
+        
+        int withinBound = 0;
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() <= 2L * total / width) {
+                withinBound++;
+            }
+        }
+        assertThat(withinBound).isGreaterThanOrEqualTo((int) (counts.size() * 0.95));
+    }
+    
+    @Test
+    void roundsTheWidthUpToAPowerOfTwo() {
+        CountMinSketch requested = new CountMinSketch(1_000);
+        CountMinSketch powerOfTwo = new CountMinSketch(1_024);
+        Random random = new Random(4);
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(50_000);
+            requested.add(key);
+            powerOfTwo.add(key);
+        }
+        
+        for (int key = 0; key < 1_000; key++) {
+            assertThat(requested.estimate(key)).isEqualTo(powerOfTwo.estimate(key));
+        }
+    }
+}
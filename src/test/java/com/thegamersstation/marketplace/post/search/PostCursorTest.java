@@ -0,0 +1,77 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.common.exception.BusinessRuleException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostCursorTest {
+    
+    @Test
+    void roundTripsCreatedAtCursors() {
+        PostCursor cursor = new PostCursor(PostCursor.SortKey.NEWEST, LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_000_000), null, 42L);
+        
+        PostCursor decoded = PostCursor.decode(cursor.encode(), PostCursor.SortKey.NEWEST);
+        
+        assertThat(decoded).isEqualTo(cursor);
+    }
+    
+    @Test
+    void roundTripsPriceCursors() {
+        PostCursor cursor = new PostCursor(PostCursor.SortKey.PRICE_ASC, null, new BigDecimal("1499.50"), 7L);
+        
+        PostCursor decoded = PostCursor.decode(cursor.encode(), PostCursor.SortKey.PRICE_ASC);
+        
+        assertThat(decoded).isEqualTo(cursor);
+    }
+    
+    @Test
+    void encodesUrlSafely() {
+        PostCursor cursor = new PostCursor(PostCursor.SortKey.OLDEST, LocalDateTime.of(2025, 12, 31, 23, 59), null, Long.MAX_VALUE);
+        
+        assertThat(cursor.encode()).matches("[A-Za-z0-9_-]+");
+    }
+    
+    @Test
+    void treatsBlankCursorAsFirstPage() {
+        assertThat(PostCursor.decode(null, PostCursor.SortKey.NEWEST)).isNull();
+        assertThat(PostCursor.decode(" ", PostCursor.SortKey.NEWEST)).isNull();
+    }
+    
+    @Test
+    void rejectsCursorOfAnotherSortOrder() {
+        String cursor = new PostCursor(PostCursor.SortKey.NEWEST, LocalDateTime.of(2025, 1, 1, 0, 0), null, 1L).encode();
+        
+        assertThatThrownBy(() -> PostCursor.decode(cursor, PostCursor.SortKey.OLDEST))
+            .isInstanceOf(BusinessRuleException.class)
+            .hasMessageContaining("sort order");
+    }
+    
+    @Test
+    void rejectsMalformedCursors() {
+        String unknownSort = Base64.getUrlEncoder().encodeToString("RANDOM|x|1".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().encodeToString("NEWEST|2025-01-01T00:00|abc".getBytes(StandardCharsets.UTF_8));
+        
+        for (String cursor : new String[] {"not base64!", unknownSort, badId}) {
+            assertThatThrownBy(() -> PostCursor.decode(cursor, PostCursor.SortKey.NEWEST))
+                .isInstanceOf(BusinessRuleException.class)
+                .hasMessage("Invalid cursor");
+        }
+    }
+    
+    @Test
+    void mapsListingSortsToKeysetOrders() {
+        assertThat(PostCursor.SortKey.from(Sort.unsorted())).isEqualTo(PostCursor.SortKey.NEWEST);
+        assertThat(PostCursor.SortKey.from(Sort.by(Sort.Direction.DESC, "price"))).isEqualTo(PostCursor.SortKey.PRICE_DESC);
+        assertThat(PostCursor.SortKey.from(Sort.by(Sort.Direction.ASC, "createdAt"))).isEqualTo(PostCursor.SortKey.OLDEST);
+        assertThatThrownBy(() -> PostCursor.SortKey.from(Sort.by("title")))
+            .isInstanceOf(BusinessRuleException.class);
+    }
+}
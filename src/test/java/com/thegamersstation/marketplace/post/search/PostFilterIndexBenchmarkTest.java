@@ -0,0 +1,93 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.benchmark.LatencyBenchmark;
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Filter searches on {@link PostFilterIndex} against a row-by-row scan that
+ * filters every ACTIVE post and sorts the matches, which is what MySQL falls
+ * back to for the nullable {@code searchPosts} predicates.
+ */
+@Tag(LatencyBenchmark.TAG)
+class PostFilterIndexBenchmarkTest {
+    
+    private static final int POSTS = 200_000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+    
+    @Test
+    void filterSearch() {
+        Random random = new Random(1);
+        List<PostSnapshot> posts = new ArrayList<>(POSTS);
+        for (int id = 1; id <= POSTS; id++) {
+            posts.add(post(id, random));
+        }
+        PostFilterIndex index = new PostFilterIndex();
+        index.rebuild(posts::stream);
+        
+        List<PostSearchCriteria> queries = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            queries.add(new PostSearchCriteria(
+                null,
+                Set.of(1L + random.nextInt(40)),
+                random.nextBoolean() ? Set.of(1L + random.nextInt(60)) : null,
+                null,
+                random.nextBoolean() ? Post.PostType.SELL : null,
+                random.nextInt(3) == 0 ? Post.PostCondition.values()[random.nextInt(5)] : null,
+                random.nextBoolean() ? BigDecimal.valueOf(random.nextInt(500)) : null,
+                null
+            ));
+        }
+        Pageable newest = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Comparator<PostSnapshot> byNewest = Comparator.comparing(PostSnapshot::createdAt).reversed();
+        
+        LatencyBenchmark.run("PostFilterIndex.search", 2_000, 20_000,
+            i -> index.search(queries.get(i & 255), newest));
+        LatencyBenchmark.run("row scan", 50, 500,
+            i -> {
+                PostSearchCriteria criteria = queries.get(i & 255);
+                return posts.stream()
+                    .filter(criteria::matches)
+                    .sorted(byNewest)
+                    .limit(20)
+                    .toList();
+            });
+    }
+    
+    private static PostSnapshot post(long id, Random random) {
+        return new PostSnapshot(
+            id,
+            Post.PostStatus.ACTIVE,
+            random.nextInt(5) == 0 ? Post.PostType.ASK : Post.PostType.SELL,
+            Post.PostCondition.values()[random.nextInt(5)],
+            "Post " + id,
+            null,
+            1L + random.nextInt(40),
+            null,
+            null,
+            1L + random.nextInt(60),
+            null,
+            null,
+            1L + random.nextInt(13),
+            null,
+            BigDecimal.valueOf(random.nextInt(5_000)),
+            null,
+            null,
+            NOW.minusMinutes(POSTS - id),
+            NOW.minusMinutes(POSTS - id)
+        );
+    }
+}
@@ -0,0 +1,156 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostFilterIndexTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+    
+    private final PostFilterIndex index = new PostFilterIndex();
+    
+    @Test
+    void intersectsFilters() {
+        index.index(post(1, 10L, 1L, Post.PostType.SELL, "100", NOW));
+        index.index(post(2, 10L, 2L, Post.PostType.SELL, "100", NOW));
+        index.index(post(3, 10L, 1L, Post.PostType.ASK, "100", NOW));
+        index.index(post(4, 20L, 1L, Post.PostType.SELL, "100", NOW));
+        
+        Page<Long> page = index.search(
+            new PostSearchCriteria(null, Set.of(10L), Set.of(1L), null, Post.PostType.SELL, null, null, null),
+            PageRequest.of(0, 10));
+        
+        assertThat(page.getContent()).containsExactly(1L);
+        assertThat(page.getTotalElements()).isEqualTo(1);
+    }
+    
+    @Test
+    void ordersByCreatedAtThenId() {
+        index.index(post(1, 10L, 1L, Post.PostType.SELL, "100", NOW.minusDays(1)));
+        index.index(post(2, 10L, 1L, Post.PostType.SELL, "100", NOW));
+        index.index(post(3, 10L, 1L, Post.PostType.SELL, "100", NOW));
+        index.index(post(4, 10L, 1L, Post.PostType.SELL, "100", null));
+        
+        assertThat(index.search(criteria(null), PageRequest.of(0, 10)).getContent())
+            .containsExactly(3L, 2L, 1L, 4L);
+        assertThat(index.search(criteria(null), PageRequest.of(0, 10, Sort.by("createdAt"))).getContent())
+            .containsExactly(4L, 1L, 2L, 3L);
+    }
+    
+    @Test
+    void pagesThroughNewestFirst() {
+        LongStream.rangeClosed(1, 50)
+            .forEach(id -> index.index(post(id, 10L, 1L, Post.PostType.SELL, "100", NOW.minusMinutes(id % 7))));
+        
+        Page<Long> first = index.search(criteria(null), PageRequest.of(0, 20));
+        Page<Long> second = index.search(criteria(null), PageRequest.of(1, 20));
+        
+        assertThat(first.getTotalElements()).isEqualTo(50);
+        assertThat(first.getContent()).hasSize(20).doesNotContainAnyElementsOf(second.getContent());
+        assertThat(first.getContent().subList(0, 3)).containsExactly(49L, 42L, 35L);
+    }
+    
+    @Test
+    void appliesPriceBoundsWhetherFewOrManyPostsMatch() {
+        // Category 10 holds one post in a hundred, so its price bound is checked post by post
+        LongStream.rangeClosed(1, 1_000).forEach(id -> index.index(
+            post(id, id % 100 == 0 ? 10L : 20L, 1L, Post.PostType.SELL, String.valueOf(id), NOW)));
+        
+        Page<Long> sparse = index.search(
+            new PostSearchCriteria(null, Set.of(10L), null, null, null, null, new BigDecimal("250"), new BigDecimal("600")),
+            PageRequest.of(0, 10, Sort.by("price")));
+        Page<Long> dense = index.search(
+            new PostSearchCriteria(null, null, null, null, null, null, new BigDecimal("250"), new BigDecimal("259.99")),
+            PageRequest.of(0, 20, Sort.by("price")));
+        
+        assertThat(sparse.getContent()).containsExactly(300L, 400L, 500L, 600L);
+        assertThat(dense.getContent()).containsExactly(250L, 251L, 252L, 253L, 254L, 255L, 256L, 257L, 258L, 259L);
+    }
+    
+    @Test
+    void matchesAskPostsByPriceRange() {
+        index.index(ask(1, "100", "300"));
+        index.index(ask(2, "400", null));
+        index.index(ask(3, null, null));
+        
+        Page<Long> page = index.search(criteria(new BigDecimal("250")), PageRequest.of(0, 10, Sort.by("price")));
+        
+        assertThat(page.getContent()).containsExactlyInAnyOrder(1L, 2L);
+    }
+    
+    @Test
+    void ordersPricesLoadedByARebuild() {
+        index.rebuild(() -> Stream.of(
+            post(1, 10L, 1L, Post.PostType.SELL, "300", NOW),
+            post(2, 10L, 1L, Post.PostType.SELL, "100", NOW),
+            ask(3, "50", "60"),
+            post(4, 10L, 1L, Post.PostType.SELL, "200", NOW)
+        ));
+        index.index(post(5, 10L, 1L, Post.PostType.SELL, "150", NOW));
+        
+        assertThat(index.search(criteria(null), PageRequest.of(0, 10, Sort.by("price"))).getContent())
+            .containsExactly(2L, 5L, 4L, 1L, 3L);
+        assertThat(index.search(criteria(new BigDecimal("55")), PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price"))).getContent())
+            .containsExactly(1L, 4L, 5L, 2L, 3L);
+    }
+    
+    private static PostSearchCriteria criteria(BigDecimal minPrice) {
+        return new PostSearchCriteria(null, null, null, null, null, null, minPrice, null);
+    }
+    
+    private static PostSnapshot post(long id, Long categoryId, Long cityId, Post.PostType type, String price, LocalDateTime createdAt) {
+        return snapshot(id, categoryId, cityId, type, new BigDecimal(price), null, null, createdAt);
+    }
+    
+    private static PostSnapshot ask(long id, String priceMin, String priceMax) {
+        return snapshot(id, 10L, 1L, Post.PostType.ASK, null,
+            priceMin != null ? new BigDecimal(priceMin) : null,
+            priceMax != null ? new BigDecimal(priceMax) : null,
+            NOW);
+    }
+    
+    private static PostSnapshot snapshot(
+        long id,
+        Long categoryId,
+        Long cityId,
+        Post.PostType type,
+        BigDecimal price,
+        BigDecimal priceMin,
+        BigDecimal priceMax,
+        LocalDateTime createdAt
+    ) {
+        return new PostSnapshot(
+            id,
+            Post.PostStatus.ACTIVE,
+            type,
+            Post.PostCondition.NEW,
+            "Post " + id,
+            null,
+            categoryId,
+            null,
+            null,
+            cityId,
+            null,
+            null,
+            1L,
+            null,
+            price,
+            priceMin,
+            priceMax,
+            createdAt,
+            createdAt
+        );
+    }
+}
@@ -0,0 +1,148 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.category.CategoryTreeChangedEvent;
+import com.thegamersstation.marketplace.common.dto.CountMode;
+import com.thegamersstation.marketplace.common.dto.PageResponseDto;
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.dto.PostDto;
+import com.thegamersstation.marketplace.post.event.PostChangedEvent;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import com.thegamersstation.marketplace.store.StoreChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostResultCacheTest {
+    
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+    
+    private final AtomicInteger loads = new AtomicInteger();
+    
+    @Test
+    void servesRepeatedRequestsFromTheCache() {
+        PostResultCache cache = new PostResultCache(true, 60, 120, 1_000);
+        
+        PageResponseDto<PostDto> first = get(cache, criteria(10L), this::load);
+        PageResponseDto<PostDto> second = get(cache, criteria(10L), this::load);
+        
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+    
+    @Test
+    void servesStaleEntryWhileOneRefreshRuns() throws InterruptedException {
+        PostResultCache cache = new PostResultCache(true, 0, 120, 1_000);
+        CountDownLatch refreshMayFinish = new CountDownLatch(1);
+        // Every entry is stale at once, so the refresh starts on the first request; hold it back
+        PageResponseDto<PostDto> stale = get(cache, criteria(10L), () -> {
+            if (loads.get() > 0) {
+                await(refreshMayFinish);
+            }
+            return load();
+        });
+        
+        PageResponseDto<PostDto> served = get(cache, criteria(10L), this::load);
+        
+        assertThat(served).isSameAs(stale);
+        refreshMayFinish.countDown();
+        PageResponseDto<PostDto> refreshed = served;
+        for (int i = 0; i < 200 && refreshed == stale; i++) {
+            Thread.sleep(10);
+            refreshed = get(cache, criteria(10L), () -> {
+                throw new AssertionError("Entries are only recomputed by the refresh");
+            });
+        }
+        assertThat(refreshed).isNotSameAs(stale);
+        assertThat(loads.get()).isGreaterThanOrEqualTo(2);
+    }
+    
+    @Test
+    void evictsOnlyEntriesThatCouldContainTheChangedPost() {
+        PostResultCache cache = new PostResultCache(true, 60, 120, 1_000);
+        PageResponseDto<PostDto> category10 = get(cache, criteria(10L), this::load);
+        PageResponseDto<PostDto> category20 = get(cache, criteria(20L), this::load);
+        
+        cache.onPostChanged(new PostChangedEvent(PostChangedEvent.ChangeType.APPROVED, snapshot(99L, 10L)));
+        
+        assertThat(get(cache, criteria(10L), this::load)).isNotSameAs(category10);
+        assertThat(get(cache, criteria(20L), this::load)).isSameAs(category20);
+    }
+    
+    @Test
+    void evictsPagesShowingAChangedStoreOrCategory() {
+        PostResultCache cache = new PostResultCache(true, 60, 120, 1_000);
+        PageResponseDto<PostDto> storePage = get(cache, criteria(10L), () -> page(PostDto.builder()
+            .id(1L)
+            .categoryId(10L)
+            .store(PostDto.StoreInfoDto.builder().id(7L).build())
+            .build()));
+        PageResponseDto<PostDto> otherPage = get(cache, criteria(20L), () -> page(PostDto.builder()
+            .id(2L)
+            .categoryId(20L)
+            .build()));
+        
+        cache.onStoreChanged(new StoreChangedEvent(8L));
+        cache.onCategoryChanged(new CategoryTreeChangedEvent(30L));
+        
+        assertThat(get(cache, criteria(10L), this::load)).isSameAs(storePage);
+        assertThat(get(cache, criteria(20L), this::load)).isSameAs(otherPage);
+        
+        cache.onStoreChanged(new StoreChangedEvent(7L));
+        cache.onCategoryChanged(new CategoryTreeChangedEvent(20L));
+        
+        assertThat(get(cache, criteria(10L), this::load)).isNotSameAs(storePage);
+        assertThat(get(cache, criteria(20L), this::load)).isNotSameAs(otherPage);
+    }
+    
+    @Test
+    void bypassesTheCacheWhenDisabled() {
+        PostResultCache cache = new PostResultCache(false, 60, 120, 1_000);
+        
+        get(cache, criteria(10L), this::load);
+        get(cache, criteria(10L), this::load);
+        
+        assertThat(loads).hasValue(2);
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private PageResponseDto<PostDto> load() {
+        loads.incrementAndGet();
+        return page(PostDto.builder().id(1L).build());
+    }
+    
+    private static PageResponseDto<PostDto> page(PostDto post) {
+        return PageResponseDto.of(new PageImpl<>(List.of(post), FIRST_PAGE, 1));
+    }
+    
+    private static PageResponseDto<PostDto> get(PostResultCache cache, PostSearchCriteria criteria, Supplier<PageResponseDto<PostDto>> loader) {
+        return cache.get(PostResultCache.Listing.FILTER, criteria, FIRST_PAGE, CountMode.EXACT, loader);
+    }
+    
+    private static PostSearchCriteria criteria(Long categoryId) {
+        return new PostSearchCriteria(null, Set.of(categoryId), null, null, null, null, null, null);
+    }
+    
+    private static PostSnapshot snapshot(Long id, Long categoryId) {
+        LocalDateTime now = LocalDateTime.now();
+        return new PostSnapshot(id, Post.PostStatus.ACTIVE, Post.PostType.SELL, Post.PostCondition.NEW,
+            "Post", null, categoryId, null, null, 1L, null, null, 1L, null, null, null, null, now, now);
+    }
+}
@@ -0,0 +1,161 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSearchIndexTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+    
+    private final PostSearchIndex index = new PostSearchIndex();
+    
+    @Test
+    void requiresEveryTerm() {
+        index.index(post(1, "PlayStation 5 console", 10L, "1500"));
+        index.index(post(2, "PlayStation 4 controller", 10L, "150"));
+        index.index(post(3, "Xbox controller", 10L, "120"));
+        
+        assertThat(index.matchingPostIds("playstation controller")).containsExactly(2);
+        assertThat(index.matchingPostIds("controller")).containsExactly(2, 3);
+        assertThat(index.matchingPostIds("nintendo")).isEmpty();
+        assertThat(index.matchingPostIds("  ")).isNull();
+    }
+    
+    @Test
+    void matchesPrefixes() {
+        index.index(post(1, "PlayStation 5", 10L, "1500"));
+        index.index(post(2, "Playmobil set", 10L, "80"));
+        
+        assertThat(index.matchingPostIds("play")).containsExactly(1, 2);
+        assertThat(index.matchingPostIds("playst")).containsExactly(1);
+    }
+    
+    @Test
+    void expandsEveryTermSharingAPrefix() {
+        // 200 distinct terms starting with "game", more than any fixed expansion budget
+        IntStream.rangeClosed(1, 200)
+            .forEach(id -> index.index(post(id, "game" + id, 10L, "100")));
+        
+        Page<Long> page = index.search(criteria("game", null), PageRequest.of(0, 10));
+        
+        assertThat(page.getTotalElements()).isEqualTo(200);
+        assertThat(index.matchingPostIds("game")).hasSize(200);
+    }
+    
+    @Test
+    void appliesFiltersAndSorts() {
+        index.index(post(1, "Controller", 10L, "150"));
+        index.index(post(2, "Controller", 20L, "90"));
+        index.index(post(3, "Controller", 10L, "60"));
+        
+        Page<Long> page = index.search(criteria("controller", Set.of(10L)),
+            PageRequest.of(0, 10, Sort.by("price")));
+        
+        assertThat(page.getContent()).containsExactly(3L, 1L);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+    
+    @Test
+    void ranksTitleMatchesFirst() {
+        index.index(snapshot(1, "Gaming chair", "Works with any console", 10L, "300"));
+        index.index(snapshot(2, "Console stand", "Fits most models", 10L, "40"));
+        
+        Page<Long> page = index.search(criteria("console", null),
+            PageRequest.of(0, 10, Sort.by("relevance")));
+        
+        assertThat(page.getContent()).containsExactly(2L, 1L);
+    }
+    
+    @Test
+    void removesPostsThatAreNoLongerActive() {
+        index.index(post(1, "Controller", 10L, "150"));
+        
+        index.index(withStatus(post(1, "Controller", 10L, "150"), Post.PostStatus.SOLD));
+        
+        assertThat(index.matchingPostIds("controller")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+    
+    @Test
+    void keepsChangesMadeWhileTheRebuildQueryOpens() {
+        PostSnapshot committedMeanwhile = post(2, "Controller", 10L, "150");
+        
+        index.rebuild(() -> {
+            // A change committing between the rebuild starting and its query opening
+            index.index(committedMeanwhile);
+            return Stream.of(post(1, "Console", 10L, "1500"));
+        });
+        
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.matchingPostIds("controller")).containsExactly(2);
+        assertThat(index.matchingPostIds("console")).containsExactly(1);
+    }
+    
+    private static PostSearchCriteria criteria(String query, Set<Long> categoryIds) {
+        return new PostSearchCriteria(query, categoryIds, null, null, null, null, null, null);
+    }
+    
+    private static PostSnapshot post(long id, String title, Long categoryId, String price) {
+        return snapshot(id, title, null, categoryId, price);
+    }
+    
+    private static PostSnapshot snapshot(long id, String title, String description, Long categoryId, String price) {
+        return new PostSnapshot(
+            id,
+            Post.PostStatus.ACTIVE,
+            Post.PostType.SELL,
+            Post.PostCondition.NEW,
+            title,
+            description,
+            categoryId,
+            "Category",
+            null,
+            1L,
+            "Riyadh",
+            null,
+            1L,
+            null,
+            new BigDecimal(price),
+            null,
+            null,
+            NOW.minusMinutes(id),
+            NOW.minusMinutes(id)
+        );
+    }
+    
+    private static PostSnapshot withStatus(PostSnapshot snapshot, Post.PostStatus status) {
+        return new PostSnapshot(
+            snapshot.id(),
+            status,
+            snapshot.type(),
+            snapshot.condition(),
+            snapshot.title(),
+            snapshot.description(),
+            snapshot.categoryId(),
+            snapshot.categoryNameEn(),
+            snapshot.categoryNameAr(),
+            snapshot.cityId(),
+            snapshot.cityNameEn(),
+            snapshot.cityNameAr(),
+            snapshot.regionId(),
+            snapshot.storeId(),
+            snapshot.price(),
+            snapshot.priceMin(),
+            snapshot.priceMax(),
+            snapshot.createdAt(),
+            snapshot.updatedAt()
+        );
+    }
+}
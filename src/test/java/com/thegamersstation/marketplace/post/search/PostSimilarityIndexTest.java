@@ -0,0 +1,128 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PostSimilarityIndexTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+    
+    @Test
+    void signaturesEstimateJaccardSimilarity() {
+        Set<String> first = words(0, 100);
+        Set<String> second = words(50, 150);
+        
+        assertThat(estimate(first, first)).isEqualTo(1.0);
+        // 50 shared terms out of 150
+        assertThat(estimate(first, second)).isCloseTo(1.0 / 3, within(0.2));
+        assertThat(estimate(first, words(200, 300))).isLessThan(0.1);
+    }
+    
+    @Test
+    void findsNearDuplicatesAmongUnrelatedPosts() {
+        Random random = new Random(3);
+        List<PostSnapshot> posts = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            posts.add(post(id, randomTitle(random), 1L, 1L));
+        }
+        posts.add(post(5_000L, "sony playstation five console digital edition with two controllers", 1L, 1L));
+        posts.add(post(5_001L, "sony playstation five console digital edition with one controller", 1L, 1L));
+        PostSimilarityIndex index = new PostSimilarityIndex();
+        index.rebuild(posts::stream);
+        
+        assertThat(index.similar(5_000L, 5)).first().isEqualTo(5_001L);
+        assertThat(index.similar(5_001L, 5)).first().isEqualTo(5_000L);
+        assertThat(index.similar(42L, 5)).doesNotContain(5_000L, 5_001L);
+    }
+    
+    @Test
+    void takesOnlyTheNewestPostsOfABucket() {
+        PostSimilarityIndex index = new PostSimilarityIndex();
+        // Indexed newest first, so every bucket has to drop the older ones
+        index.rebuild(() -> IntStream.rangeClosed(1, 200)
+            .mapToObj(id -> post(201L - id, "nintendo switch oled white", 1L, 1L)));
+        
+        assertThat(index.similar(200L, 3)).containsExactly(199L, 198L, 197L);
+        assertThat(index.similar(1L, 200))
+            .hasSize(64)
+            .allSatisfy(id -> assertThat(id).isGreaterThan(136L));
+    }
+    
+    @Test
+    void boostsSameCategoryOverSameCity() {
+        PostSimilarityIndex index = new PostSimilarityIndex();
+        index.rebuild(() -> List.of(
+            post(1L, "xbox series x bundle", 1L, 1L),
+            post(2L, "xbox series x bundle", 1L, 2L),
+            post(3L, "xbox series x bundle", 2L, 1L),
+            post(4L, "xbox series x bundle", 2L, 2L)
+        ).stream());
+        
+        // Equal text, so the boosts decide over the newer id
+        assertThat(index.similar(1L, 3)).containsExactly(2L, 3L, 4L);
+    }
+    
+    @Test
+    void removedAndChangedPostsLeaveTheirBuckets() {
+        PostSimilarityIndex index = new PostSimilarityIndex();
+        index.rebuild(() -> List.of(
+            post(1L, "logitech g pro wireless mouse", 1L, 1L),
+            post(2L, "logitech g pro wireless mouse", 1L, 1L),
+            post(3L, "logitech g pro wireless mouse", 1L, 1L)
+        ).stream());
+        
+        index.remove(2L);
+        index.index(post(3L, "samsung odyssey curved monitor", 1L, 1L));
+        
+        assertThat(index.similar(1L, 5)).isEmpty();
+        assertThat(index.similar(2L, 5)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+    
+    private static double estimate(Set<String> first, Set<String> second) {
+        short[] a = PostSimilarityIndex.signature(first);
+        short[] b = PostSimilarityIndex.signature(second);
+        int equal = 0;
+        for (int i = 0; i < PostSimilarityIndex.HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / PostSimilarityIndex.HASHES;
+    }
+    
+    private static Set<String> words(int from, int to) {
+        Set<String> words = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            words.add("word" + i);
+        }
+        return words;
+    }
+    
+    private static String randomTitle(Random random) {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            title.append(i > 0 ? " " : "").append("term").append(random.nextInt(20_000));
+        }
+        return title.toString();
+    }
+    
+    private static PostSnapshot post(Long id, String title, Long categoryId, Long cityId) {
+        return new PostSnapshot(id, Post.PostStatus.ACTIVE, Post.PostType.SELL, Post.PostCondition.NEW,
+            title, null, categoryId, "Consoles", null, cityId, "Riyadh", null, 1L, null, BigDecimal.TEN, null, null,
+            NOW, NOW);
+    }
+}
@@ -0,0 +1,120 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.benchmark.LatencyBenchmark;
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Autocompletion on {@link PostSuggestIndex} over 200k synthetic posts whose
+ * titles draw on a vocabulary of about 50k words, queried with one- to
+ * five-letter prefixes as typed in the search box. The second run indexes a
+ * post every 50 queries, which updates the cached rankings it touches in place.
+ */
+@Tag(LatencyBenchmark.TAG)
+class PostSuggestIndexBenchmarkTest {
+    
+    private static final int POSTS = 200_000;
+    private static final int WORDS = 50_000;
+    private static final long P99_TARGET_NANOS = 1_000_000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final String[] COMMON = {
+        "playstation", "ps5", "ps4", "xbox", "series", "nintendo", "switch", "controller", "console",
+        "game", "games", "gaming", "headset", "keyboard", "mouse", "monitor", "graphics", "card", "edition",
+        "new", "used", "sealed", "bundle", "digital", "pro", "slim", "limited", "collector"
+    };
+    private static final String[] SYLLABLES = {
+        "ka", "ri", "mo", "ta", "ne", "sho", "zu", "la", "vex", "dor", "fi", "gra", "pul", "tek", "sa", "ron"
+    };
+    
+    @Test
+    void suggest() {
+        Random random = new Random(1);
+        String[] words = vocabulary(random);
+        List<PostSnapshot> posts = new ArrayList<>(POSTS);
+        for (int id = 1; id <= POSTS; id++) {
+            posts.add(post(id, words, random));
+        }
+        PostSuggestIndex index = new PostSuggestIndex();
+        index.rebuild(posts::stream);
+        
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 4_096; i++) {
+            String word = random.nextInt(3) == 0 ? COMMON[random.nextInt(COMMON.length)] : words[random.nextInt(WORDS)];
+            String prefix = word.substring(0, Math.min(word.length(), 1 + random.nextInt(5)));
+            queries.add(random.nextInt(4) == 0 ? COMMON[random.nextInt(COMMON.length)] + " " + prefix : prefix);
+        }
+        
+        LatencyBenchmark.Result reads = LatencyBenchmark.run("PostSuggestIndex.suggest", 20_000, 100_000,
+            i -> index.suggest(queries.get(i & 4_095), 8));
+        LatencyBenchmark.Result mixed = LatencyBenchmark.run("PostSuggestIndex.suggest with writes", 20_000, 100_000,
+            i -> {
+                if (i % 50 == 0) {
+                    index.index(post(1 + random.nextInt(POSTS), words, random));
+                }
+                return index.suggest(queries.get(i & 4_095), 8);
+            });
+        
+        assertThat(reads.p99Nanos()).isLessThan(P99_TARGET_NANOS);
+        assertThat(mixed.p99Nanos()).isLessThan(P99_TARGET_NANOS);
+    }
+    
+    /**
+     * The common words, then made-up words of two to four syllables.
+     */
+    private static String[] vocabulary(Random random) {
+        String[] words = new String[WORDS];
+        System.arraycopy(COMMON, 0, words, 0, COMMON.length);
+        for (int i = COMMON.length; i < WORDS; i++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.append(i % 100).toString();
+        }
+        return words;
+    }
+    
+    private static PostSnapshot post(long id, String[] words, Random random) {
+        StringBuilder title = new StringBuilder(COMMON[random.nextInt(COMMON.length)]);
+        int length = 3 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            // Skewed towards the start of the vocabulary, like real titles
+            int word = (int) (Math.pow(random.nextDouble(), 3) * WORDS);
+            title.append(' ').append(words[word]);
+        }
+        long categoryId = 1L + random.nextInt(40);
+        long cityId = 1L + random.nextInt(60);
+        return new PostSnapshot(
+            id,
+            Post.PostStatus.ACTIVE,
+            Post.PostType.SELL,
+            Post.PostCondition.NEW,
+            title.toString(),
+            null,
+            categoryId,
+            "Category " + categoryId,
+            null,
+            cityId,
+            "City " + cityId,
+            null,
+            1L + cityId % 13,
+            null,
+            BigDecimal.valueOf(random.nextInt(5_000)),
+            null,
+            null,
+            NOW.minusMinutes(POSTS - id),
+            NOW.minusMinutes(POSTS - id)
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package com.thegamersstation.marketplace.post.search;
+
+import com.thegamersstation.marketplace.post.Post;
+import com.thegamersstation.marketplace.post.event.PostSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSuggestIndexTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+    
+    @Test
+    void ranksTermsByNumberOfPosts() {
+        PostSuggestIndex index = new PostSuggestIndex();
+        index.rebuild(() -> List.of(
+            post(1L, "PlayStation 5 console"),
+            post(2L, "PlayStation 4 games"),
+            post(3L, "Pokemon game")
+        ).stream());
+        
+        assertThat(index.suggest("p", 5).terms())
+            .extracting(PostSuggestIndex.Term::text)
+            .containsExactly("PlayStation", "Pokemon");
+        assertThat(index.suggest("p", 5).terms().get(0).count()).isEqualTo(2);
+    }
+    
+    @Test
+    void cachedRankingsFollowCountChanges() {
+        Random random = new Random(7);
+        Map<Long, PostSnapshot> posts = new HashMap<>();
+        for (long id = 1; id <= 2_000; id++) {
+            posts.put(id, post(id, title(random)));
+        }
+        PostSuggestIndex index = new PostSuggestIndex();
+        index.rebuild(() -> posts.values().stream());
+        // Over 256 terms start with "ka", so its ranking is cached and then updated in place
+        assertThat(index.suggest("ka", 20).terms()).hasSize(20);
+        
+        for (int i = 0; i < 3_000; i++) {
+            long id = 1 + random.nextInt(2_500);
+            if (random.nextInt(4) == 0) {
+                posts.remove(id);
+                index.remove(id);
+            } else {
+                PostSnapshot post = post(id, title(random));
+                posts.put(id, post);
+                index.index(post);
+            }
+            if (i % 100 == 0) {
+                PostSuggestIndex fresh = new PostSuggestIndex();
+                fresh.rebuild(() -> posts.values().stream());
+                for (String prefix : List.of("k", "ka", "ka1")) {
+                    assertThat(index.suggest(prefix, 20)).isEqualTo(fresh.suggest(prefix, 20));
+                }
+            }
+        }
+    }
+    
+    private static String title(Random random) {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            // Evenly spread words, so the top of a ranking keeps changing
+            int word = random.nextInt(300);
+            title.append(i > 0 ? " " : "").append("ka").append(word);
+        }
+        return title.toString();
+    }
+    
+    private static PostSnapshot post(Long id, String title) {
+        return new PostSnapshot(id, Post.PostStatus.ACTIVE, Post.PostType.SELL, Post.PostCondition.NEW,
+            title, null, 1L, "Consoles", null, 1L, "Riyadh", null, 1L, null, BigDecimal.TEN, null, null, NOW, NOW);
+    }
+}
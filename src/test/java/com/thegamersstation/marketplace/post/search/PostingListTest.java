@@ -0,0 +1,96 @@
+package com.thegamersstation.marketplace.post.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingListTest {
+    
+    @Test
+    void appendsIncreasingIds() {
+        PostingList list = new PostingList();
+        
+        assertThat(list.add(3)).isTrue();
+        assertThat(list.add(200)).isTrue();
+        assertThat(list.add(70_000)).isTrue();
+        
+        assertThat(list.toArray()).containsExactly(3, 200, 70_000);
+        assertThat(list.size()).isEqualTo(3);
+    }
+    
+    @Test
+    void insertsOutOfOrderIdsInPlace() {
+        PostingList list = new PostingList();
+        list.add(10);
+        list.add(30);
+        
+        assertThat(list.add(20)).isTrue();
+        assertThat(list.add(1)).isTrue();
+        
+        assertThat(list.toArray()).containsExactly(1, 10, 20, 30);
+    }
+    
+    @Test
+    void ignoresDuplicates() {
+        PostingList list = new PostingList();
+        list.add(5);
+        list.add(9);
+        
+        assertThat(list.add(5)).isFalse();
+        assertThat(list.add(9)).isFalse();
+        assertThat(list.toArray()).containsExactly(5, 9);
+    }
+    
+    @Test
+    void removesIds() {
+        PostingList list = new PostingList();
+        list.add(1);
+        list.add(2);
+        list.add(3);
+        
+        assertThat(list.remove(2)).isTrue();
+        assertThat(list.remove(2)).isFalse();
+        assertThat(list.remove(4)).isFalse();
+        assertThat(list.toArray()).containsExactly(1, 3);
+        
+        list.remove(1);
+        list.remove(3);
+        assertThat(list.isEmpty()).isTrue();
+        assertThat(list.toArray()).isEmpty();
+    }
+    
+    @Test
+    void keepsContentAfterTrim() {
+        PostingList list = new PostingList();
+        for (int id = 0; id < 1_000; id += 7) {
+            list.add(id);
+        }
+        int[] before = list.toArray();
+        
+        list.trim();
+        
+        assertThat(list.toArray()).containsExactly(before);
+        assertThat(list.add(2_000)).isTrue();
+        assertThat(list.toArray()).endsWith(2_000);
+    }
+    
+    @Test
+    void matchesSortedSetUnderRandomChanges() {
+        Random random = new Random(42);
+        PostingList list = new PostingList();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            int id = random.nextInt(1_000_000);
+            if (random.nextInt(4) == 0) {
+                assertThat(list.remove(id)).isEqualTo(expected.remove(id));
+            } else {
+                assertThat(list.add(id)).isEqualTo(expected.add(id));
+            }
+        }
+        
+        assertThat(list.toArray()).containsExactly(expected.stream().mapToInt(Integer::intValue).toArray());
+    }
+}
@@ -0,0 +1,116 @@
+package com.thegamersstation.marketplace.post.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceIndexTest {
+    
+    @Test
+    void convertsToCents() {
+        assertThat(PriceIndex.toCents(new BigDecimal("12.345"), RoundingMode.HALF_UP)).isEqualTo(1235L);
+        assertThat(PriceIndex.toCents(new BigDecimal("12.341"), RoundingMode.CEILING)).isEqualTo(1235L);
+        assertThat(PriceIndex.toCents(new BigDecimal("12.349"), RoundingMode.FLOOR)).isEqualTo(1234L);
+        assertThat(PriceIndex.toCents(new BigDecimal("1e30"), RoundingMode.FLOOR)).isEqualTo(Long.MAX_VALUE);
+        assertThat(PriceIndex.toCents(null, RoundingMode.FLOOR)).isNull();
+    }
+    
+    @Test
+    void matchesPricesAndRangesWithinBounds() {
+        PriceIndex index = new PriceIndex();
+        index.add(1, price("50"), null, null);
+        index.add(2, price("150"), null, null);
+        index.add(3, price("250"), null, null);
+        index.add(4, null, price("100"), price("200"));
+        index.add(5, null, null, price("90"));
+        index.add(6, null, null, null);
+        
+        assertThat(index.matching(10_000L, 20_000L).toArray()).containsExactly(2, 4);
+        assertThat(index.matching(null, 9_000L).toArray()).containsExactly(1, 5);
+        assertThat(index.matching(20_001L, null).toArray()).containsExactly(3);
+        assertThat(index.matching(null, null).toArray()).containsExactly(1, 2, 3, 4, 5);
+        assertThat(index.pricedCount()).isEqualTo(3);
+    }
+    
+    @Test
+    void walksInPriceOrderAfterACursor() {
+        PriceIndex index = new PriceIndex();
+        index.add(3, price("10"), null, null);
+        index.add(1, price("20"), null, null);
+        index.add(2, price("10"), null, null);
+        
+        assertThat(walk(index, true, null, 0)).containsExactly(2, 3, 1);
+        assertThat(walk(index, false, null, 0)).containsExactly(1, 3, 2);
+        assertThat(walk(index, true, 1_000L, 2)).containsExactly(3, 1);
+        assertThat(walk(index, false, 1_000L, 3)).containsExactly(2);
+    }
+    
+    @Test
+    void removesPosts() {
+        PriceIndex index = new PriceIndex();
+        index.add(1, price("10"), null, null);
+        index.add(2, null, price("5"), price("15"));
+        
+        index.remove(1, price("10"), null, null);
+        index.remove(2, null, price("5"), price("15"));
+        
+        assertThat(index.matching(null, null).isEmpty()).isTrue();
+        assertThat(index.pricedCount()).isZero();
+    }
+    
+    @Test
+    void bulkLoadEndsInTheSameOrderAsLiveInserts() {
+        Random random = new Random(3);
+        PriceIndex live = new PriceIndex();
+        PriceIndex bulk = new PriceIndex();
+        for (int docId = 0; docId < 10_000; docId++) {
+            BigDecimal price = random.nextInt(4) == 0 ? null : BigDecimal.valueOf(random.nextInt(500));
+            BigDecimal priceMin = price == null ? BigDecimal.valueOf(random.nextInt(500)) : null;
+            live.add(docId, price, priceMin, null);
+            bulk.append(docId, price, priceMin, null);
+        }
+        
+        bulk.trim();
+        
+        assertThat(walk(bulk, true, null, 0)).isEqualTo(walk(live, true, null, 0));
+        assertThat(bulk.matching(10_000L, 20_000L).toArray()).isEqualTo(live.matching(10_000L, 20_000L).toArray());
+        
+        // live updates keep working after the bulk load
+        bulk.add(20_000, price("1000"), null, null);
+        List<Integer> ordered = walk(bulk, true, null, 0);
+        assertThat(ordered.get(ordered.size() - 1)).isEqualTo(20_000);
+    }
+    
+    @Test
+    void bulkLoadsManyPricesQuickly() {
+        PriceIndex index = new PriceIndex();
+        Random random = new Random(5);
+        long start = System.nanoTime();
+        for (int docId = 0; docId < 500_000; docId++) {
+            index.append(docId, BigDecimal.valueOf(random.nextInt(1_000_000), 2), null, null);
+        }
+        index.trim();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        
+        // Shifting inserts took tens of seconds for this many prices
+        assertThat(millis).isLessThan(5_000);
+        List<Integer> ordered = walk(index, true, null, 0);
+        assertThat(ordered).hasSize(500_000);
+    }
+    
+    private static List<Integer> walk(PriceIndex index, boolean ascending, Long afterCents, int afterDocId) {
+        List<Integer> docIds = new ArrayList<>();
+        index.forEachOrdered(ascending, afterCents, afterDocId, docId -> docIds.add(docId));
+        return docIds;
+    }
+    
+    private static BigDecimal price(String value) {
+        return new BigDecimal(value);
+    }
+}
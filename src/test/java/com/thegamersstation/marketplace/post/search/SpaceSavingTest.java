@@ -0,0 +1,64 @@
+package com.thegamersstation.marketplace.post.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+    
+    @Test
+    void countsExactlyWhileNotFull() {
+        SpaceSaving<String> summary = new SpaceSaving<>(4);
+        summary.add("ps5");
+        summary.add("ps5");
+        summary.add("xbox");
+        
+        assertThat(summary.keys()).containsExactlyInAnyOrder("ps5", "xbox");
+        assertThat(summary.upperBound("ps5")).isEqualTo(2);
+        assertThat(summary.lowerBound("ps5")).isEqualTo(2);
+        assertThat(summary.upperBound("switch")).isZero();
+        assertThat(summary.lowerBound("switch")).isZero();
+    }
+    
+    @Test
+    void replacesTheLowestCountWhenFull() {
+        SpaceSaving<String> summary = new SpaceSaving<>(2);
+        summary.add("ps5");
+        summary.add("ps5");
+        summary.add("xbox");
+        
+        summary.add("switch");
+        
+        assertThat(summary.keys()).containsExactlyInAnyOrder("ps5", "switch");
+        assertThat(summary.upperBound("switch")).isEqualTo(2);
+        assertThat(summary.lowerBound("switch")).isEqualTo(1);
+        assertThat(summary.upperBound("xbox")).isEqualTo(2);
+        assertThat(summary.lowerBound("xbox")).isZero();
+    }
+    
+    @Test
+    void keepsFrequentKeysAndBoundsEveryCount() {
+        int capacity = 50;
+        SpaceSaving<Integer> summary = new SpaceSaving<>(capacity);
+        Map<Integer, Integer> counts = new HashMap<>();
+        Random random = new Random(5);
+        int total = 100_000;
+        for (int i = 0; i < total; i++) {
+            int key = (int) (Math.pow(random.nextDouble(), 4) * 5_000);
+            summary.add(key);
+            counts.merge(key, 1, Integer::sum);
+        }
+        
+        counts.forEach((key, count) -> {
+            assertThat(summary.upperBound(key)).isGreaterThanOrEqualTo(count);
+            assertThat(summary.lowerBound(key)).isLessThanOrEqualTo(count);
+            if (count > total / capacity) {
+                assertThat(summary.keys()).contains(key);
+            }
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.thegamersstation.marketplace.sitemap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thegamersstation.marketplace.category.CategoryRepository;
+import com.thegamersstation.marketplace.post.PostRepository;
+import com.thegamersstation.marketplace.store.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SitemapGeneratorTest {
+    
+    private static final long SECOND_SHARD = SitemapGenerator.SHARD_SIZE + 1L;
+    private static final LocalDateTime MODIFIED = LocalDateTime.of(2025, 1, 1, 12, 0);
+    
+    @TempDir
+    Path directory;
+    
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final StoreRepository storeRepository = mock(StoreRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final List<Object[]> postShards = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        postShards.add(new Object[] {0L, 1L, 1L, MODIFIED});
+        postShards.add(new Object[] {1L, 1L, SECOND_SHARD, MODIFIED});
+        when(postRepository.findSitemapShards(SitemapGenerator.SHARD_SIZE)).thenReturn(postShards);
+        when(postRepository.streamSitemapEntries(anyLong(), anyLong())).thenAnswer(invocation ->
+            Stream.of(new SitemapEntry(String.valueOf((long) invocation.getArgument(0)), MODIFIED)));
+        when(storeRepository.findSitemapVersion()).thenReturn(new SitemapVersion(0L, null));
+        when(categoryRepository.findSitemapVersion()).thenReturn(new SitemapVersion(1L, Instant.EPOCH));
+        when(categoryRepository.findSitemapEntries()).thenReturn(List.of(new SitemapEntry("consoles", MODIFIED)));
+    }
+    
+    @Test
+    void unchangedFingerprintsDoNotRewriteShards() throws IOException {
+        generator().regenerate();
+        List<String> files = shardFiles();
+        String index = index();
+        clearInvocations(postRepository, categoryRepository);
+        
+        // A restarted generator reads the fingerprints back from the manifest
+        generator().regenerate();
+        
+        verify(postRepository, never()).streamSitemapEntries(anyLong(), anyLong());
+        verify(categoryRepository, never()).findSitemapEntries();
+        assertThat(shardFiles()).isEqualTo(files);
+        assertThat(index()).isEqualTo(index);
+        assertThat(files).hasSize(3);
+    }
+    
+    @Test
+    void changedFingerprintRewritesOnlyItsShard() throws IOException {
+        SitemapGenerator generator = generator();
+        generator.regenerate();
+        List<String> before = shardFiles();
+        clearInvocations(postRepository, categoryRepository);
+        
+        postShards.set(1, new Object[] {1L, 2L, SECOND_SHARD * 2 + 1, MODIFIED.plusHours(1)});
+        generator.regenerate();
+        
+        verify(postRepository, times(1)).streamSitemapEntries(anyLong(), anyLong());
+        verify(postRepository).streamSitemapEntries(eq(SECOND_SHARD), anyLong());
+        verify(categoryRepository, never()).findSitemapEntries();
+        List<String> after = shardFiles();
+        // The replaced file stays for the grace period, for clients holding the old index
+        assertThat(after).containsAll(before).hasSize(4);
+        String rewritten = after.stream().filter(file -> !before.contains(file)).findFirst().orElseThrow();
+        assertThat(rewritten).startsWith("posts-1-");
+        assertThat(index())
+            .contains(rewritten)
+            .doesNotContain(before.stream().filter(file -> file.startsWith("posts-1-")).findFirst().orElseThrow());
+    }
+    
+    private SitemapGenerator generator() {
+        return new SitemapGenerator(postRepository, storeRepository, categoryRepository,
+            new ObjectMapper().findAndRegisterModules(), true, directory.toString(),
+            "https://example.com", "https://api.example.com/sitemaps");
+    }
+    
+    private List<String> shardFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                .filter(name -> name.endsWith(".xml.gz"))
+                .sorted()
+                .toList();
+        }
+    }
+    
+    private String index() throws IOException {
+        return Files.readString(directory.resolve(SitemapGenerator.INDEX_FILE), StandardCharsets.UTF_8);
+    }
+}